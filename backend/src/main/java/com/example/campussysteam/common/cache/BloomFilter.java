@@ -0,0 +1,158 @@
+package com.example.campussysteam.common.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 基于位数组的布隆过滤器，元素为long类型的ID
+ * 位的排列与Redis位图一致（每个字节从高位开始），toBytes()的结果可直接SET到Redis后用GETBIT/SETBIT读写，
+ * offsets()返回的偏移量也可直接作为GETBIT/SETBIT的offset。
+ * 判断不存在时一定不存在，判断存在时有一定误判率；不支持删除，删除的元素只能通过重建清除
+ */
+public class BloomFilter {
+
+    /**
+     * Redis单个字符串最大512MB，即2^32位
+     */
+    public static final long MAX_BIT_SIZE = 1L << 32;
+
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLongArray words;
+
+    public BloomFilter(long bitSize, int hashCount) {
+        if (bitSize <= 0 || bitSize > MAX_BIT_SIZE || bitSize % Long.SIZE != 0) {
+            throw new IllegalArgumentException("位数组大小必须为64的正整数倍且不超过2^32: " + bitSize);
+        }
+        if (hashCount <= 0) {
+            throw new IllegalArgumentException("哈希函数个数必须大于0: " + hashCount);
+        }
+        this.bitSize = bitSize;
+        this.hashCount = hashCount;
+        this.words = new AtomicLongArray((int) (bitSize / Long.SIZE));
+    }
+
+    /**
+     * 按预计元素数量和期望误判率计算最优的位数组大小和哈希函数个数
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long bitSize = optimalBitSize(expectedInsertions, falsePositiveRate);
+        return new BloomFilter(bitSize, optimalHashCount(expectedInsertions, bitSize));
+    }
+
+    /**
+     * 从Redis中读取的位图恢复，长度不足的部分视为0
+     */
+    public static BloomFilter fromBytes(byte[] bytes, long bitSize, int hashCount) {
+        BloomFilter filter = new BloomFilter(bitSize, hashCount);
+        if (bytes == null) {
+            return filter;
+        }
+        byte[] padded = new byte[(int) (bitSize / Byte.SIZE)];
+        System.arraycopy(bytes, 0, padded, 0, Math.min(bytes.length, padded.length));
+        ByteBuffer buffer = ByteBuffer.wrap(padded);
+        for (int i = 0; i < filter.words.length(); i++) {
+            filter.words.set(i, buffer.getLong());
+        }
+        return filter;
+    }
+
+    /**
+     * m = -n·ln(p) / (ln2)^2，向上取整为64的倍数
+     */
+    public static long optimalBitSize(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        long rounded = (bits + Long.SIZE - 1) / Long.SIZE * Long.SIZE;
+        return Math.min(Math.max(rounded, Long.SIZE), MAX_BIT_SIZE);
+    }
+
+    /**
+     * k = m/n·ln2
+     */
+    public static int optimalHashCount(long expectedInsertions, long bitSize) {
+        long n = Math.max(1, expectedInsertions);
+        return Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    /**
+     * 插入n个元素后的理论误判率 (1 - e^(-k·n/m))^k
+     */
+    public static double expectedFalsePositiveRate(long insertions, long bitSize, int hashCount) {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions / bitSize), hashCount);
+    }
+
+    /**
+     * 计算ID对应的各个位偏移量，采用双重哈希 h1 + i·h2
+     */
+    public long[] offsets(long id) {
+        long h1 = mix(id);
+        long h2 = mix(h1 + 0x9E3779B97F4A7C15L) | 1;
+        long[] offsets = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = Math.floorMod(h1 + i * h2, bitSize);
+        }
+        return offsets;
+    }
+
+    public boolean mightContain(long id) {
+        for (long offset : offsets(id)) {
+            if (!getBit(offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(long id) {
+        for (long offset : offsets(id)) {
+            setBit(offset);
+        }
+    }
+
+    public boolean getBit(long offset) {
+        return (words.get((int) (offset >>> 6)) & mask(offset)) != 0;
+    }
+
+    public void setBit(long offset) {
+        long mask = mask(offset);
+        words.getAndAccumulate((int) (offset >>> 6), mask, (current, bit) -> current | bit);
+    }
+
+    /**
+     * 导出为与Redis位图相同排列的字节数组
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (bitSize / Byte.SIZE));
+        for (int i = 0; i < words.length(); i++) {
+            buffer.putLong(words.get(i));
+        }
+        return buffer.array();
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    /**
+     * 按大端序导出时，偏移量0对应第一个字节的最高位
+     */
+    private static long mask(long offset) {
+        return 1L << (Long.SIZE - 1 - (offset & (Long.SIZE - 1)));
+    }
+
+    /**
+     * SplitMix64的混合函数，使连续的ID也能均匀分布
+     */
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
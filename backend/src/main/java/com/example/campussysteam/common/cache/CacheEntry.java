@@ -0,0 +1,32 @@
+package com.example.campussysteam.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 带软过期时间和逻辑版本号的缓存值
+ * Redis中的实际过期时间晚于软过期时间，超过软过期后仍可返回旧值，由后台刷新替换
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEntry {
+
+    private Object value;
+
+    /**
+     * 逻辑版本号，每次刷新加1，刷新时只替换版本号未变化的值
+     */
+    private long version;
+
+    /**
+     * 软过期时间（毫秒时间戳）
+     */
+    private long softExpireAt;
+
+    /**
+     * 上次加载耗时（毫秒），加载越慢越早开始刷新
+     */
+    private long computeMillis;
+}
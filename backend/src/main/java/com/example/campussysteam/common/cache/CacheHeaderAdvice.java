@@ -0,0 +1,41 @@
+package com.example.campussysteam.common.cache;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 缓存响应头
+ * 写响应体前根据本次请求的缓存访问记录添加X-Cache（HIT、STALE、MISS）和Server-Timing，
+ * 没有访问缓存的请求不添加
+ */
+@RestControllerAdvice
+public class CacheHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    public static final String CACHE_HEADER = "X-Cache";
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        CacheTrace trace = CacheTrace.current();
+        if (trace != null && !trace.isEmpty()) {
+            String status = trace.getCacheStatus();
+            if (status != null) {
+                response.getHeaders().set(CACHE_HEADER, status);
+            }
+            response.getHeaders().set(SERVER_TIMING_HEADER, trace.toServerTiming());
+        }
+        return body;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.campussysteam.common.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存访问指标
+ * 按缓存名称（Spring缓存）或键前缀（RedisService中的键，如 user:*）分别统计命中、过期命中、未命中、
+ * 加载和等待锁的次数，加载耗时和等待锁耗时按固定区间统计分布。
+ * 在请求线程中记录时同时写入当前请求的CacheTrace
+ */
+@Component
+public class CacheMetrics {
+
+    public enum Outcome {
+        /**
+         * 命中本地一级缓存
+         */
+        LOCAL_HIT,
+        /**
+         * 命中Redis
+         */
+        HIT,
+        /**
+         * 命中已过软过期时间的值
+         */
+        STALE,
+        MISS
+    }
+
+    /**
+     * 耗时分布的区间上限（毫秒），超出最后一个区间的计入+Inf
+     */
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * RedisService中的键按第一个冒号前的部分归类，如 user:v3:12 归为 user:*
+     */
+    public static String prefixOf(String key) {
+        int index = key.indexOf(':');
+        return (index < 0 ? key : key.substring(0, index)) + ":*";
+    }
+
+    public void recordLookup(String name, Outcome outcome, long nanos) {
+        Stats item = stats(name);
+        switch (outcome) {
+            case LOCAL_HIT:
+                item.localHits.increment();
+                break;
+            case HIT:
+                item.hits.increment();
+                break;
+            case STALE:
+                item.staleHits.increment();
+                break;
+            default:
+                item.misses.increment();
+        }
+        CacheTrace trace = CacheTrace.current();
+        if (trace != null) {
+            trace.lookup(name, outcome, nanos);
+        }
+    }
+
+    public void recordLoad(String name, long nanos, boolean success) {
+        Stats item = stats(name);
+        if (success) {
+            item.loadTime.record(nanos);
+        } else {
+            item.loadFailures.increment();
+        }
+        CacheTrace trace = CacheTrace.current();
+        if (trace != null) {
+            trace.load(name, nanos);
+        }
+    }
+
+    public void recordLockWait(String name, long nanos) {
+        stats(name).lockWaitTime.record(nanos);
+        CacheTrace trace = CacheTrace.current();
+        if (trace != null) {
+            trace.lockWait(name, nanos);
+        }
+    }
+
+    /**
+     * 获取各缓存名称和键前缀的统计
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        stats.forEach((name, item) -> result.put(name, item.toMap()));
+        return result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private Stats stats(String name) {
+        return stats.computeIfAbsent(name, key -> new Stats());
+    }
+
+    private static class Stats {
+
+        private final LongAdder localHits = new LongAdder();
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder staleHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder loadFailures = new LongAdder();
+        private final Histogram loadTime = new Histogram();
+        private final Histogram lockWaitTime = new Histogram();
+
+        Map<String, Object> toMap() {
+            long served = localHits.sum() + hits.sum() + staleHits.sum();
+            long lookups = served + misses.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("lookups", lookups);
+            map.put("localHits", localHits.sum());
+            map.put("hits", hits.sum());
+            map.put("staleHits", staleHits.sum());
+            map.put("misses", misses.sum());
+            map.put("hitRate", lookups == 0 ? 0.0 : (double) served / lookups);
+            map.put("loads", loadTime.count.sum());
+            map.put("loadFailures", loadFailures.sum());
+            map.put("loadTime", loadTime.toMap());
+            map.put("lockWaits", lockWaitTime.count.sum());
+            map.put("lockWaitTime", lockWaitTime.toMap());
+            return map;
+        }
+    }
+
+    private static class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MS.length + 1];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos) {
+            long millis = nanos / 1_000_000;
+            int index = 0;
+            while (index < BUCKET_BOUNDS_MS.length && millis >= BUCKET_BOUNDS_MS[index]) {
+                index++;
+            }
+            buckets[index].increment();
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long total = count.sum();
+            long[] counts = new long[buckets.length];
+            Map<String, Long> distribution = new LinkedHashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                counts[i] = buckets[i].sum();
+                distribution.put(i < BUCKET_BOUNDS_MS.length ? "<" + BUCKET_BOUNDS_MS[i] + "ms" : "+Inf", counts[i]);
+            }
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", total);
+            map.put("meanMs", total == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / total);
+            map.put("maxMs", maxNanos.get() / 1_000_000.0);
+            map.put("p50Ms", percentile(counts, total, 0.50));
+            map.put("p95Ms", percentile(counts, total, 0.95));
+            map.put("p99Ms", percentile(counts, total, 0.99));
+            map.put("buckets", distribution);
+            return map;
+        }
+
+        /**
+         * 取累计数量达到分位点的区间上限作为估计值，落在+Inf区间时取最大值
+         */
+        private double percentile(long[] counts, long total, double quantile) {
+            if (total == 0) {
+                return 0.0;
+            }
+            long target = (long) Math.ceil(total * quantile);
+            long cumulative = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+                cumulative += counts[i];
+                if (cumulative >= target) {
+                    return BUCKET_BOUNDS_MS[i];
+                }
+            }
+            return maxNanos.get() / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.campussysteam.common.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 单个请求内的缓存访问记录
+ * 由CacheTraceInterceptor在请求开始时创建、结束时清除，CacheMetrics记录指标时同时写入当前请求的记录，
+ * 写响应时据此生成X-Cache和Server-Timing响应头。不在请求线程中（如后台刷新）时没有记录
+ */
+public final class CacheTrace {
+
+    private static final ThreadLocal<CacheTrace> CURRENT = new ThreadLocal<>();
+
+    /**
+     * 响应头中最多输出的事件数量
+     */
+    private static final int MAX_EVENTS = 20;
+
+    private final List<Event> events = new ArrayList<>();
+
+    /**
+     * 未命中后等待写入的缓存项及其未命中时间，用于计算@Cacheable方法的加载耗时
+     */
+    private final Map<String, Long> pendingLoads = new HashMap<>();
+
+    private boolean miss;
+    private boolean stale;
+    private boolean hit;
+
+    private CacheTrace() {
+    }
+
+    public static void begin() {
+        CURRENT.set(new CacheTrace());
+    }
+
+    public static CacheTrace current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 本次请求的总体缓存状态：有未命中时为MISS，否则有过期值时为STALE，全部命中时为HIT，没有缓存访问时为null
+     */
+    public String getCacheStatus() {
+        if (miss) {
+            return CacheMetrics.Outcome.MISS.name();
+        }
+        if (stale) {
+            return CacheMetrics.Outcome.STALE.name();
+        }
+        return hit ? CacheMetrics.Outcome.HIT.name() : null;
+    }
+
+    /**
+     * 生成Server-Timing响应头，如 cache;desc="course HIT";dur=0.21, load;desc="course";dur=12.40
+     */
+    public String toServerTiming() {
+        StringBuilder builder = new StringBuilder();
+        for (Event event : events) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(event.metric)
+                    .append(";desc=\"").append(event.description.replace("\"", "'")).append('"')
+                    .append(";dur=").append(String.format(Locale.ROOT, "%.2f", event.nanos / 1_000_000.0));
+        }
+        return builder.toString();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+
+    void lookup(String name, CacheMetrics.Outcome outcome, long nanos) {
+        switch (outcome) {
+            case MISS:
+                miss = true;
+                break;
+            case STALE:
+                stale = true;
+                break;
+            default:
+                hit = true;
+        }
+        add("cache", name + " " + outcome.name(), nanos);
+    }
+
+    void load(String name, long nanos) {
+        add("load", name, nanos);
+    }
+
+    void lockWait(String name, long nanos) {
+        add("lock", name, nanos);
+    }
+
+    void markPendingLoad(String id) {
+        pendingLoads.put(id, System.nanoTime());
+    }
+
+    Long takePendingLoad(String id) {
+        return pendingLoads.remove(id);
+    }
+
+    private void add(String metric, String description, long nanos) {
+        if (events.size() < MAX_EVENTS) {
+            events.add(new Event(metric, description, nanos));
+        }
+    }
+
+    private static class Event {
+
+        private final String metric;
+        private final String description;
+        private final long nanos;
+
+        Event(String metric, String description, long nanos) {
+            this.metric = metric;
+            this.description = description;
+            this.nanos = nanos;
+        }
+    }
+}
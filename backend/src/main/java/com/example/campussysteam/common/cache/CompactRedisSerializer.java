@@ -0,0 +1,141 @@
+package com.example.campussysteam.common.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.MapperBuilder;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.IOException;
+
+/**
+ * 带类型信息的Redis值序列化器
+ * 对象按配置的格式写入：SMILE为二进制JSON，体积更小、解析更快；JSON为带@class的文本JSON，便于排查。
+ * 两种格式都记录类名，读取时还原为原来的类型，而不是LinkedHashMap。
+ * 数字、字符串和布尔值始终写成纯JSON文本，保证INCRBY、Lua脚本等直接操作这些值的命令仍然可用。
+ * 读取时按内容识别格式，兼容迁移前写入的数据：无类型信息的JSON读为Map，JDK序列化的数据按JDK方式读取
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    public enum Format {
+        SMILE, JSON
+    }
+
+    /**
+     * Smile数据头 ":)\n"
+     */
+    private static final byte[] SMILE_HEADER = {0x3A, 0x29, 0x0A};
+
+    /**
+     * JDK序列化数据头
+     */
+    private static final byte[] JDK_HEADER = {(byte) 0xAC, (byte) 0xED};
+
+    private final Format format;
+    private final ObjectMapper smileMapper;
+    private final ObjectMapper typedJsonMapper;
+    private final ObjectMapper plainJsonMapper;
+    private final JdkSerializationRedisSerializer jdkSerializer = new JdkSerializationRedisSerializer();
+
+    public CompactRedisSerializer(Format format) {
+        this.format = format;
+        this.smileMapper = typed(SmileMapper.builder());
+        this.typedJsonMapper = typed(JsonMapper.builder());
+        this.plainJsonMapper = configure(JsonMapper.builder()).build();
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            if (isScalar(value)) {
+                return plainJsonMapper.writeValueAsBytes(value);
+            }
+            return format == Format.SMILE
+                    ? smileMapper.writeValueAsBytes(value)
+                    : typedJsonMapper.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("序列化缓存值失败: " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        try {
+            if (startsWith(bytes, SMILE_HEADER)) {
+                return smileMapper.readValue(bytes, Object.class);
+            }
+            if (startsWith(bytes, JDK_HEADER)) {
+                return jdkSerializer.deserialize(bytes);
+            }
+            if (bytes[0] == '[' || bytes[0] == '{') {
+                try {
+                    return typedJsonMapper.readValue(bytes, Object.class);
+                } catch (IOException e) {
+                    // 迁移前写入的无类型信息的JSON
+                    return plainJsonMapper.readValue(bytes, Object.class);
+                }
+            }
+            return plainJsonMapper.readValue(bytes, Object.class);
+        } catch (IOException e) {
+            throw new SerializationException("反序列化缓存值失败", e);
+        }
+    }
+
+    private boolean isScalar(Object value) {
+        return value instanceof Number || value instanceof CharSequence || value instanceof Boolean
+                || value instanceof Character;
+    }
+
+    private boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static <M extends ObjectMapper, B extends MapperBuilder<M, B>> M typed(B builder) {
+        PolymorphicTypeValidator validator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("com.example.campussysteam.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType("java.lang.")
+                .allowIfSubType("java.math.")
+                .build();
+        return configure(builder)
+                .activateDefaultTyping(validator, ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY)
+                .build();
+    }
+
+    private static <M extends ObjectMapper, B extends MapperBuilder<M, B>> B configure(B builder) {
+        return builder
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                // 实体中只有getter的集合属性（如UserDetails.getAuthorities）读取时忽略，不通过getter回填
+                .disable(MapperFeature.USE_GETTERS_AS_SETTERS);
+    }
+}
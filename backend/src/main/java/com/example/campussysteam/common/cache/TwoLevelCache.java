@@ -0,0 +1,241 @@
+package com.example.campussysteam.common.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 两级缓存
+ * 一级为本节点内存中的Caffeine缓存，二级为Redis缓存。读取时先查本地，未命中再查Redis并回填本地；
+ * 写入和删除同时作用于两级，并通知其他节点删除本地副本。
+ * 本地缓存以key的字符串形式保存，与Redis缓存key的转换方式一致，便于跨节点按key失效。
+ * DTO等可变对象在本地缓存中保存为序列化后的字节，每次命中都还原出新的对象，
+ * 避免调用方修改返回值后影响同一节点上其他读取者拿到的缓存内容
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Cache remote;
+    private final TwoLevelCacheManager manager;
+    private final CacheMetrics metrics;
+    private final RedisSerializer<Object> localSerializer;
+
+    TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+                  Cache remote, TwoLevelCacheManager manager, CacheMetrics metrics,
+                  RedisSerializer<Object> localSerializer) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.metrics = metrics;
+        this.localSerializer = localSerializer;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        String localKey = localKey(key);
+        Object value = getLocal(localKey);
+        if (value != null) {
+            metrics.recordLookup(name, CacheMetrics.Outcome.LOCAL_HIT, System.nanoTime() - start);
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            putLocal(localKey, wrapper.get());
+            metrics.recordLookup(name, CacheMetrics.Outcome.HIT, System.nanoTime() - start);
+        } else {
+            metrics.recordLookup(name, CacheMetrics.Outcome.MISS, System.nanoTime() - start);
+            // @Cacheable未命中后执行方法并调用put，两者之间的耗时即为加载耗时
+            CacheTrace trace = CacheTrace.current();
+            if (trace != null) {
+                trace.markPendingLoad(name + "\n" + localKey);
+            }
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("缓存值类型不匹配: cache=" + name + ", key=" + key
+                    + ", expected=" + type.getName() + ", actual=" + value.getClass().getName());
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        String localKey = localKey(key);
+        Object value = getLocal(localKey);
+        if (value != null) {
+            metrics.recordLookup(name, CacheMetrics.Outcome.LOCAL_HIT, System.nanoTime() - start);
+            return (T) value;
+        }
+        boolean[] loaded = new boolean[1];
+        T result = remote.get(key, () -> {
+            loaded[0] = true;
+            metrics.recordLookup(name, CacheMetrics.Outcome.MISS, System.nanoTime() - start);
+            long loadStart = System.nanoTime();
+            try {
+                T loadedValue = valueLoader.call();
+                metrics.recordLoad(name, System.nanoTime() - loadStart, true);
+                return loadedValue;
+            } catch (Exception e) {
+                metrics.recordLoad(name, System.nanoTime() - loadStart, false);
+                throw e;
+            }
+        });
+        if (!loaded[0]) {
+            metrics.recordLookup(name, CacheMetrics.Outcome.HIT, System.nanoTime() - start);
+        }
+        if (result != null) {
+            putLocal(localKey, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = localKey(key);
+        CacheTrace trace = CacheTrace.current();
+        Long missedAt = trace == null ? null : trace.takePendingLoad(name + "\n" + localKey);
+        if (missedAt != null) {
+            metrics.recordLoad(name, System.nanoTime() - missedAt, true);
+        }
+        if (value != null) {
+            putLocal(localKey, value);
+        } else {
+            local.invalidate(localKey);
+        }
+        manager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        // 不确定Redis中最终保存的是哪个值，本地副本留待下次读取时回填
+        local.invalidate(localKey(key));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        manager.publishEvict(name, localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        manager.publishEvict(name, localKey);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishClear(name);
+    }
+
+    /**
+     * 只删除本地副本，用于处理其他节点发来的失效通知
+     */
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    com.github.benmanes.caffeine.cache.Cache<String, Object> getLocalCache() {
+        return local;
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * 读取本地副本，序列化保存的值每次还原为新对象
+     */
+    private Object getLocal(String localKey) {
+        Object stored = local.getIfPresent(localKey);
+        if (!(stored instanceof SerializedValue)) {
+            return stored;
+        }
+        try {
+            return localSerializer.deserialize(((SerializedValue) stored).bytes);
+        } catch (Exception e) {
+            logger.warn("还原本地缓存失败，按未命中处理: cache={}, key={}, error={}", name, localKey, e.getMessage());
+            local.invalidate(localKey);
+            return null;
+        }
+    }
+
+    /**
+     * 写入本地副本，字符串、数字等不可变值直接保存，其余对象保存序列化后的字节
+     */
+    private void putLocal(String localKey, Object value) {
+        if (isImmutable(value)) {
+            local.put(localKey, value);
+            return;
+        }
+        try {
+            local.put(localKey, new SerializedValue(localSerializer.serialize(value)));
+        } catch (Exception e) {
+            // 无法序列化的值不放入本地缓存，下次读取直接访问Redis
+            logger.warn("写入本地缓存失败: cache={}, key={}, error={}", name, localKey, e.getMessage());
+            local.invalidate(localKey);
+        }
+    }
+
+    private boolean isImmutable(Object value) {
+        return value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum;
+    }
+
+    /**
+     * 本地缓存中的序列化值，与业务上缓存的byte[]区分开
+     */
+    private static final class SerializedValue {
+
+        private final byte[] bytes;
+
+        private SerializedValue(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
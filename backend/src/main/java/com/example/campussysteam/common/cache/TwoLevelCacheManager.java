@@ -0,0 +1,152 @@
+package com.example.campussysteam.common.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 两级缓存管理器
+ * 在RedisCacheManager前增加本地Caffeine缓存，本地缓存按缓存名称分别限制容量，
+ * 过期时间取本地过期时间与Redis过期时间中的较小值。
+ * 某个节点修改或删除缓存时通过Redis频道cache:invalidate通知其他节点删除本地副本
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    public static final String CHANNEL = "cache:invalidate";
+
+    private static final String OP_EVICT = "EVICT";
+    private static final String OP_CLEAR = "CLEAR";
+
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<String, Integer> localMaxSizes;
+    private final int defaultLocalMaxSize;
+    private final Duration localTtl;
+    private final CacheMetrics metrics;
+
+    /**
+     * 本地缓存值的序列化器，固定使用Smile，与Redis中的格式配置无关
+     */
+    private final CompactRedisSerializer localSerializer = new CompactRedisSerializer(CompactRedisSerializer.Format.SMILE);
+
+    /**
+     * 当前节点标识，忽略自己发出的失效通知
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(RedisCacheManager redisCacheManager, StringRedisTemplate stringRedisTemplate,
+                                Map<String, Integer> localMaxSizes, int defaultLocalMaxSize, Duration localTtl,
+                                CacheMetrics metrics) {
+        this.redisCacheManager = redisCacheManager;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.localMaxSizes = localMaxSizes;
+        this.defaultLocalMaxSize = defaultLocalMaxSize;
+        this.localTtl = localTtl;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = redisCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new TwoLevelCache(key, buildLocal(key), remote, this, metrics,
+                localSerializer));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    /**
+     * 获取各缓存本地一级缓存的命中统计
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        caches.forEach((name, cache) -> {
+            CacheStats stats = cache.getLocalCache().stats();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("size", cache.getLocalCache().estimatedSize());
+            item.put("hits", stats.hitCount());
+            item.put("misses", stats.missCount());
+            item.put("hitRate", stats.hitRate());
+            item.put("evictions", stats.evictionCount());
+            result.put(name, item);
+        });
+        return result;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 4);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (OP_CLEAR.equals(parts[1])) {
+            cache.clearLocal();
+        } else if (OP_EVICT.equals(parts[1]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    void publishEvict(String cacheName, String key) {
+        publish(OP_EVICT, cacheName, key);
+    }
+
+    void publishClear(String cacheName) {
+        publish(OP_CLEAR, cacheName, "");
+    }
+
+    private void publish(String op, String cacheName, String key) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId + "\n" + op + "\n" + cacheName + "\n" + key);
+        } catch (Exception e) {
+            // 通知失败时其他节点的本地副本在本地过期时间后自然失效
+            logger.warn("发送缓存失效通知失败: cache={}, key={}, error={}", cacheName, key, e.getMessage());
+        }
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> buildLocal(String name) {
+        Duration ttl = localTtl;
+        RedisCacheConfiguration config = redisCacheManager.getCacheConfigurations().get(name);
+        if (config != null && !config.getTtl().isZero() && !config.getTtl().isNegative()
+                && config.getTtl().compareTo(ttl) < 0) {
+            ttl = config.getTtl();
+        }
+        return Caffeine.newBuilder()
+                .maximumSize(localMaxSizes.getOrDefault(name, defaultLocalMaxSize))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
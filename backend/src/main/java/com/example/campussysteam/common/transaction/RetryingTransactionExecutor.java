@@ -0,0 +1,129 @@
+package com.example.campussysteam.common.transaction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 带重试的事务执行器
+ * 每次尝试都在新事务中执行，遇到乐观锁冲突或死锁等并发异常时回滚，
+ * 按指数退避加随机抖动等待后重试，并按操作名称统计冲突和重试次数
+ */
+@Component
+public class RetryingTransactionExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryingTransactionExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<String, RetryStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Value("${transaction.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${transaction.retry.initial-backoff-ms:20}")
+    private long initialBackoffMs;
+
+    @Value("${transaction.retry.max-backoff-ms:500}")
+    private long maxBackoffMs;
+
+    public RetryingTransactionExecutor(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 在事务中执行操作，并发冲突时自动重试
+     *
+     * @param operation 操作名称，用于统计
+     * @param action 要执行的操作
+     * @return 操作结果
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        RetryStatistics stats = statistics.computeIfAbsent(operation, key -> new RetryStatistics());
+        stats.executions.increment();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (ConcurrencyFailureException e) {
+                stats.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    stats.exhausted.increment();
+                    logger.warn("事务并发冲突，重试次数已用尽: operation={}, attempts={}", operation, attempt);
+                    throw e;
+                }
+                stats.retries.increment();
+                long backoff = backoff(attempt);
+                logger.debug("事务并发冲突，{}ms后重试: operation={}, attempt={}, error={}",
+                        backoff, operation, attempt, e.getMessage());
+                sleep(backoff);
+            }
+        }
+    }
+
+    /**
+     * 在事务中执行无返回值的操作，并发冲突时自动重试
+     */
+    public void run(String operation, Runnable action) {
+        execute(operation, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * 获取各操作的重试统计
+     */
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        statistics.forEach((operation, stats) -> {
+            long executions = stats.executions.sum();
+            long conflicts = stats.conflicts.sum();
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("executions", executions);
+            item.put("conflicts", conflicts);
+            item.put("retries", stats.retries.sum());
+            item.put("exhausted", stats.exhausted.sum());
+            item.put("conflictRate", executions == 0 ? 0.0 : (double) conflicts / executions);
+            result.put(operation, item);
+        });
+        return result;
+    }
+
+    /**
+     * 指数退避并加入全抖动：在[0, min(最大退避, 初始退避 * 2^(n-1))]内随机取值
+     */
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("事务重试等待时被中断", e);
+        }
+    }
+
+    private static class RetryStatistics {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
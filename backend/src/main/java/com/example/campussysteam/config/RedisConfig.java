@@ -1,10 +1,19 @@
 package com.example.campussysteam.config;
 
+import com.example.campussysteam.common.cache.CacheMetrics;
+import com.example.campussysteam.common.cache.CompactRedisSerializer;
+import com.example.campussysteam.common.cache.TwoLevelCacheManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
@@ -12,8 +21,11 @@ import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactor
 import org.springframework.cache.annotation.EnableCaching;
 
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Redis配置类
@@ -29,14 +41,15 @@ public class RedisConfig {
      * @return 配置好的RedisTemplate实例
      */
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       @Value("${redis.serializer.format:smile}") String format) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
         // 设置key的序列化方式
         template.setKeySerializer(new StringRedisSerializer());
-        // 设置value的序列化方式
-        template.setValueSerializer(new Jackson2JsonRedisSerializer<>(Object.class));
+        // 设置value的序列化方式，对象带类型信息，可读取迁移前的JSON数据
+        template.setValueSerializer(new CompactRedisSerializer(parseFormat(format)));
         
         template.setHashKeySerializer(new StringRedisSerializer());
         template.setHashValueSerializer(new Jackson2JsonRedisSerializer<>(Object.class));
@@ -45,12 +58,59 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * 配置Redis消息监听容器，用于跨节点的发布/订阅通知
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * 配置两级缓存管理器，@Cacheable等注解通过它先访问本地缓存再访问Redis
+     */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    @Primary
+    public TwoLevelCacheManager cacheManager(RedisCacheManager redisCacheManager,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             RedisMessageListenerContainer redisMessageListenerContainer,
+                                             CacheMetrics cacheMetrics,
+                                             @Value("${cache.local.default-max-size:1000}") int defaultLocalMaxSize,
+                                             @Value("${cache.local.ttl-seconds:60}") long localTtlSeconds) {
+        // 针对不同缓存设置不同的本地缓存容量
+        Map<String, Integer> localMaxSizes = new HashMap<>();
+        localMaxSizes.put("user", 2000);
+        localMaxSizes.put("course", 5000);
+        localMaxSizes.put("score", 2000);
+        localMaxSizes.put("notification", 500);
+
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate,
+                localMaxSizes, defaultLocalMaxSize, Duration.ofSeconds(localTtlSeconds), cacheMetrics);
+        redisMessageListenerContainer.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return cacheManager;
+    }
+
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory,
+                                               @Value("${cache.serializer.default:smile}") String defaultFormat,
+                                               @Value("${cache.serializer.json-caches:}") String jsonCaches) {
+        RedisSerializationContext.SerializationPair<Object> defaultValues = RedisSerializationContext.SerializationPair
+                .fromSerializer(new CompactRedisSerializer(parseFormat(defaultFormat)));
+        RedisSerializationContext.SerializationPair<Object> jsonValues = RedisSerializationContext.SerializationPair
+                .fromSerializer(new CompactRedisSerializer(CompactRedisSerializer.Format.JSON));
+        // 需要直接在Redis中查看内容的缓存可单独配置为JSON格式
+        Set<String> jsonCacheNames = Arrays.stream(jsonCaches.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+
         // 默认缓存配置
         RedisCacheConfiguration defaultCacheConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(30))  // 默认30分钟过期
-                .disableCachingNullValues();
+                .disableCachingNullValues()
+                .serializeValuesWith(defaultValues);
         
         // 针对不同缓存设置不同的过期时间
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
@@ -62,10 +122,23 @@ public class RedisConfig {
         cacheConfigurations.put("score", defaultCacheConfig.entryTtl(Duration.ofDays(1)));
         // 通知信息缓存1周
         cacheConfigurations.put("notification", defaultCacheConfig.entryTtl(Duration.ofDays(7)));
+        for (String cacheName : jsonCacheNames) {
+            cacheConfigurations.put(cacheName, cacheConfigurations
+                    .getOrDefault(cacheName, defaultCacheConfig)
+                    .serializeValuesWith(jsonValues));
+        }
         
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultCacheConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
                 .build();
     }
-} 
\ No newline at end of file
+
+    private CompactRedisSerializer.Format parseFormat(String format) {
+        try {
+            return CompactRedisSerializer.Format.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("不支持的Redis序列化格式: " + format);
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.campussysteam.config;
 
+import com.example.campussysteam.common.cache.CacheHeaderAdvice;
+import com.example.campussysteam.common.cache.CacheTraceInterceptor;
+import com.example.campussysteam.module.course.interceptor.EnrollmentAdmissionInterceptor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.springframework.http.HttpMethod;
@@ -16,6 +20,8 @@ import org.springframework.http.HttpMethod;
 public class WebConfig implements WebMvcConfigurer {
     
     private final ServerConfig serverConfig;
+    private final EnrollmentAdmissionInterceptor enrollmentAdmissionInterceptor;
+    private final CacheTraceInterceptor cacheTraceInterceptor;
     
     /**
      * 配置静态资源处理
@@ -31,6 +37,22 @@ public class WebConfig implements WebMvcConfigurer {
                 .addResourceLocations("file:temp/");
     }
     
+    /**
+     * 配置拦截器
+     * 选课接口在进入控制器前先经过准入控制；所有接口记录缓存访问，用于生成X-Cache和Server-Timing响应头
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(cacheTraceInterceptor)
+                .addPathPatterns("/api/**");
+        registry.addInterceptor(enrollmentAdmissionInterceptor)
+                .addPathPatterns(
+                        "/api/student/courses/*/enroll",
+                        "/api/student/courses/*/enroll/async",
+                        "/api/student/courses/batch-enroll"
+                );
+    }
+    
     /**
      * 配置CORS（跨域资源共享）
      * 允许前端应用从不同域访问API
@@ -47,6 +69,8 @@ public class WebConfig implements WebMvcConfigurer {
                         HttpMethod.OPTIONS.name()
                 )
                 .allowedHeaders("*")
+                .exposedHeaders("Retry-After", EnrollmentAdmissionInterceptor.TICKET_HEADER,
+                        CacheHeaderAdvice.CACHE_HEADER, CacheHeaderAdvice.SERVER_TIMING_HEADER)
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -14,6 +14,10 @@ import java.time.LocalDateTime;
 public class CacheResult<T> {
     private T data;
     private boolean cacheHit;
+    /**
+     * 缓存状态：HIT、STALE（返回了已过软过期时间的值）、MISS
+     */
+    private String cacheStatus;
     private long processingTime;
     private LocalDateTime expirationTime;
 } 
\ No newline at end of file
@@ -1,16 +1,24 @@
 package com.example.campussysteam.module.admin.controller;
 
 import com.example.campussysteam.common.api.Result;
+import com.example.campussysteam.common.transaction.RetryingTransactionExecutor;
+import com.example.campussysteam.module.course.dto.ReconciliationReportDTO;
+import com.example.campussysteam.module.course.dto.WarmupReportDTO;
+import com.example.campussysteam.module.course.service.CacheWarmupService;
+import com.example.campussysteam.module.course.service.EnrollmentReconciliationService;
 import com.example.campussysteam.module.user.repository.UserRepository;
 import com.example.campussysteam.module.student.repository.StudentRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -20,6 +28,9 @@ public class AdminController {
 
     private final UserRepository userRepository;
     private final StudentRepository studentRepository;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+    private final EnrollmentReconciliationService enrollmentReconciliationService;
+    private final CacheWarmupService cacheWarmupService;
 
     @GetMapping("/statistics")
     @PreAuthorize("hasRole('ADMIN')")
@@ -39,4 +50,55 @@ public class AdminController {
         
         return ResponseEntity.ok(Result.success(statistics));
     }
-} 
\ No newline at end of file
+
+    /**
+     * 获取事务并发冲突与重试统计
+     */
+    @GetMapping("/statistics/transactions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Result<Map<String, Map<String, Object>>>> getTransactionStatistics() {
+        return ResponseEntity.ok(Result.success(retryingTransactionExecutor.getStatistics()));
+    }
+
+    /**
+     * 获取选课人数对账的累计偏差统计和最近一次对账报告
+     */
+    @GetMapping("/statistics/enrollment-drift")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Result<Map<String, Object>>> getEnrollmentDrift() {
+        Map<String, Object> result = new HashMap<>(enrollmentReconciliationService.getStatistics());
+        result.put("lastReport", enrollmentReconciliationService.getLastReport());
+        return ResponseEntity.ok(Result.success(result));
+    }
+
+    /**
+     * 立即执行一次选课人数对账
+     */
+    @PostMapping("/reconciliation/enrollment")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Result<ReconciliationReportDTO>> reconcileEnrollment() {
+        ReconciliationReportDTO report = enrollmentReconciliationService.reconcile();
+        if (report == null) {
+            return ResponseEntity.ok(Result.error("对账正在执行中，请稍后再试"));
+        }
+        return ResponseEntity.ok(Result.success(report));
+    }
+
+    /**
+     * 获取最近一次缓存预热报告
+     */
+    @GetMapping("/warmup/report")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Result<WarmupReportDTO>> getWarmupReport() {
+        return ResponseEntity.ok(Result.success(cacheWarmupService.getLastReport()));
+    }
+
+    /**
+     * 立即预热指定学期的选课缓存，不指定学期时预热全部学期
+     */
+    @PostMapping("/warmup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Result<WarmupReportDTO>> warmUp(@RequestParam(required = false) List<String> semesters) {
+        return ResponseEntity.ok(Result.success(cacheWarmupService.warmUp(semesters)));
+    }
+}
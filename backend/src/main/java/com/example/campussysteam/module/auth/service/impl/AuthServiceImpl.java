@@ -8,6 +8,7 @@ import com.example.campussysteam.module.user.entity.User;
 import com.example.campussysteam.module.user.repository.UserRepository;
 import com.example.campussysteam.security.JwtService;
 import com.example.campussysteam.module.auth.service.AuthService;
+import com.example.campussysteam.module.redis.service.IdBloomFilterService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +30,7 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final IdBloomFilterService idBloomFilterService;
     private static final Logger logger = LoggerFactory.getLogger(AuthServiceImpl.class);
 
     /**
@@ -51,6 +53,7 @@ public class AuthServiceImpl implements AuthService {
 
         // 保存用户
         User savedUser = userRepository.save(user);
+        idBloomFilterService.add(IdBloomFilterService.USER, savedUser.getId());
 
         // 生成JWT令牌
         String token = jwtService.generateToken(user);
@@ -3,24 +3,41 @@ package com.example.campussysteam.module.course.controller;
 import com.example.campussysteam.common.log.Log;
 import com.example.campussysteam.common.log.OperationType;
 import com.example.campussysteam.module.course.dto.CourseDTO;
+import com.example.campussysteam.module.course.dto.CourseRankDTO;
+import com.example.campussysteam.module.course.service.CourseCatalogService;
+import com.example.campussysteam.module.course.service.CourseLeaderboardService;
 import com.example.campussysteam.module.course.service.CourseService;
+import com.example.campussysteam.module.course.service.SeatStreamService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/course")
 public class CourseController {
 
     private final CourseService courseService;
+    private final CourseCatalogService courseCatalogService;
+    private final CourseLeaderboardService courseLeaderboardService;
+    private final SeatStreamService seatStreamService;
 
-    public CourseController(@Qualifier("moduleCourseService") CourseService courseService) {
+    public CourseController(@Qualifier("moduleCourseService") CourseService courseService,
+                            CourseCatalogService courseCatalogService,
+                            CourseLeaderboardService courseLeaderboardService,
+                            SeatStreamService seatStreamService) {
         this.courseService = courseService;
+        this.courseCatalogService = courseCatalogService;
+        this.courseLeaderboardService = courseLeaderboardService;
+        this.seatStreamService = seatStreamService;
     }
 
     @GetMapping("/list")
@@ -33,6 +50,53 @@ public class CourseController {
         return ResponseEntity.ok(courseService.findAll(pageRequest));
     }
 
+    /**
+     * 查询学期课程目录，数据来自内存快照
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<List<CourseDTO>> catalog(
+            @RequestParam String semester,
+            @RequestParam(required = false) Long departmentId,
+            @RequestParam(required = false) Long teacherId,
+            @RequestParam(required = false) String courseType) {
+        return ResponseEntity.ok(courseCatalogService.findCourses(semester, departmentId, teacherId, courseType));
+    }
+
+    /**
+     * 查询选课排行榜，orderBy为count时按已选人数、为fill时按满员率排序；不指定学期时查询全部学期
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<List<CourseRankDTO>> leaderboard(
+            @RequestParam(required = false) String semester,
+            @RequestParam(defaultValue = "count") String orderBy,
+            @RequestParam(defaultValue = "10") int limit) {
+        int size = Math.max(1, Math.min(limit, 100));
+        if ("fill".equalsIgnoreCase(orderBy)) {
+            return ResponseEntity.ok(courseLeaderboardService.getTopCoursesByFillRatio(semester, size));
+        }
+        return ResponseEntity.ok(courseLeaderboardService.getTopCourses(semester, size));
+    }
+
+    /**
+     * 查询课程在所属学期中的排名和满员率
+     */
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<CourseRankDTO> rank(@PathVariable Long id) {
+        CourseRankDTO rank = courseLeaderboardService.getCourseRank(id);
+        if (rank == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(rank);
+    }
+
+    /**
+     * 订阅课程余量变化，连接建立后先推送当前余量，之后按合并窗口推送变化
+     */
+    @GetMapping(value = "/seats/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter seatStream(@RequestParam List<Long> courseIds) {
+        return seatStreamService.subscribe(courseIds);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'TEACHER')")
     @Log(module = "课程管理", type = OperationType.QUERY, description = "查询课程详情")
@@ -2,14 +2,31 @@ package com.example.campussysteam.module.course.controller;
 
 import com.example.campussysteam.common.log.Log;
 import com.example.campussysteam.common.log.OperationType;
+import com.example.campussysteam.module.course.dto.AvailableCourseQuery;
+import com.example.campussysteam.module.course.dto.BatchEnrollRequest;
+import com.example.campussysteam.module.course.dto.BatchEnrollResultDTO;
+import com.example.campussysteam.module.course.dto.EnrollmentTicketDTO;
+import com.example.campussysteam.module.course.dto.KeysetPageDTO;
 import com.example.campussysteam.module.course.dto.StudentCourseDTO;
+import com.example.campussysteam.module.course.dto.TimetableDTO;
+import com.example.campussysteam.module.course.dto.WaitlistPositionDTO;
+import com.example.campussysteam.module.course.service.EnrollmentQueueService;
 import com.example.campussysteam.module.course.service.StudentCourseService;
+import com.example.campussysteam.module.course.service.TimetableService;
+import com.example.campussysteam.module.course.service.WaitlistService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -21,6 +38,9 @@ import java.util.List;
 public class StudentCourseController {
     
     private final StudentCourseService studentCourseService;
+    private final EnrollmentQueueService enrollmentQueueService;
+    private final WaitlistService waitlistService;
+    private final TimetableService timetableService;
     
     /**
      * 获取可选课程列表
@@ -34,6 +54,18 @@ public class StudentCourseController {
         return ResponseEntity.ok(studentCourseService.getAvailableCourses(studentId, semester, pageable));
     }
     
+    /**
+     * 按条件查询可选课程，使用游标分页
+     */
+    @GetMapping("/available/seek")
+    @Log(module = "选课管理", type = OperationType.QUERY, description = "查询可选课程")
+    public ResponseEntity<KeysetPageDTO<StudentCourseDTO>> findAvailableCourses(
+            @RequestParam Long studentId,
+            @RequestParam String semester,
+            AvailableCourseQuery query) {
+        return ResponseEntity.ok(studentCourseService.findAvailableCourses(studentId, semester, query));
+    }
+    
     /**
      * 获取已选课程列表
      */
@@ -60,6 +92,31 @@ public class StudentCourseController {
         return ResponseEntity.ok(studentCourseService.enrollCourse(studentId, courseId));
     }
     
+    /**
+     * 批量选课，全部选上或全部不选
+     */
+    @PostMapping("/batch-enroll")
+    @Log(module = "选课管理", type = OperationType.INSERT, description = "学生批量选课")
+    public ResponseEntity<BatchEnrollResultDTO> batchEnroll(
+            @RequestParam Long studentId,
+            @Valid @RequestBody BatchEnrollRequest request) {
+        BatchEnrollResultDTO result = studentCourseService.batchEnroll(studentId, request.getCourseIds());
+        if (!result.isSuccess()) {
+            return ResponseEntity.badRequest().body(result);
+        }
+        return ResponseEntity.ok(result);
+    }
+    
+    /**
+     * 查询与目标课程时间冲突的已选课程
+     */
+    @GetMapping("/{courseId}/conflicts")
+    public ResponseEntity<List<StudentCourseDTO>> getTimeConflicts(
+            @RequestParam Long studentId,
+            @PathVariable Long courseId) {
+        return ResponseEntity.ok(studentCourseService.getTimeConflicts(studentId, courseId));
+    }
+    
     /**
      * 退课
      */
@@ -72,6 +129,89 @@ public class StudentCourseController {
         return ResponseEntity.ok().build();
     }
     
+    /**
+     * 异步选课，受理后立即返回凭证
+     */
+    @PostMapping("/{courseId}/enroll/async")
+    @Log(module = "选课管理", type = OperationType.INSERT, description = "学生异步选课")
+    public ResponseEntity<EnrollmentTicketDTO> enrollCourseAsync(
+            @RequestParam Long studentId,
+            @PathVariable Long courseId) {
+        // 先检查时间冲突
+        if (studentCourseService.checkTimeConflict(studentId, courseId)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return toTicketResponse(enrollmentQueueService.submitEnroll(studentId, courseId));
+    }
+    
+    /**
+     * 异步退课，受理后立即返回凭证
+     */
+    @DeleteMapping("/{courseId}/drop/async")
+    @Log(module = "选课管理", type = OperationType.DELETE, description = "学生异步退课")
+    public ResponseEntity<EnrollmentTicketDTO> dropCourseAsync(
+            @RequestParam Long studentId,
+            @PathVariable Long courseId) {
+        return toTicketResponse(enrollmentQueueService.submitDrop(studentId, courseId));
+    }
+    
+    /**
+     * 查询异步选课/退课的处理状态
+     */
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<EnrollmentTicketDTO> getTicket(@PathVariable String ticketId) {
+        EnrollmentTicketDTO ticket = enrollmentQueueService.getTicket(ticketId);
+        if (ticket == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(ticket);
+    }
+    
+    /**
+     * 加入课程候补队列
+     */
+    @PostMapping("/{courseId}/waitlist")
+    @Log(module = "选课管理", type = OperationType.INSERT, description = "加入候补队列")
+    public ResponseEntity<WaitlistPositionDTO> joinWaitlist(
+            @RequestParam Long studentId,
+            @PathVariable Long courseId) {
+        return ResponseEntity.ok(waitlistService.joinWaitlist(studentId, courseId));
+    }
+    
+    /**
+     * 退出课程候补队列
+     */
+    @DeleteMapping("/{courseId}/waitlist")
+    @Log(module = "选课管理", type = OperationType.DELETE, description = "退出候补队列")
+    public ResponseEntity<Void> leaveWaitlist(
+            @RequestParam Long studentId,
+            @PathVariable Long courseId) {
+        waitlistService.leaveWaitlist(studentId, courseId);
+        return ResponseEntity.ok().build();
+    }
+    
+    /**
+     * 查询候补位置
+     */
+    @GetMapping("/{courseId}/waitlist/position")
+    public ResponseEntity<WaitlistPositionDTO> getWaitlistPosition(
+            @RequestParam Long studentId,
+            @PathVariable Long courseId) {
+        WaitlistPositionDTO position = waitlistService.getPosition(studentId, courseId);
+        if (position == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(position);
+    }
+    
+    /**
+     * 获取候补通知
+     */
+    @GetMapping("/notifications")
+    public ResponseEntity<List<String>> getNotifications(@RequestParam Long studentId) {
+        return ResponseEntity.ok(waitlistService.getNotifications(studentId));
+    }
+    
     /**
      * 获取课程表
      */
@@ -83,6 +223,31 @@ public class StudentCourseController {
         return ResponseEntity.ok(studentCourseService.getStudentSchedule(studentId, semester));
     }
     
+    /**
+     * 获取按星期和节次展开的课表
+     */
+    @GetMapping("/schedule/timetable")
+    public ResponseEntity<TimetableDTO> getTimetable(
+            @RequestParam Long studentId,
+            @RequestParam String semester) {
+        return ResponseEntity.ok(timetableService.getTimetable(studentId, semester));
+    }
+    
+    /**
+     * 导出iCalendar格式的课表
+     */
+    @GetMapping("/schedule/ical")
+    @Log(module = "选课管理", type = OperationType.EXPORT, description = "导出课表")
+    public ResponseEntity<String> exportTimetable(
+            @RequestParam Long studentId,
+            @RequestParam String semester,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate firstWeekMonday) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"timetable.ics\"")
+                .contentType(new MediaType("text", "calendar", StandardCharsets.UTF_8))
+                .body(timetableService.exportICalendar(studentId, semester, firstWeekMonday));
+    }
+    
     /**
      * 获取课程详情
      */
@@ -93,4 +258,17 @@ public class StudentCourseController {
             @PathVariable Long courseId) {
         return ResponseEntity.ok(studentCourseService.getStudentCourseDetail(studentId, courseId));
     }
-} 
\ No newline at end of file
+    
+    private ResponseEntity<EnrollmentTicketDTO> toTicketResponse(EnrollmentTicketDTO ticket) {
+        switch (ticket.getStatus()) {
+            case EnrollmentTicketDTO.STATUS_PENDING:
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(ticket);
+            case EnrollmentTicketDTO.STATUS_REJECTED:
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(ticket);
+            case EnrollmentTicketDTO.STATUS_FAILED:
+                return ResponseEntity.badRequest().body(ticket);
+            default:
+                return ResponseEntity.ok(ticket);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 选课准入结果DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionDecisionDTO {
+
+    /**
+     * 是否准入
+     */
+    private boolean admitted;
+
+    /**
+     * 排队凭证号，未准入时下次请求需携带
+     */
+    private Long ticket;
+
+    /**
+     * 前方排队人数
+     */
+    private Long queuePosition;
+
+    /**
+     * 建议重试等待时间（毫秒）
+     */
+    private Long retryAfterMs;
+}
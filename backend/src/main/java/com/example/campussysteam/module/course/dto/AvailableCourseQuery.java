@@ -0,0 +1,41 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.Data;
+
+/**
+ * 可选课程查询条件
+ * 除学期外均为可选条件，cursor为上一页返回的nextCursor
+ */
+@Data
+public class AvailableCourseQuery {
+    
+    /**
+     * 开课院系ID
+     */
+    private Long departmentId;
+    
+    /**
+     * 课程类型
+     */
+    private String courseType;
+    
+    /**
+     * 学分
+     */
+    private Double credits;
+    
+    /**
+     * 是否只查询有余量的课程
+     */
+    private boolean hasFreeSeats;
+    
+    /**
+     * 翻页游标，查询第一页时为空
+     */
+    private String cursor;
+    
+    /**
+     * 每页条数
+     */
+    private Integer size;
+}
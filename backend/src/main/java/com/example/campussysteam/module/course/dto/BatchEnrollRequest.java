@@ -0,0 +1,21 @@
+package com.example.campussysteam.module.course.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量选课请求
+ */
+@Data
+public class BatchEnrollRequest {
+    
+    /**
+     * 要选的课程ID列表
+     */
+    @NotEmpty(message = "课程列表不能为空")
+    @Size(max = 20, message = "一次最多选择20门课程")
+    private List<Long> courseIds;
+}
@@ -0,0 +1,56 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量选课结果DTO
+ * 全部课程选课成功或全部不选，items中给出每门课程的处理结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchEnrollResultDTO {
+    
+    public static final String ITEM_ENROLLED = "ENROLLED";
+    public static final String ITEM_REJECTED = "REJECTED";
+    public static final String ITEM_SKIPPED = "SKIPPED";
+    
+    /**
+     * 是否全部选课成功
+     */
+    private boolean success;
+    
+    /**
+     * 每门课程的处理结果
+     */
+    private List<Item> items;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        
+        private Long courseId;
+        
+        private String courseName;
+        
+        /**
+         * 处理结果：ENROLLED(已选上), REJECTED(校验未通过), SKIPPED(因其他课程未通过而未处理)
+         */
+        private String status;
+        
+        private String message;
+        
+        /**
+         * 选课成功时的选课记录
+         */
+        private StudentCourseDTO enrollment;
+    }
+}
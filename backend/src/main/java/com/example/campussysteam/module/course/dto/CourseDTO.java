@@ -1,10 +1,13 @@
 package com.example.campussysteam.module.course.dto;
 
+import com.example.campussysteam.module.course.entity.Course;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.io.Serializable;
+
 /**
  * 课程数据传输对象
  */
@@ -12,7 +15,9 @@ import lombok.NoArgsConstructor;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class CourseDTO {
+public class CourseDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
     
     /**
      * 课程ID
@@ -103,4 +108,52 @@ public class CourseDTO {
      * 上课节次
      */
     private String sections;
-} 
\ No newline at end of file
+
+    /**
+     * 从实体转换
+     */
+    public static CourseDTO fromEntity(Course course) {
+        if (course == null) {
+            return null;
+        }
+
+        CourseDTO dto = new CourseDTO();
+        dto.setId(course.getId());
+        dto.setCourseCode(course.getCourseCode());
+        dto.setCourseName(course.getCourseName());
+        
+        // 添加对 department 的空值检查
+        if (course.getDepartment() != null) {
+            dto.setDepartmentId(course.getDepartment().getId());
+            dto.setDepartmentName(course.getDepartment().getName());
+        } else {
+            dto.setDepartmentId(null);
+            dto.setDepartmentName("未分配院系");
+        }
+        
+        // 添加对 teacher 的空值检查
+        if (course.getTeacher() != null) {
+            dto.setTeacherId(course.getTeacher().getId());
+            dto.setTeacherName(course.getTeacher().getRealName());
+        } else {
+            dto.setTeacherId(null);
+            dto.setTeacherName("未分配教师");
+        }
+        
+        dto.setCredits(course.getCredits());
+        dto.setCourseType(course.getCourseType());
+        dto.setSemester(course.getSemester());
+        dto.setCapacity(course.getCapacity());
+        dto.setSelectedCount(course.getSelectedCount());
+        dto.setStatus(course.getStatus());
+        dto.setDescription(course.getDescription());
+        
+        // 添加时间和地点相关字段
+        dto.setClassTime(course.getClassTime());
+        dto.setClassroom(course.getClassroom());
+        dto.setWeeks(course.getWeeks());
+        dto.setSections(course.getSections());
+        
+        return dto;
+    }
+}
\ No newline at end of file
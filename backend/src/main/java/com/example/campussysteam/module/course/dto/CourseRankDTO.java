@@ -0,0 +1,46 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 课程选课排行DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseRankDTO {
+
+    private Long courseId;
+
+    private String courseCode;
+
+    private String courseName;
+
+    private String teacherName;
+
+    private String semester;
+
+    /**
+     * 排名，从1开始
+     */
+    private Long rank;
+
+    /**
+     * 已选人数
+     */
+    private Long selectedCount;
+
+    /**
+     * 课程容量
+     */
+    private Integer capacity;
+
+    /**
+     * 满员率，已选人数/容量
+     */
+    private Double fillRatio;
+}
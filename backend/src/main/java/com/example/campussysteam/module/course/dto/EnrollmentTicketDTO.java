@@ -0,0 +1,64 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 异步选课/退课请求受理凭证
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentTicketDTO {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    public static final String ACTION_ENROLL = "ENROLL";
+    public static final String ACTION_DROP = "DROP";
+
+    /**
+     * 凭证ID
+     */
+    private String ticketId;
+
+    /**
+     * 学生ID
+     */
+    private Long studentId;
+
+    /**
+     * 课程ID
+     */
+    private Long courseId;
+
+    /**
+     * 操作类型：ENROLL(选课), DROP(退课)
+     */
+    private String action;
+
+    /**
+     * 处理状态：PENDING(排队中), SUCCESS(成功), FAILED(失败), REJECTED(未受理)
+     */
+    private String status;
+
+    /**
+     * 结果说明
+     */
+    private String message;
+
+    /**
+     * 受理时间
+     */
+    private String acceptedAt;
+
+    /**
+     * 完成时间
+     */
+    private String completedAt;
+}
@@ -0,0 +1,31 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * 按上一页最后一条记录定位下一页，不统计总数，翻页耗时与页码无关
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPageDTO<T> {
+    
+    private List<T> content;
+    
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasNext;
+    
+    /**
+     * 下一页游标，没有下一页时为空
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,90 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 选课人数对账报告
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReportDTO {
+
+    public static final String SOURCE_SELECTED_COUNT = "SELECTED_COUNT";
+    public static final String SOURCE_SEAT_COUNTER = "SEAT_COUNTER";
+    public static final String SOURCE_ENROLLMENT_COUNTER = "ENROLLMENT_COUNTER";
+
+    private LocalDateTime startedAt;
+
+    private long durationMs;
+
+    private int batches;
+
+    private int coursesScanned;
+
+    /**
+     * course.selected_count与选课记录数不一致的课程数
+     */
+    private int selectedCountDrift;
+
+    private int selectedCountRepaired;
+
+    /**
+     * Redis座位余量计数器与数据库不一致的课程数
+     */
+    private int seatCounterDrift;
+
+    private int seatCounterRepaired;
+
+    /**
+     * Redis选课人数计数器与数据库不一致的课程数
+     */
+    private int enrollmentCounterDrift;
+
+    private int enrollmentCounterRepaired;
+
+    /**
+     * 因对账期间发生并发修改而留待下次处理的课程数
+     */
+    private int deferred;
+
+    /**
+     * 偏差样例，最多保留若干条
+     */
+    @Builder.Default
+    private List<Drift> samples = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Drift {
+
+        private Long courseId;
+
+        /**
+         * 偏差来源：SELECTED_COUNT、SEAT_COUNTER、ENROLLMENT_COUNTER
+         */
+        private String source;
+
+        /**
+         * 按选课记录计算出的正确值
+         */
+        private Long expected;
+
+        /**
+         * 实际值，Redis计数器不存在时为null
+         */
+        private Long actual;
+
+        private boolean repaired;
+    }
+}
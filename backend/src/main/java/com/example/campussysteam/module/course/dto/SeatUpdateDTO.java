@@ -0,0 +1,33 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 课程余量变化消息
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatUpdateDTO {
+
+    private Long courseId;
+
+    /**
+     * 已选人数
+     */
+    private Integer selectedCount;
+
+    /**
+     * 课程容量
+     */
+    private Integer capacity;
+
+    /**
+     * 剩余座位数
+     */
+    private Integer remaining;
+}
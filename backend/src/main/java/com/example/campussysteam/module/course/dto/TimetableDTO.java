@@ -0,0 +1,90 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 学生学期课表
+ * entries为已选课程，cells为按(星期, 节次)展开的稀疏课表格子
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimetableDTO {
+
+    private Long studentId;
+
+    private String semester;
+
+    private List<Entry> entries;
+
+    private List<Cell> cells;
+
+    /**
+     * 课表中的一门课程
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+
+        /**
+         * 选课记录ID
+         */
+        private Long id;
+
+        private Long courseId;
+
+        private String courseCode;
+
+        private String courseName;
+
+        private String teacherName;
+
+        private Double credits;
+
+        private String classTime;
+
+        private String classroom;
+
+        private String weeks;
+
+        private String sections;
+
+        private LocalDateTime selectionTime;
+
+        private String status;
+    }
+
+    /**
+     * 课表格子
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Cell {
+
+        /**
+         * 星期，1为周一，7为周日
+         */
+        private Integer day;
+
+        /**
+         * 节次，从1开始
+         */
+        private Integer section;
+
+        /**
+         * 该格子上的课程ID，不同周次上课的课程可能共用一个格子
+         */
+        private List<Long> courseIds;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 候补位置DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistPositionDTO {
+
+    private Long studentId;
+
+    private Long courseId;
+
+    /**
+     * 候补位次，从1开始
+     */
+    private Long position;
+
+    /**
+     * 当前候补总人数
+     */
+    private Long waitingCount;
+
+    private LocalDateTime joinedAt;
+}
@@ -0,0 +1,57 @@
+package com.example.campussysteam.module.course.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存预热报告
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmupReportDTO {
+
+    /**
+     * 触发预热的选课窗口开始时间，手动预热时为null
+     */
+    private LocalDateTime windowStart;
+
+    private LocalDateTime startedAt;
+
+    private long durationMs;
+
+    @Builder.Default
+    private List<String> semesters = new ArrayList<>();
+
+    /**
+     * 加载到本地课程目录快照的课程数
+     */
+    private int catalogCourses;
+
+    /**
+     * 写入Redis课程缓存的key数
+     */
+    private int courseCacheKeys;
+
+    /**
+     * 新写入的座位余量计数器数，已存在的计数器不覆盖
+     */
+    private int seatCounterKeys;
+
+    /**
+     * 已存在而跳过的座位余量计数器数
+     */
+    private int seatCounterExisting;
+
+    private boolean leaderboardRebuilt;
+
+    @Builder.Default
+    private List<String> errors = new ArrayList<>();
+}
@@ -124,6 +124,12 @@ public class Course {
     @Column(length = 500)
     private String description;
     
+    /**
+     * 乐观锁版本号
+     */
+    @Version
+    private Long version;
+    
     /**
      * 创建时间
      */
@@ -0,0 +1,89 @@
+package com.example.campussysteam.module.course.entity;
+
+import com.example.campussysteam.module.user.entity.User;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 课程候补记录实体类
+ * 候补顺序以Redis有序集合为准，本表作为持久化备份
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "course_waitlist", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"student_id", "course_id"})
+})
+public class CourseWaitlist {
+
+    public static final String STATUS_WAITING = "WAITING";
+    public static final String STATUS_PROMOTED = "PROMOTED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * 学生ID
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "student_id", nullable = false)
+    private User student;
+
+    /**
+     * 课程ID
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "course_id", nullable = false)
+    private Course course;
+
+    /**
+     * 加入候补的时间，决定候补顺序
+     */
+    @Column(nullable = false)
+    private LocalDateTime joinedAt;
+
+    /**
+     * 候补状态：WAITING(候补中), PROMOTED(已转为选课), CANCELLED(已取消)
+     */
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private String status = STATUS_WAITING;
+
+    /**
+     * 转为选课的时间
+     */
+    @Column
+    private LocalDateTime promotedAt;
+
+    /**
+     * 创建时间
+     */
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
+}
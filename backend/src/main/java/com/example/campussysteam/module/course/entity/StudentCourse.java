@@ -65,6 +65,12 @@ public class StudentCourse {
     @Builder.Default
     private String status = "SELECTED";
     
+    /**
+     * 乐观锁版本号
+     */
+    @Version
+    private Long version;
+    
     /**
      * 创建时间
      */
@@ -0,0 +1,41 @@
+package com.example.campussysteam.module.course.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 选课变更事件
+ * 学生选课或退课成功后发布，事务内发布时在提交后才会被监听器处理
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EnrollmentChangedEvent {
+
+    public static final String TYPE_ENROLLED = "ENROLLED";
+    public static final String TYPE_DROPPED = "DROPPED";
+
+    /**
+     * 学生ID
+     */
+    private final Long studentId;
+
+    /**
+     * 课程ID
+     */
+    private final Long courseId;
+
+    /**
+     * 变更类型：ENROLLED(选课), DROPPED(退课)
+     */
+    private final String type;
+
+    public boolean isEnrolled() {
+        return TYPE_ENROLLED.equals(type);
+    }
+
+    public boolean isDropped() {
+        return TYPE_DROPPED.equals(type);
+    }
+}
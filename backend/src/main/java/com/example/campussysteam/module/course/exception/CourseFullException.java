@@ -0,0 +1,12 @@
+package com.example.campussysteam.module.course.exception;
+
+/**
+ * 课程已无剩余座位
+ * 座位预占失败或数据库条件更新已选人数失败时抛出，候补递补据此区分"恢复位次等待下次递补"与其他选课失败
+ */
+public class CourseFullException extends RuntimeException {
+
+    public CourseFullException(String message) {
+        super(message);
+    }
+}
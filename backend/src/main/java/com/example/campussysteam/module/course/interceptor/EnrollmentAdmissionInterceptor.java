@@ -0,0 +1,72 @@
+package com.example.campussysteam.module.course.interceptor;
+
+import com.example.campussysteam.common.ApiResult;
+import com.example.campussysteam.module.course.dto.AdmissionDecisionDTO;
+import com.example.campussysteam.module.course.service.AdmissionControlService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 选课准入拦截器
+ * 在选课请求进入业务处理前获取准入，未准入的请求直接返回429和排队凭证，
+ * 不占用数据库连接，保证选课高峰期间其他功能仍可正常访问
+ */
+@Component
+@RequiredArgsConstructor
+public class EnrollmentAdmissionInterceptor implements HandlerInterceptor {
+
+    public static final String TICKET_HEADER = "X-Queue-Ticket";
+
+    private final AdmissionControlService admissionControlService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+
+        String owner = request.getParameter("studentId");
+        if (!StringUtils.hasText(owner)) {
+            owner = request.getRemoteAddr();
+        }
+        AdmissionDecisionDTO decision = admissionControlService.tryAdmit(owner, parseTicket(request.getHeader(TICKET_HEADER)));
+        if (decision.isAdmitted()) {
+            return true;
+        }
+
+        long retryAfterSeconds = Math.max(1, (decision.getRetryAfterMs() + 999) / 1000);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setHeader(TICKET_HEADER, String.valueOf(decision.getTicket()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        ApiResult<AdmissionDecisionDTO> result = ApiResult.error(HttpStatus.TOO_MANY_REQUESTS.value(),
+                String.format("选课人数较多，您前面还有%d人，请稍后重试", decision.getQueuePosition()));
+        result.setData(decision);
+        response.getWriter().write(objectMapper.writeValueAsString(result));
+        return false;
+    }
+
+    private Long parseTicket(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
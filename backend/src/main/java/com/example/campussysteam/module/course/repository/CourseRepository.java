@@ -5,9 +5,12 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository("moduleCourseRepository")
@@ -16,6 +19,43 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     @Query("SELECT c FROM Course c")
     Page<Course> findAllWithDetails(Pageable pageable);
 
+    // 批量加载课程及院系、教师信息
+    @EntityGraph(attributePaths = {"department", "teacher"})
+    @Query("SELECT c FROM Course c WHERE c.id IN :ids")
+    List<Course> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // 查询存在课程的全部学期
+    @Query("SELECT DISTINCT c.semester FROM Course c WHERE c.semester IS NOT NULL")
+    List<String> findDistinctSemesters();
+
+    // 批量查询课程的已选人数和容量，返回[课程ID, 已选人数, 容量]
+    @Query("SELECT c.id, c.selectedCount, c.capacity FROM Course c WHERE c.id IN :ids")
+    List<Object[]> findSeatCounts(@Param("ids") Collection<Long> ids);
+
+    // 查询全部课程的ID、学期和容量，用于重建选课排行榜
+    @Query("SELECT c.id, c.semester, c.capacity FROM Course c")
+    List<Object[]> findLeaderboardRows();
+
+    // 查询学生未选的课程，按(课程代码, ID)游标分页，limit由pageable指定且不执行count查询
+    @Query("SELECT c FROM Course c LEFT JOIN FETCH c.department d LEFT JOIN FETCH c.teacher " +
+           "WHERE c.semester = :semester " +
+           "AND NOT EXISTS (SELECT 1 FROM StudentCourse sc WHERE sc.course.id = c.id AND sc.student.id = :studentId) " +
+           "AND (:departmentId IS NULL OR d.id = :departmentId) " +
+           "AND (:courseType IS NULL OR c.courseType = :courseType) " +
+           "AND (:credits IS NULL OR c.credits = :credits) " +
+           "AND (:hasFreeSeats = false OR c.selectedCount < c.capacity) " +
+           "AND (:afterCode IS NULL OR c.courseCode > :afterCode OR (c.courseCode = :afterCode AND c.id > :afterId)) " +
+           "ORDER BY c.courseCode ASC, c.id ASC")
+    List<Course> findAvailableCourses(@Param("studentId") Long studentId,
+                                      @Param("semester") String semester,
+                                      @Param("departmentId") Long departmentId,
+                                      @Param("courseType") String courseType,
+                                      @Param("credits") Double credits,
+                                      @Param("hasFreeSeats") boolean hasFreeSeats,
+                                      @Param("afterCode") String afterCode,
+                                      @Param("afterId") Long afterId,
+                                      Pageable pageable);
+
     boolean existsByCourseCode(String courseCode);
 
     // 根据课程代码查找课程
@@ -35,4 +75,19 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
 
     // 根据学期查找课程
     Page<Course> findBySemester(String semester, Pageable pageable);
+
+    // 根据学期查找课程，同时加载院系和教师，按课程编号排序
+    @EntityGraph(attributePaths = {"department", "teacher"})
+    @Query("SELECT c FROM Course c WHERE c.semester = :semester ORDER BY c.courseCode")
+    List<Course> findBySemesterWithDetails(@Param("semester") String semester);
+
+    // 原子增加已选人数，仅在未满员时生效，返回受影响行数
+    @Modifying
+    @Query("UPDATE Course c SET c.selectedCount = c.selectedCount + 1, c.version = c.version + 1 WHERE c.id = :id AND c.selectedCount < c.capacity")
+    int incrementSelectedCount(@Param("id") Long id);
+
+    // 原子减少已选人数，不会减到0以下，返回受影响行数
+    @Modifying
+    @Query("UPDATE Course c SET c.selectedCount = c.selectedCount - 1, c.version = c.version + 1 WHERE c.id = :id AND c.selectedCount > 0")
+    int decrementSelectedCount(@Param("id") Long id);
 } 
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.campussysteam.module.course.repository;
+
+import com.example.campussysteam.module.course.entity.CourseWaitlist;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CourseWaitlistRepository extends JpaRepository<CourseWaitlist, Long> {
+
+    // 查找学生在某门课程的候补记录
+    Optional<CourseWaitlist> findByStudentIdAndCourseId(Long studentId, Long courseId);
+
+    // 按加入顺序查找课程的有效候补，用于Redis数据丢失后恢复队列
+    @Query("SELECT w.student.id, w.joinedAt FROM CourseWaitlist w " +
+           "WHERE w.course.id = :courseId AND w.status = :status ORDER BY w.joinedAt ASC, w.id ASC")
+    List<Object[]> findQueueByCourseIdAndStatus(@Param("courseId") Long courseId, @Param("status") String status);
+}
@@ -0,0 +1,19 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.AdmissionDecisionDTO;
+
+/**
+ * 选课准入控制服务接口
+ * 基于Redis令牌桶按固定速率放行选课请求，超出部分发放排队凭证并按凭证顺序放行
+ */
+public interface AdmissionControlService {
+
+    /**
+     * 尝试获取选课准入
+     *
+     * @param owner 请求方标识，通常为学生ID
+     * @param ticket 之前获得的排队凭证号，没有时传null
+     * @return 准入结果
+     */
+    AdmissionDecisionDTO tryAdmit(String owner, Long ticket);
+}
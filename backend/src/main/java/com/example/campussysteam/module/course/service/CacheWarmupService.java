@@ -0,0 +1,22 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.WarmupReportDTO;
+
+import java.util.List;
+
+/**
+ * 选课缓存预热服务接口
+ * 在配置的选课窗口开始前批量加载课程目录、课程缓存和座位余量计数器，避免窗口开始时缓存全部未命中
+ */
+public interface CacheWarmupService {
+
+    /**
+     * 立即预热指定学期，学期为空时预热全部学期
+     */
+    WarmupReportDTO warmUp(List<String> semesters);
+
+    /**
+     * 获取最近一次预热报告，尚未预热过时返回null
+     */
+    WarmupReportDTO getLastReport();
+}
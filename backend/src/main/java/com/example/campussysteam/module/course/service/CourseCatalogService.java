@@ -0,0 +1,38 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.CourseDTO;
+
+import java.util.List;
+
+/**
+ * 学期课程目录服务接口
+ * 每个学期的课程目录在内存中保存为不可变快照，读取时不访问数据库；
+ * 返回的列表和对象在多个请求间共享，调用方不得修改
+ */
+public interface CourseCatalogService {
+
+    /**
+     * 获取学期的全部课程，按课程编号排序
+     */
+    List<CourseDTO> getCourses(String semester);
+
+    /**
+     * 按ID获取学期中的课程，不存在时返回null
+     */
+    CourseDTO getCourse(String semester, Long courseId);
+
+    /**
+     * 按条件筛选学期课程，条件为null时不限制
+     */
+    List<CourseDTO> findCourses(String semester, Long departmentId, Long teacherId, String courseType);
+
+    /**
+     * 重新构建学期课程目录快照
+     */
+    void rebuild(String semester);
+
+    /**
+     * 在当前事务提交后重新构建学期课程目录快照，不在事务中时立即构建
+     */
+    void rebuildAfterCommit(String semester);
+}
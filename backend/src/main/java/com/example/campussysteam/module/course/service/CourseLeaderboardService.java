@@ -0,0 +1,50 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.CourseRankDTO;
+
+import java.util.List;
+
+/**
+ * 课程选课排行榜服务接口
+ * 每个学期的排行榜保存在Redis有序集合中，随选课/退课实时增减，并定期与数据库对账
+ */
+public interface CourseLeaderboardService {
+
+    /**
+     * 按已选人数获取排名靠前的课程
+     *
+     * @param semester 学期，为null时查询全部学期
+     * @param limit 数量
+     */
+    List<CourseRankDTO> getTopCourses(String semester, int limit);
+
+    /**
+     * 按满员率获取排名靠前的课程
+     *
+     * @param semester 学期，为null时查询全部学期
+     * @param limit 数量
+     */
+    List<CourseRankDTO> getTopCoursesByFillRatio(String semester, int limit);
+
+    /**
+     * 获取全部学期中已选人数最多的课程ID，按排名排序
+     */
+    List<Long> getTopCourseIds(int limit);
+
+    /**
+     * 获取课程在所属学期中的排名、已选人数和满员率
+     *
+     * @return 排名信息，课程不在排行榜中时返回null
+     */
+    CourseRankDTO getCourseRank(Long courseId);
+
+    /**
+     * 课程信息变更后同步排行榜（学期、容量、删除），处于事务中时在提交后执行
+     */
+    void refreshCourseAfterCommit(Long courseId);
+
+    /**
+     * 按数据库中的选课记录重建全部排行榜
+     */
+    void reconcile();
+}
@@ -0,0 +1,30 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.EnrollmentTicketDTO;
+
+/**
+ * 选课请求异步写入服务接口
+ * 请求受理后立即返回凭证，由后台按批次写入数据库
+ */
+public interface EnrollmentQueueService {
+
+    /**
+     * 提交选课请求
+     */
+    EnrollmentTicketDTO submitEnroll(Long studentId, Long courseId);
+
+    /**
+     * 提交退课请求
+     */
+    EnrollmentTicketDTO submitDrop(Long studentId, Long courseId);
+
+    /**
+     * 查询请求处理状态
+     */
+    EnrollmentTicketDTO getTicket(String ticketId);
+
+    /**
+     * 将队列中的请求批量写入数据库
+     */
+    void flush();
+}
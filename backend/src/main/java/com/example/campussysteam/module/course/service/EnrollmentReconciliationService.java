@@ -0,0 +1,27 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.ReconciliationReportDTO;
+
+import java.util.Map;
+
+/**
+ * 选课人数对账服务接口
+ * 按选课记录分批核对course.selected_count和Redis中的座位余量、选课人数计数器，并修复偏差
+ */
+public interface EnrollmentReconciliationService {
+
+    /**
+     * 执行一次对账，已有对账在执行时返回null
+     */
+    ReconciliationReportDTO reconcile();
+
+    /**
+     * 获取最近一次对账报告，尚未执行过时返回null
+     */
+    ReconciliationReportDTO getLastReport();
+
+    /**
+     * 获取累计偏差统计
+     */
+    Map<String, Object> getStatistics();
+}
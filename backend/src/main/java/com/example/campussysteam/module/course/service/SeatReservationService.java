@@ -0,0 +1,55 @@
+package com.example.campussysteam.module.course.service;
+
+/**
+ * 课程座位预占服务接口
+ * 基于Redis计数器实现原子的余量检查与扣减，避免高并发选课时超卖
+ */
+public interface SeatReservationService {
+
+    /**
+     * 尝试预占一个座位
+     * 计数器不存在时会先从数据库加载课程余量；
+     * 若当前处于事务中，事务回滚后会自动归还座位
+     *
+     * @param courseId 课程ID
+     * @return 是否预占成功
+     */
+    boolean tryReserve(Long courseId);
+
+    /**
+     * 归还一个座位
+     *
+     * @param courseId 课程ID
+     */
+    void release(Long courseId);
+
+    /**
+     * 在事务提交后归还一个座位，不在事务中时立即归还
+     *
+     * @param courseId 课程ID
+     */
+    void releaseAfterCommit(Long courseId);
+
+    /**
+     * 课程容量变更时按差值调整余量，处于事务中时在提交后生效
+     *
+     * @param courseId 课程ID
+     * @param delta 容量变化量，可以为负数
+     */
+    void adjustCapacity(Long courseId, int delta);
+
+    /**
+     * 获取课程剩余座位数
+     *
+     * @param courseId 课程ID
+     * @return 剩余座位数，计数器未加载时返回null
+     */
+    Integer getRemainingSeats(Long courseId);
+
+    /**
+     * 删除课程的座位计数器
+     *
+     * @param courseId 课程ID
+     */
+    void evict(Long courseId);
+}
@@ -0,0 +1,26 @@
+package com.example.campussysteam.module.course.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+/**
+ * 课程余量推送服务接口
+ * 客户端通过SSE订阅关注的课程，课程已选人数变化时按时间窗口合并后推送，
+ * 变化消息通过Redis发布/订阅分发到所有节点
+ */
+public interface SeatStreamService {
+
+    /**
+     * 订阅课程余量变化，连接建立后立即推送一次当前余量
+     *
+     * @param courseIds 关注的课程ID
+     * @return SSE连接
+     */
+    SseEmitter subscribe(Collection<Long> courseIds);
+
+    /**
+     * 标记课程余量已变化，在下一个合并窗口结束时推送；在事务中调用时事务提交后才标记
+     */
+    void markChanged(Long courseId);
+}
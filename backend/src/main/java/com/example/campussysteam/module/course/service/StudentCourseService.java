@@ -1,5 +1,8 @@
 package com.example.campussysteam.module.course.service;
 
+import com.example.campussysteam.module.course.dto.AvailableCourseQuery;
+import com.example.campussysteam.module.course.dto.BatchEnrollResultDTO;
+import com.example.campussysteam.module.course.dto.KeysetPageDTO;
 import com.example.campussysteam.module.course.dto.StudentCourseDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -16,6 +19,11 @@ public interface StudentCourseService {
      */
     Page<StudentCourseDTO> getAvailableCourses(Long studentId, String semester, Pageable pageable);
     
+    /**
+     * 按条件查询学生未选的课程，使用游标分页
+     */
+    KeysetPageDTO<StudentCourseDTO> findAvailableCourses(Long studentId, String semester, AvailableCourseQuery query);
+    
     /**
      * 获取学生已选课程列表
      */
@@ -26,6 +34,11 @@ public interface StudentCourseService {
      */
     StudentCourseDTO enrollCourse(Long studentId, Long courseId);
     
+    /**
+     * 批量选课，整体校验余量和时间冲突，全部选上或全部不选
+     */
+    BatchEnrollResultDTO batchEnroll(Long studentId, List<Long> courseIds);
+    
     /**
      * 退课
      */
@@ -41,6 +54,11 @@ public interface StudentCourseService {
      */
     boolean checkTimeConflict(Long studentId, Long courseId);
     
+    /**
+     * 获取与目标课程时间冲突的已选课程
+     */
+    List<StudentCourseDTO> getTimeConflicts(Long studentId, Long courseId);
+    
     /**
      * 获取学生某门课程的详细信息
      */
@@ -0,0 +1,38 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.util.CourseTimeSlot;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 课程时间冲突检测服务接口
+ */
+public interface TimeConflictService {
+
+    /**
+     * 获取课程的时间位图，按课程ID缓存
+     */
+    CourseTimeSlot getTimeSlot(Course course);
+
+    /**
+     * 判断两门课程是否时间冲突
+     */
+    boolean conflicts(Course course1, Course course2);
+
+    /**
+     * 从给定课程中找出与目标课程时间冲突的课程，目标课程本身不计入
+     */
+    List<Course> findConflicts(Course target, Collection<Course> courses);
+
+    /**
+     * 查找学生同学期已选课程中与目标课程时间冲突的课程
+     */
+    List<Course> findConflicts(Long studentId, Course target);
+
+    /**
+     * 清除课程的时间位图缓存
+     */
+    void evict(Long courseId);
+}
@@ -0,0 +1,45 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.TimetableDTO;
+import com.example.campussysteam.module.course.entity.Course;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 学生课表服务接口
+ * 每个学生每学期的课表物化保存在Redis和本地缓存中，选课/退课时增量更新，读取时不访问数据库
+ */
+public interface TimetableService {
+
+    /**
+     * 获取学生学期课表
+     */
+    TimetableDTO getTimetable(Long studentId, String semester);
+
+    /**
+     * 查找课表中与目标课程时间冲突的课程
+     */
+    List<TimetableDTO.Entry> findConflicts(Long studentId, Course target);
+
+    /**
+     * 导出iCalendar格式的课表
+     *
+     * @param firstWeekMonday 第一周周一的日期
+     */
+    String exportICalendar(Long studentId, String semester, LocalDate firstWeekMonday);
+
+    /**
+     * 删除学生学期课表的物化结果，下次读取时重新构建
+     */
+    void evict(Long studentId, String semester);
+
+    /**
+     * 课程信息变更或删除后删除已选该课程学生在指定学期的课表，处于事务中时在提交后执行。
+     * 已选学生在调用时读取，删除课程时应在删除前调用
+     *
+     * @param semesters 课程调整学期时应同时传入新旧学期
+     */
+    void evictCourseAfterCommit(Long courseId, Collection<String> semesters);
+}
@@ -0,0 +1,54 @@
+package com.example.campussysteam.module.course.service;
+
+import com.example.campussysteam.module.course.dto.WaitlistPositionDTO;
+
+import java.util.List;
+
+/**
+ * 课程候补服务接口
+ * 课程已满时学生可加入候补队列，有学生退课时按加入顺序自动为候补学生选课
+ */
+public interface WaitlistService {
+
+    /**
+     * 加入课程候补队列
+     *
+     * @param studentId 学生ID
+     * @param courseId 课程ID
+     * @return 候补位置
+     */
+    WaitlistPositionDTO joinWaitlist(Long studentId, Long courseId);
+
+    /**
+     * 退出课程候补队列
+     *
+     * @param studentId 学生ID
+     * @param courseId 课程ID
+     */
+    void leaveWaitlist(Long studentId, Long courseId);
+
+    /**
+     * 查询候补位置
+     *
+     * @param studentId 学生ID
+     * @param courseId 课程ID
+     * @return 候补位置，不在候补队列中时返回null
+     */
+    WaitlistPositionDTO getPosition(Long studentId, Long courseId);
+
+    /**
+     * 课程空出座位时，为队列中第一位符合条件的学生选课
+     *
+     * @param courseId 课程ID
+     * @return 转为选课的学生ID，没有符合条件的学生时返回null
+     */
+    Long promoteNext(Long courseId);
+
+    /**
+     * 获取学生最近的候补通知
+     *
+     * @param studentId 学生ID
+     * @return 通知内容，按时间倒序
+     */
+    List<String> getNotifications(Long studentId);
+}
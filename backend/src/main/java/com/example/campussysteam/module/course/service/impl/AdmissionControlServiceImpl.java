@@ -0,0 +1,140 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.AdmissionDecisionDTO;
+import com.example.campussysteam.module.course.service.AdmissionControlService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 选课准入控制服务实现类
+ * 令牌桶与排队游标保存在Redis哈希 enroll:admission:bucket 中，所有节点共享：
+ * 令牌按配置速率补充，用于限制放行速率；游标以同样速率推进，只有凭证号不超过游标的请求才能消耗令牌，
+ * 保证排队的请求按凭证顺序放行，放弃排队的凭证不会阻塞后面的人。
+ * 每个请求方同一时间只持有一个凭证，记录在 enroll:admission:ticket:{owner}，
+ * 脚本访问的键都通过KEYS传入，便于Redis集群按键路由
+ */
+@Service
+@RequiredArgsConstructor
+public class AdmissionControlServiceImpl implements AdmissionControlService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlServiceImpl.class);
+
+    private static final String BUCKET_KEY = "enroll:admission:bucket";
+    private static final String TICKET_SEQ_KEY = "enroll:admission:seq";
+    private static final String TICKET_KEY_PREFIX = "enroll:admission:ticket:";
+
+    /**
+     * 令牌桶空闲多久后过期（毫秒），过期后游标重置为已发放的最大凭证号
+     */
+    private static final long BUCKET_IDLE_TTL_MS = 60000;
+
+    /**
+     * 返回 {是否准入, 凭证号, 建议等待毫秒数, 前方排队人数}
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> ADMIT_SCRIPT = new DefaultRedisScript<>(
+            "local now = tonumber(ARGV[1]) " +
+            "local rate = tonumber(ARGV[2]) " +
+            "local burst = tonumber(ARGV[3]) " +
+            "local ticket = tonumber(ARGV[4]) " +
+            "local issued = tonumber(redis.call('GET', KEYS[2]) or '0') " +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'cursor', 'ts') " +
+            "local tokens = tonumber(state[1]) or burst " +
+            "local cursor = tonumber(state[2]) or issued " +
+            "local ts = tonumber(state[3]) or now " +
+            "local elapsed = math.max(now - ts, 0) / 1000 " +
+            "tokens = math.min(burst, tokens + elapsed * rate) " +
+            "cursor = math.min(issued, cursor + elapsed * rate) " +
+            "local admitted = 0 " +
+            "if ticket > 0 and redis.call('GET', KEYS[3]) == ARGV[4] then " +
+            "  if ticket <= cursor and tokens >= 1 then " +
+            "    tokens = tokens - 1 admitted = 1 redis.call('DEL', KEYS[3]) " +
+            "  end " +
+            "else " +
+            "  ticket = 0 " +
+            "  if cursor >= issued and tokens >= 1 then tokens = tokens - 1 admitted = 1 end " +
+            "end " +
+            "if admitted == 0 and ticket == 0 then " +
+            "  ticket = redis.call('INCR', KEYS[2]) " +
+            "  redis.call('SET', KEYS[3], ticket, 'EX', tonumber(ARGV[5])) " +
+            "end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'cursor', tostring(cursor), 'ts', tostring(now)) " +
+            "redis.call('PEXPIRE', KEYS[1], tonumber(ARGV[6])) " +
+            "if admitted == 1 then return {1, ticket, 0, 0} end " +
+            "local wait = 0 " +
+            "if ticket > cursor then wait = (ticket - cursor) / rate else wait = (1 - tokens) / rate end " +
+            "return {0, ticket, math.ceil(wait * 1000), math.max(ticket - math.floor(cursor), 0)}",
+            List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${enrollment.admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${enrollment.admission.rate-per-second:200}")
+    private double ratePerSecond;
+
+    @Value("${enrollment.admission.burst:400}")
+    private double burst;
+
+    @Value("${enrollment.admission.ticket-ttl-seconds:300}")
+    private long ticketTtlSeconds;
+
+    @Override
+    public AdmissionDecisionDTO tryAdmit(String owner, Long ticket) {
+        if (!enabled) {
+            return admitted();
+        }
+        long presented = ticket == null ? 0 : ticket;
+        List<?> result;
+        try {
+            result = stringRedisTemplate.execute(ADMIT_SCRIPT,
+                    Arrays.asList(BUCKET_KEY, TICKET_SEQ_KEY, TICKET_KEY_PREFIX + owner),
+                    String.valueOf(System.currentTimeMillis()),
+                    String.valueOf(ratePerSecond),
+                    String.valueOf(burst),
+                    String.valueOf(presented),
+                    String.valueOf(ticketTtlSeconds),
+                    String.valueOf(BUCKET_IDLE_TTL_MS));
+        } catch (Exception e) {
+            // Redis不可用时放行，避免准入控制本身导致选课不可用
+            logger.warn("选课准入控制执行失败，直接放行: owner={}, error={}", owner, e.getMessage());
+            return admitted();
+        }
+        if (result == null || result.size() < 4) {
+            return admitted();
+        }
+
+        AdmissionDecisionDTO decision = AdmissionDecisionDTO.builder()
+                .admitted(toLong(result.get(0)) == 1)
+                .ticket(toLong(result.get(1)))
+                .retryAfterMs(toLong(result.get(2)))
+                .queuePosition(toLong(result.get(3)))
+                .build();
+        if (!decision.isAdmitted()) {
+            logger.debug("选课请求进入排队: owner={}, ticket={}, position={}",
+                    owner, decision.getTicket(), decision.getQueuePosition());
+        }
+        return decision;
+    }
+
+    private AdmissionDecisionDTO admitted() {
+        return AdmissionDecisionDTO.builder()
+                .admitted(true)
+                .retryAfterMs(0L)
+                .queuePosition(0L)
+                .build();
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString());
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.CourseDTO;
+import com.example.campussysteam.module.course.dto.WarmupReportDTO;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.CacheWarmupService;
+import com.example.campussysteam.module.course.service.CourseCatalogService;
+import com.example.campussysteam.module.course.service.CourseLeaderboardService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 选课缓存预热服务实现类
+ * 选课窗口通过course.warmup.windows配置，多个窗口以逗号分隔，格式为"开始时间@学期1;学期2"，
+ * 例如"2026-02-20T09:00@2025-2026-2"，不指定学期时预热全部学期。
+ * 每个节点在窗口开始前course.warmup.lead-minutes分钟各自预热一次：本地课程目录快照每个节点都需要加载，
+ * Redis中的课程缓存和座位余量计数器通过管道批量写入，课程缓存的过期时间加入随机偏移，
+ * 避免预热的key在同一时刻集中过期
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheWarmupServiceImpl implements CacheWarmupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupServiceImpl.class);
+
+    private static final String COURSE_CACHE = "course";
+    private static final String SEATS_KEY_PREFIX = "course:";
+    private static final String SEATS_KEY_SUFFIX = ":seats";
+
+    private final CourseRepository courseRepository;
+    private final CourseCatalogService courseCatalogService;
+    private final CourseLeaderboardService courseLeaderboardService;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisCacheManager cacheManager;
+
+    @Value("${course.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${course.warmup.windows:}")
+    private String windowsConfig;
+
+    @Value("${course.warmup.lead-minutes:10}")
+    private long leadMinutes;
+
+    @Value("${course.warmup.ttl-jitter:0.2}")
+    private double ttlJitter;
+
+    @Value("${course.warmup.pipeline-batch-size:500}")
+    private int pipelineBatchSize;
+
+    private final List<Window> windows = new ArrayList<>();
+
+    /**
+     * 已预热的窗口开始时间，每个窗口只预热一次
+     */
+    private final Set<LocalDateTime> warmedWindows = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private volatile WarmupReportDTO lastReport;
+
+    @PostConstruct
+    public void init() {
+        if (!StringUtils.hasText(windowsConfig)) {
+            return;
+        }
+        for (String item : windowsConfig.split(",")) {
+            if (!StringUtils.hasText(item)) {
+                continue;
+            }
+            String[] parts = item.trim().split("@", 2);
+            try {
+                LocalDateTime start = LocalDateTime.parse(parts[0].trim());
+                List<String> semesters = parts.length > 1
+                        ? Arrays.stream(parts[1].split(";")).map(String::trim).filter(StringUtils::hasText)
+                                .collect(Collectors.toList())
+                        : List.of();
+                windows.add(new Window(start, semesters));
+            } catch (DateTimeParseException e) {
+                logger.warn("选课窗口配置格式错误，已忽略: {}", item);
+            }
+        }
+        logger.info("已配置选课窗口: {}", windows.size());
+    }
+
+    /**
+     * 检查是否有即将开始的选课窗口需要预热
+     */
+    @Scheduled(fixedDelayString = "${course.warmup.check-interval-ms:60000}")
+    public void checkWindows() {
+        if (!enabled || windows.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (Window window : windows) {
+            LocalDateTime warmAt = window.start.minusMinutes(leadMinutes);
+            if (now.isBefore(warmAt) || !now.isBefore(window.start) || warmedWindows.contains(window.start)) {
+                continue;
+            }
+            WarmupReportDTO report = doWarmUp(window.semesters, window.start);
+            if (report != null) {
+                warmedWindows.add(window.start);
+            }
+        }
+    }
+
+    @Override
+    public WarmupReportDTO warmUp(List<String> semesters) {
+        WarmupReportDTO report = doWarmUp(semesters, null);
+        if (report == null) {
+            throw new RuntimeException("缓存预热正在执行中，请稍后再试");
+        }
+        return report;
+    }
+
+    @Override
+    public WarmupReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    private WarmupReportDTO doWarmUp(List<String> semesters, LocalDateTime windowStart) {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        long start = System.currentTimeMillis();
+        WarmupReportDTO report = WarmupReportDTO.builder()
+                .windowStart(windowStart)
+                .startedAt(LocalDateTime.now())
+                .build();
+        try {
+            List<String> targets = semesters == null || semesters.isEmpty()
+                    ? courseRepository.findDistinctSemesters()
+                    : semesters;
+            for (String semester : targets) {
+                try {
+                    warmSemester(semester, report);
+                    report.getSemesters().add(semester);
+                } catch (Exception e) {
+                    logger.error("预热学期缓存失败: semester={}", semester, e);
+                    report.getErrors().add(semester + ": " + e.getMessage());
+                }
+            }
+
+            try {
+                courseLeaderboardService.reconcile();
+                report.setLeaderboardRebuilt(true);
+            } catch (Exception e) {
+                logger.error("预热选课排行榜失败", e);
+                report.getErrors().add("leaderboard: " + e.getMessage());
+            }
+
+            report.setDurationMs(System.currentTimeMillis() - start);
+            lastReport = report;
+            logger.info("缓存预热完成: window={}, semesters={}, catalogCourses={}, courseCacheKeys={}, " +
+                            "seatCounterKeys={}, seatCounterExisting={}, errors={}, duration={}ms",
+                    windowStart, report.getSemesters(), report.getCatalogCourses(), report.getCourseCacheKeys(),
+                    report.getSeatCounterKeys(), report.getSeatCounterExisting(), report.getErrors().size(),
+                    report.getDurationMs());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void warmSemester(String semester, WarmupReportDTO report) {
+        // 课程目录快照包含院系和教师名称，选课期间的课程列表和教师/院系信息都从快照读取
+        courseCatalogService.rebuild(semester);
+        List<CourseDTO> courses = courseCatalogService.getCourses(semester);
+        report.setCatalogCourses(report.getCatalogCourses() + courses.size());
+
+        for (int from = 0; from < courses.size(); from += pipelineBatchSize) {
+            List<CourseDTO> batch = courses.subList(from, Math.min(from + pipelineBatchSize, courses.size()));
+            report.setCourseCacheKeys(report.getCourseCacheKeys() + writeCourseCache(batch));
+            int created = writeSeatCounters(batch);
+            report.setSeatCounterKeys(report.getSeatCounterKeys() + created);
+            report.setSeatCounterExisting(report.getSeatCounterExisting() + batch.size() - created);
+        }
+    }
+
+    /**
+     * 按课程缓存的key格式和序列化方式写入，与findById的@Cacheable共用同一份缓存
+     */
+    private int writeCourseCache(List<CourseDTO> courses) {
+        RedisCacheConfiguration config = cacheManager.getCacheConfigurations()
+                .getOrDefault(COURSE_CACHE, RedisCacheConfiguration.defaultCacheConfig());
+        long baseTtl = config.getTtl().getSeconds();
+        String prefix = config.getKeyPrefixFor(COURSE_CACHE);
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (CourseDTO course : courses) {
+                byte[] key = toBytes(config.getKeySerializationPair().write(prefix + course.getId()));
+                byte[] value = toBytes(config.getValueSerializationPair().write(course));
+                Expiration expiration = baseTtl > 0 ? Expiration.seconds(staggered(baseTtl)) : Expiration.persistent();
+                connection.stringCommands().set(key, value, expiration, RedisStringCommands.SetOption.upsert());
+            }
+            return null;
+        });
+        return courses.size();
+    }
+
+    /**
+     * 座位余量计数器只在不存在时写入，已存在的计数器可能已有预占，不能覆盖
+     */
+    private int writeSeatCounters(List<CourseDTO> courses) {
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (CourseDTO course : courses) {
+                int capacity = course.getCapacity() == null ? 0 : course.getCapacity();
+                int selected = course.getSelectedCount() == null ? 0 : course.getSelectedCount();
+                byte[] key = (SEATS_KEY_PREFIX + course.getId() + SEATS_KEY_SUFFIX).getBytes(StandardCharsets.UTF_8);
+                byte[] value = String.valueOf(Math.max(capacity - selected, 0)).getBytes(StandardCharsets.UTF_8);
+                connection.stringCommands().set(key, value, Expiration.persistent(),
+                        RedisStringCommands.SetOption.ifAbsent());
+            }
+            return null;
+        });
+        int created = 0;
+        for (Object result : results) {
+            if (Boolean.TRUE.equals(result)) {
+                created++;
+            }
+        }
+        return created;
+    }
+
+    /**
+     * 在基础过期时间上随机延长0~ttlJitter比例，使预热的key分散过期
+     */
+    private long staggered(long baseTtl) {
+        long jitter = (long) (baseTtl * Math.max(ttlJitter, 0));
+        return jitter <= 0 ? baseTtl : baseTtl + ThreadLocalRandom.current().nextLong(jitter + 1);
+    }
+
+    private byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static class Window {
+
+        private final LocalDateTime start;
+        private final List<String> semesters;
+
+        Window(LocalDateTime start, List<String> semesters) {
+            this.start = start;
+            this.semesters = semesters;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.CourseDTO;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.CourseCatalogService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 学期课程目录服务实现类
+ * 快照一次性加载学期课程(连同院系和教师)，并预先建立按院系、教师和课程类型的索引；
+ * 管理员修改课程后整体替换快照，其他节点的快照由定时任务刷新。
+ * 学期参数来自请求，只为数据库中存在课程的学期构建快照，其他学期返回空目录；
+ * 快照数量有上限，连续多个刷新周期未被读取的快照在刷新时丢弃
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseCatalogServiceImpl implements CourseCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseCatalogServiceImpl.class);
+
+    private final CourseRepository courseRepository;
+
+    private static final CatalogSnapshot EMPTY = new CatalogSnapshot(List.of(), Map.of(), Map.of(), Map.of(), Map.of());
+
+    @Value("${course.catalog.refresh-interval-ms:300000}")
+    private long refreshIntervalMs;
+
+    @Value("${course.catalog.max-semesters:20}")
+    private long maxSemesters;
+
+    /**
+     * 快照连续未被读取的刷新周期数达到该值时丢弃
+     */
+    @Value("${course.catalog.idle-refreshes:3}")
+    private int idleRefreshes;
+
+    /**
+     * 遇到未知学期时重新查询学期列表的最短间隔，避免随意构造的学期参数频繁查询数据库
+     */
+    @Value("${course.catalog.semester-reload-interval-ms:10000}")
+    private long semesterReloadIntervalMs;
+
+    private Cache<String, SnapshotHolder> snapshots;
+
+    private volatile Set<String> knownSemesters = Collections.emptySet();
+    private volatile long knownSemestersLoadedAt;
+
+    @PostConstruct
+    public void init() {
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxSemesters)
+                .build();
+    }
+
+    @Override
+    public List<CourseDTO> getCourses(String semester) {
+        return snapshotOf(semester).getCourses();
+    }
+
+    @Override
+    public CourseDTO getCourse(String semester, Long courseId) {
+        return courseId == null ? null : snapshotOf(semester).getById().get(courseId);
+    }
+
+    @Override
+    public List<CourseDTO> findCourses(String semester, Long departmentId, Long teacherId, String courseType) {
+        CatalogSnapshot snapshot = snapshotOf(semester);
+
+        // 先用索引缩小范围，再按其余条件过滤
+        List<CourseDTO> candidates;
+        if (teacherId != null) {
+            candidates = snapshot.getByTeacher().getOrDefault(teacherId, Collections.emptyList());
+        } else if (departmentId != null) {
+            candidates = snapshot.getByDepartment().getOrDefault(departmentId, Collections.emptyList());
+        } else if (courseType != null) {
+            candidates = snapshot.getByCourseType().getOrDefault(courseType, Collections.emptyList());
+        } else {
+            return snapshot.getCourses();
+        }
+
+        int conditions = (teacherId != null ? 1 : 0) + (departmentId != null ? 1 : 0) + (courseType != null ? 1 : 0);
+        if (conditions == 1) {
+            return candidates;
+        }
+        return candidates.stream()
+                .filter(course -> departmentId == null || Objects.equals(departmentId, course.getDepartmentId()))
+                .filter(course -> courseType == null || Objects.equals(courseType, course.getCourseType()))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public void rebuild(String semester) {
+        if (semester == null) {
+            return;
+        }
+        // 课程调整学期后旧学期可能已没有课程，重新查询学期列表
+        if (!isKnownSemester(semester, true)) {
+            snapshots.invalidate(semester);
+            return;
+        }
+        CatalogSnapshot snapshot = build(semester);
+        SnapshotHolder holder = snapshots.getIfPresent(semester);
+        if (holder != null) {
+            holder.snapshot = snapshot;
+        } else {
+            snapshots.put(semester, new SnapshotHolder(snapshot));
+        }
+    }
+
+    @Override
+    public void rebuildAfterCommit(String semester) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild(semester);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild(semester);
+            }
+        });
+    }
+
+    /**
+     * 定时刷新已加载的快照，使其他节点上的课程修改最终可见
+     */
+    @Scheduled(fixedDelayString = "${course.catalog.refresh-interval-ms:300000}")
+    public void refreshLoadedSnapshots() {
+        reloadKnownSemesters();
+        long idleLimit = refreshIntervalMs * idleRefreshes;
+        for (Map.Entry<String, SnapshotHolder> entry : new ArrayList<>(snapshots.asMap().entrySet())) {
+            String semester = entry.getKey();
+            if (System.currentTimeMillis() - entry.getValue().lastReadAt > idleLimit) {
+                snapshots.invalidate(semester);
+                logger.info("丢弃长时间未读取的课程目录快照: semester={}", semester);
+                continue;
+            }
+            try {
+                rebuild(semester);
+            } catch (Exception e) {
+                logger.error("刷新课程目录快照失败: semester={}", semester, e);
+            }
+        }
+    }
+
+    private CatalogSnapshot snapshotOf(String semester) {
+        if (semester == null) {
+            return EMPTY;
+        }
+        SnapshotHolder holder = snapshots.getIfPresent(semester);
+        if (holder == null) {
+            if (!isKnownSemester(semester, false)) {
+                return EMPTY;
+            }
+            holder = snapshots.get(semester, key -> new SnapshotHolder(build(key)));
+        }
+        holder.lastReadAt = System.currentTimeMillis();
+        return holder.snapshot;
+    }
+
+    /**
+     * 学期是否存在课程，不在已知列表中时按间隔重新查询；force为true时总是重新查询
+     */
+    private boolean isKnownSemester(String semester, boolean force) {
+        if (knownSemesters.contains(semester)) {
+            return true;
+        }
+        if (force || System.currentTimeMillis() - knownSemestersLoadedAt >= semesterReloadIntervalMs) {
+            reloadKnownSemesters();
+        }
+        return knownSemesters.contains(semester);
+    }
+
+    private synchronized void reloadKnownSemesters() {
+        knownSemesters = Set.copyOf(courseRepository.findDistinctSemesters());
+        knownSemestersLoadedAt = System.currentTimeMillis();
+    }
+
+    private CatalogSnapshot build(String semester) {
+        long start = System.currentTimeMillis();
+        List<CourseDTO> courses = courseRepository.findBySemesterWithDetails(semester)
+                .stream()
+                .map(CourseDTO::fromEntity)
+                .collect(Collectors.toUnmodifiableList());
+
+        CatalogSnapshot snapshot = new CatalogSnapshot(
+                courses,
+                courses.stream().collect(Collectors.toUnmodifiableMap(CourseDTO::getId, Function.identity())),
+                index(courses, CourseDTO::getDepartmentId),
+                index(courses, CourseDTO::getTeacherId),
+                index(courses, CourseDTO::getCourseType));
+        logger.info("构建课程目录快照: semester={}, courses={}, cost={}ms",
+                semester, courses.size(), System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    private <K> Map<K, List<CourseDTO>> index(List<CourseDTO> courses, Function<CourseDTO, K> keyExtractor) {
+        Map<K, List<CourseDTO>> grouped = new HashMap<>();
+        for (CourseDTO course : courses) {
+            K key = keyExtractor.apply(course);
+            if (key != null) {
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(course);
+            }
+        }
+        Map<K, List<CourseDTO>> index = new HashMap<>(grouped.size());
+        grouped.forEach((key, list) -> index.put(key, Collections.unmodifiableList(list)));
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * 学期当前的快照及最近一次读取时间，刷新时原地替换快照
+     */
+    private static final class SnapshotHolder {
+        private volatile CatalogSnapshot snapshot;
+        private volatile long lastReadAt = System.currentTimeMillis();
+
+        private SnapshotHolder(CatalogSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+
+    /**
+     * 学期课程目录的不可变快照
+     */
+    private static final class CatalogSnapshot {
+        private final List<CourseDTO> courses;
+        private final Map<Long, CourseDTO> byId;
+        private final Map<Long, List<CourseDTO>> byDepartment;
+        private final Map<Long, List<CourseDTO>> byTeacher;
+        private final Map<String, List<CourseDTO>> byCourseType;
+
+        private CatalogSnapshot(List<CourseDTO> courses,
+                                Map<Long, CourseDTO> byId,
+                                Map<Long, List<CourseDTO>> byDepartment,
+                                Map<Long, List<CourseDTO>> byTeacher,
+                                Map<String, List<CourseDTO>> byCourseType) {
+            this.courses = courses;
+            this.byId = byId;
+            this.byDepartment = byDepartment;
+            this.byTeacher = byTeacher;
+            this.byCourseType = byCourseType;
+        }
+
+        List<CourseDTO> getCourses() {
+            return courses;
+        }
+
+        Map<Long, CourseDTO> getById() {
+            return byId;
+        }
+
+        Map<Long, List<CourseDTO>> getByDepartment() {
+            return byDepartment;
+        }
+
+        Map<Long, List<CourseDTO>> getByTeacher() {
+            return byTeacher;
+        }
+
+        Map<String, List<CourseDTO>> getByCourseType() {
+            return byCourseType;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.CourseDTO;
+import com.example.campussysteam.module.course.dto.CourseRankDTO;
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.event.EnrollmentChangedEvent;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.CourseCatalogService;
+import com.example.campussysteam.module.course.service.CourseLeaderboardService;
+import com.example.campussysteam.repository.StudentCourseRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 课程选课排行榜服务实现类
+ * 每个学期维护两个有序集合：leaderboard:courses:{学期} 按已选人数排序，
+ * leaderboard:courses:{学期}:fill 按满员率排序；另有跨学期的global排行榜。
+ * 课程所属学期和容量保存在哈希中，选课/退课时由Lua脚本原子地更新所有排行榜。
+ * 对账不替换整个排行榜，只逐门课程修正偏差：连续两次对账观察到相同的偏差才修正，
+ * 修正时以比较后设置的脚本写入，期间有选课/退课修改过的课程留待下次对账
+ */
+@Service
+@RequiredArgsConstructor
+public class CourseLeaderboardServiceImpl implements CourseLeaderboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseLeaderboardServiceImpl.class);
+
+    private static final String KEY_PREFIX = "leaderboard:courses:";
+    private static final String FILL_SUFFIX = ":fill";
+    private static final String GLOBAL = "global";
+    private static final String SEMESTER_HASH_KEY = KEY_PREFIX + "meta:semester";
+    private static final String CAPACITY_HASH_KEY = KEY_PREFIX + "meta:capacity";
+    private static final String SEMESTERS_KEY = KEY_PREFIX + "meta:semesters";
+
+    /**
+     * 课程不在排行榜中
+     */
+    private static final long NOT_RANKED = -1L;
+
+    /**
+     * 更新学期排行榜和全局排行榜，返回更新后的已选人数。
+     * 学期由调用方读取后传入，所有键都通过KEYS传入；课程未登记或所属学期已变化时返回-1
+     */
+    private static final DefaultRedisScript<Long> INCREMENT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) ~= ARGV[3] then return -1 end " +
+            "local capacity = tonumber(redis.call('HGET', KEYS[2], ARGV[1])) " +
+            "local function bump(countKey, fillKey) " +
+            "  local count = tonumber(redis.call('ZINCRBY', countKey, ARGV[2], ARGV[1])) " +
+            "  if count < 0 then count = 0 redis.call('ZADD', countKey, 0, ARGV[1]) end " +
+            "  if capacity and capacity > 0 then redis.call('ZADD', fillKey, count / capacity, ARGV[1]) end " +
+            "  return count " +
+            "end " +
+            "local count = bump(KEYS[3], KEYS[4]) " +
+            "bump(KEYS[5], KEYS[6]) " +
+            "return count",
+            Long.class);
+
+    /**
+     * 全局排行榜中的人数仍为对账时读到的值（空字符串表示不存在）才写入学期和全局排行榜，返回1；否则返回0
+     */
+    private static final DefaultRedisScript<Long> COMPARE_AND_SET_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('ZSCORE', KEYS[3], ARGV[1]) " +
+            "if ARGV[2] == '' then " +
+            "  if current then return 0 end " +
+            "elseif not current or tonumber(current) ~= tonumber(ARGV[2]) then " +
+            "  return 0 " +
+            "end " +
+            "local count = tonumber(ARGV[3]) " +
+            "local capacity = tonumber(ARGV[4]) " +
+            "redis.call('ZADD', KEYS[1], count, ARGV[1]) " +
+            "redis.call('ZADD', KEYS[3], count, ARGV[1]) " +
+            "if capacity and capacity > 0 then " +
+            "  redis.call('ZADD', KEYS[2], count / capacity, ARGV[1]) " +
+            "  redis.call('ZADD', KEYS[4], count / capacity, ARGV[1]) " +
+            "end " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CourseRepository courseRepository;
+    private final StudentCourseRepository studentCourseRepository;
+    private final CourseCatalogService courseCatalogService;
+
+    private final AtomicBoolean reconciling = new AtomicBoolean(false);
+
+    /**
+     * 上次对账观察到的偏差（数据库人数减排行榜人数），key为课程ID
+     */
+    private final Map<String, Long> suspectedDrift = new HashMap<>();
+
+    /**
+     * 选课事件中发现排行榜丢失时在此线程中重建，不阻塞事件线程
+     */
+    private final ExecutorService reconcileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "leaderboard-reconcile");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PreDestroy
+    public void destroy() {
+        reconcileExecutor.shutdownNow();
+    }
+
+    @Override
+    public List<CourseRankDTO> getTopCourses(String semester, int limit) {
+        return toRanks(countKey(semester), limit);
+    }
+
+    @Override
+    public List<CourseRankDTO> getTopCoursesByFillRatio(String semester, int limit) {
+        return toRanks(countKey(semester) + FILL_SUFFIX, limit);
+    }
+
+    @Override
+    public List<Long> getTopCourseIds(int limit) {
+        Set<String> ids = zSet().reverseRange(countKey(null), 0, limit - 1);
+        if (ids == null) {
+            return Collections.emptyList();
+        }
+        List<Long> result = new ArrayList<>(ids.size());
+        ids.forEach(id -> result.add(Long.valueOf(id)));
+        return result;
+    }
+
+    @Override
+    public CourseRankDTO getCourseRank(Long courseId) {
+        String member = courseId.toString();
+        String semester = hash().get(SEMESTER_HASH_KEY, member);
+        if (semester == null) {
+            return null;
+        }
+        String key = countKey(semester);
+        Long rank = zSet().reverseRank(key, member);
+        Double score = zSet().score(key, member);
+        if (rank == null || score == null) {
+            return null;
+        }
+        return toRank(courseId, semester, rank + 1, score.longValue(), hash().get(CAPACITY_HASH_KEY, member));
+    }
+
+    @Override
+    public void refreshCourseAfterCommit(Long courseId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshCourse(courseId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshCourse(courseId);
+            }
+        });
+    }
+
+    /**
+     * 选课/退课提交后实时增减排行榜
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        try {
+            long delta = event.isEnrolled() ? 1 : -1;
+            String member = event.getCourseId().toString();
+            String semester = hash().get(SEMESTER_HASH_KEY, member);
+            Long count = NOT_RANKED;
+            if (semester != null) {
+                count = stringRedisTemplate.execute(INCREMENT_SCRIPT,
+                        Arrays.asList(SEMESTER_HASH_KEY, CAPACITY_HASH_KEY, countKey(semester),
+                                countKey(semester) + FILL_SUFFIX, countKey(null), countKey(null) + FILL_SUFFIX),
+                        member, String.valueOf(delta), semester);
+            }
+            if (count != null && count == NOT_RANKED) {
+                // 排行榜整体丢失时全量重建，否则只补登记这门课程
+                if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(SEMESTER_HASH_KEY))) {
+                    refreshCourse(event.getCourseId());
+                } else {
+                    reconcileAsync();
+                }
+            }
+        } catch (Exception e) {
+            // 排行榜更新失败不影响选课，定期对账时修正
+            logger.error("更新选课排行榜失败: {}", event, e);
+        }
+    }
+
+    private void reconcileAsync() {
+        if (reconciling.get()) {
+            return;
+        }
+        try {
+            reconcileExecutor.execute(this::reconcile);
+        } catch (RejectedExecutionException e) {
+            logger.warn("提交排行榜重建任务失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期按数据库中的选课记录修正排行榜，修正因节点故障或事件丢失产生的偏差
+     */
+    @Scheduled(initialDelayString = "${course.leaderboard.initial-delay-ms:10000}",
+               fixedDelayString = "${course.leaderboard.reconcile-interval-ms:600000}")
+    @Override
+    public void reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            doReconcile();
+        } catch (Exception e) {
+            logger.error("重建选课排行榜失败", e);
+        } finally {
+            reconciling.set(false);
+        }
+    }
+
+    private void doReconcile() {
+        long start = System.currentTimeMillis();
+        // 先读取排行榜再查询数据库，修正时比较排行榜是否仍为读到的值
+        Map<String, Double> live = new HashMap<>();
+        Set<ZSetOperations.TypedTuple<String>> tuples = zSet().rangeWithScores(countKey(null), 0, -1);
+        if (tuples != null) {
+            tuples.forEach(tuple -> live.put(tuple.getValue(), tuple.getScore()));
+        }
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (Object[] row : studentCourseRepository.countGroupByCourse()) {
+            counts.put((Long) row[0], (Long) row[1]);
+        }
+
+        Map<String, String> semesters = new HashMap<>();
+        Map<String, String> capacities = new HashMap<>();
+        Map<String, Long> nextSuspected = new HashMap<>();
+        int added = 0;
+        int drift = 0;
+        int repaired = 0;
+        for (Object[] row : courseRepository.findLeaderboardRows()) {
+            String member = row[0].toString();
+            String semester = (String) row[1];
+            Integer capacity = (Integer) row[2];
+            if (semester == null) {
+                continue;
+            }
+            semesters.put(member, semester);
+            if (capacity != null) {
+                capacities.put(member, capacity.toString());
+            }
+            long count = counts.getOrDefault((Long) row[0], 0L);
+            Double current = live.get(member);
+            if (current == null) {
+                // 尚未登记的课程不会被选课事件修改，直接写入
+                if (compareAndSet(member, semester, capacity, null, count)) {
+                    added++;
+                }
+                continue;
+            }
+            long delta = count - current.longValue();
+            if (delta == 0) {
+                continue;
+            }
+            drift++;
+            // 偏差可能来自对账期间提交、尚未更新排行榜的选课，连续两次相同才修正
+            if (Long.valueOf(delta).equals(suspectedDrift.get(member))) {
+                if (compareAndSet(member, semester, capacity, current.longValue(), count)) {
+                    repaired++;
+                }
+            } else {
+                nextSuspected.put(member, delta);
+            }
+        }
+        suspectedDrift.clear();
+        suspectedDrift.putAll(nextSuspected);
+
+        // 登记课程的学期和容量，之后的选课事件才会更新该课程
+        if (!semesters.isEmpty()) {
+            hash().putAll(SEMESTER_HASH_KEY, semesters);
+        }
+        if (!capacities.isEmpty()) {
+            hash().putAll(CAPACITY_HASH_KEY, capacities);
+        }
+
+        // 移除数据库中已不存在的课程
+        int removed = 0;
+        for (String member : hash().keys(SEMESTER_HASH_KEY)) {
+            if (!semesters.containsKey(member)) {
+                removeCourse(member, hash().get(SEMESTER_HASH_KEY, member));
+                removed++;
+            }
+        }
+
+        // 删除已经没有课程的学期排行榜
+        Set<String> previous = stringRedisTemplate.opsForSet().members(SEMESTERS_KEY);
+        Set<String> current = new HashSet<>(semesters.values());
+        if (previous != null) {
+            for (String semester : previous) {
+                if (!current.contains(semester)) {
+                    stringRedisTemplate.delete(Arrays.asList(countKey(semester), countKey(semester) + FILL_SUFFIX));
+                    stringRedisTemplate.opsForSet().remove(SEMESTERS_KEY, semester);
+                }
+            }
+        }
+        if (!current.isEmpty()) {
+            stringRedisTemplate.opsForSet().add(SEMESTERS_KEY, current.toArray(new String[0]));
+        }
+
+        logger.info("选课排行榜对账: courses={}, semesters={}, added={}, drift={}, repaired={}, removed={}, cost={}ms",
+                semesters.size(), current.size(), added, drift, repaired, removed, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @param expected 对账开始时全局排行榜中的人数，为null表示课程不在排行榜中
+     */
+    private boolean compareAndSet(String member, String semester, Integer capacity, Long expected, long count) {
+        Long result = stringRedisTemplate.execute(COMPARE_AND_SET_SCRIPT,
+                Arrays.asList(countKey(semester), countKey(semester) + FILL_SUFFIX,
+                        countKey(null), countKey(null) + FILL_SUFFIX),
+                member, expected == null ? "" : expected.toString(), String.valueOf(count),
+                capacity == null ? "" : capacity.toString());
+        return result != null && result == 1L;
+    }
+
+    private void removeCourse(String member, String semester) {
+        if (semester != null) {
+            zSet().remove(countKey(semester), member);
+            zSet().remove(countKey(semester) + FILL_SUFFIX, member);
+        }
+        zSet().remove(countKey(null), member);
+        zSet().remove(countKey(null) + FILL_SUFFIX, member);
+        hash().delete(SEMESTER_HASH_KEY, member);
+        hash().delete(CAPACITY_HASH_KEY, member);
+    }
+
+    private void refreshCourse(Long courseId) {
+        String member = courseId.toString();
+        String oldSemester = hash().get(SEMESTER_HASH_KEY, member);
+        Course course = courseRepository.findById(courseId).orElse(null);
+
+        if (oldSemester != null && (course == null || !oldSemester.equals(course.getSemester()))) {
+            zSet().remove(countKey(oldSemester), member);
+            zSet().remove(countKey(oldSemester) + FILL_SUFFIX, member);
+        }
+        if (course == null || course.getSemester() == null) {
+            zSet().remove(countKey(null), member);
+            zSet().remove(countKey(null) + FILL_SUFFIX, member);
+            hash().delete(SEMESTER_HASH_KEY, member);
+            hash().delete(CAPACITY_HASH_KEY, member);
+            return;
+        }
+
+        long count = studentCourseRepository.countByCourseId(courseId);
+        hash().put(SEMESTER_HASH_KEY, member, course.getSemester());
+        stringRedisTemplate.opsForSet().add(SEMESTERS_KEY, course.getSemester());
+        for (String key : Arrays.asList(countKey(course.getSemester()), countKey(null))) {
+            zSet().add(key, member, count);
+            if (course.getCapacity() != null && course.getCapacity() > 0) {
+                zSet().add(key + FILL_SUFFIX, member, (double) count / course.getCapacity());
+            }
+        }
+        if (course.getCapacity() != null) {
+            hash().put(CAPACITY_HASH_KEY, member, course.getCapacity().toString());
+        }
+    }
+
+    private List<CourseRankDTO> toRanks(String key, int limit) {
+        Set<ZSetOperations.TypedTuple<String>> range = zSet().reverseRangeWithScores(key, 0, limit - 1);
+        if (range == null || range.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ZSetOperations.TypedTuple<String>> tuples = new ArrayList<>(range);
+        List<String> members = new ArrayList<>(tuples.size());
+        tuples.forEach(tuple -> members.add(tuple.getValue()));
+        List<String> semesters = hash().multiGet(SEMESTER_HASH_KEY, members);
+        List<String> capacities = hash().multiGet(CAPACITY_HASH_KEY, members);
+
+        // 满员率排行榜中的分数不是人数，需要从人数排行榜中取
+        boolean byFill = key.endsWith(FILL_SUFFIX);
+        List<Double> counts = byFill
+                ? zSet().score(key.substring(0, key.length() - FILL_SUFFIX.length()), members.toArray())
+                : null;
+
+        List<CourseRankDTO> result = new ArrayList<>(tuples.size());
+        for (int i = 0; i < tuples.size(); i++) {
+            Double count = byFill ? (counts == null ? null : counts.get(i)) : tuples.get(i).getScore();
+            result.add(toRank(Long.valueOf(members.get(i)), semesters.get(i), i + 1L,
+                    count == null ? 0L : count.longValue(), capacities.get(i)));
+        }
+        return result;
+    }
+
+    private CourseRankDTO toRank(Long courseId, String semester, long rank, long count, String capacity) {
+        CourseRankDTO.CourseRankDTOBuilder builder = CourseRankDTO.builder()
+                .courseId(courseId)
+                .semester(semester)
+                .rank(rank)
+                .selectedCount(count);
+        if (capacity != null) {
+            int value = Integer.parseInt(capacity);
+            builder.capacity(value).fillRatio(value > 0 ? (double) count / value : null);
+        }
+        CourseDTO course = semester == null ? null : courseCatalogService.getCourse(semester, courseId);
+        if (course != null) {
+            builder.courseCode(course.getCourseCode())
+                    .courseName(course.getCourseName())
+                    .teacherName(course.getTeacherName());
+        }
+        return builder.build();
+    }
+
+    private String countKey(String semester) {
+        return KEY_PREFIX + (semester == null ? GLOBAL : semester);
+    }
+
+    private ZSetOperations<String, String> zSet() {
+        return stringRedisTemplate.opsForZSet();
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return stringRedisTemplate.opsForHash();
+    }
+}
@@ -1,13 +1,21 @@
 package com.example.campussysteam.module.course.service.impl;
 
+import com.example.campussysteam.common.transaction.RetryingTransactionExecutor;
 import com.example.campussysteam.module.course.dto.CourseDTO;
 import com.example.campussysteam.module.course.entity.Course;
 import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.CourseCatalogService;
+import com.example.campussysteam.module.course.service.CourseLeaderboardService;
 import com.example.campussysteam.module.course.service.CourseService;
+import com.example.campussysteam.module.course.service.SeatReservationService;
+import com.example.campussysteam.module.course.service.SeatStreamService;
+import com.example.campussysteam.module.course.service.TimeConflictService;
+import com.example.campussysteam.module.course.service.TimetableService;
 import com.example.campussysteam.module.student.entity.Department;
 import com.example.campussysteam.module.student.repository.DepartmentRepository;
 import com.example.campussysteam.module.user.entity.User;
 import com.example.campussysteam.module.user.repository.UserRepository;
+import com.example.campussysteam.module.redis.service.IdBloomFilterService;
 import com.example.campussysteam.module.redis.service.RedisService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -18,8 +26,13 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service("moduleCourseService")
 @RequiredArgsConstructor
@@ -30,10 +43,17 @@ public class CourseServiceImpl implements CourseService {
     private final DepartmentRepository departmentRepository;
     private final UserRepository userRepository;
     private final RedisService redisService;
+    private final SeatReservationService seatReservationService;
+    private final TimeConflictService timeConflictService;
+    private final CourseCatalogService courseCatalogService;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+    private final CourseLeaderboardService courseLeaderboardService;
+    private final TimetableService timetableService;
+    private final SeatStreamService seatStreamService;
+    private final IdBloomFilterService idBloomFilterService;
 
     private static final String COURSE_CACHE_PREFIX = "course:";
-    private static final String COURSE_LOCK_PREFIX = "lock:course:";
-    private static final String HOT_COURSES_KEY = "hot:courses";
+    private static final int HOT_COURSES_LIMIT = 10;
 
     @Override
     @Transactional(readOnly = true)
@@ -44,6 +64,10 @@ public class CourseServiceImpl implements CourseService {
     @Override
     @Cacheable(value = "course", key = "#id")
     public CourseDTO findById(Long id) {
+        // 一定不存在的ID直接拒绝，不再查询数据库
+        if (!idBloomFilterService.mightContain(IdBloomFilterService.COURSE, id)) {
+            throw new RuntimeException("课程不存在");
+        }
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
         return convertToDTO(course);
@@ -55,21 +79,45 @@ public class CourseServiceImpl implements CourseService {
         Course course = convertToEntity(courseDTO);
         course.setSelectedCount(0);
         Course savedCourse = courseRepository.save(course);
+        idBloomFilterService.add(IdBloomFilterService.COURSE, savedCourse.getId());
+        courseCatalogService.rebuildAfterCommit(savedCourse.getSemester());
+        courseLeaderboardService.refreshCourseAfterCommit(savedCourse.getId());
         return convertToDTO(savedCourse);
     }
 
     @Override
-    @Transactional
     @CacheEvict(value = "course", key = "#id")
     public CourseDTO update(Long id, CourseDTO courseDTO) {
+        // 容量等字段的修改与选课并发时通过版本号检测冲突并重试
+        return retryingTransactionExecutor.execute("updateCourse", () -> doUpdate(id, courseDTO));
+    }
+
+    private CourseDTO doUpdate(Long id, CourseDTO courseDTO) {
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
         
+        int oldCapacity = course.getCapacity();
+        String oldSemester = course.getSemester();
         updateCourseFromDTO(course, courseDTO);
-        Course updatedCourse = courseRepository.save(course);
+        Course updatedCourse = courseRepository.saveAndFlush(course);
         
-        // 清除相关缓存
-        redisService.deleteKey(HOT_COURSES_KEY);
+        // 重建课程目录快照，学期变更时新旧学期都需要重建
+        courseCatalogService.rebuildAfterCommit(updatedCourse.getSemester());
+        if (!updatedCourse.getSemester().equals(oldSemester)) {
+            courseCatalogService.rebuildAfterCommit(oldSemester);
+        }
+        
+        // 事务提交后按容量差值调整座位余量
+        seatReservationService.adjustCapacity(id, updatedCourse.getCapacity() - oldCapacity);
+        if (updatedCourse.getCapacity() != oldCapacity) {
+            seatStreamService.markChanged(id);
+        }
+        
+        // 同步排行榜中的学期和容量
+        courseLeaderboardService.refreshCourseAfterCommit(id);
+        
+        // 课程时间、地点等信息保存在已选学生的课表中，需要重新构建；学期变更时旧学期的课表也需要清除
+        timetableService.evictCourseAfterCommit(id, Arrays.asList(oldSemester, updatedCourse.getSemester()));
         
         return convertToDTO(updatedCourse);
     }
@@ -78,11 +126,18 @@ public class CourseServiceImpl implements CourseService {
     @Transactional
     @CacheEvict(value = "course", key = "#id")
     public void delete(Long id) {
+        courseRepository.findById(id).ifPresent(course -> {
+            courseCatalogService.rebuildAfterCommit(course.getSemester());
+            timetableService.evictCourseAfterCommit(id, Collections.singletonList(course.getSemester()));
+        });
         courseRepository.deleteById(id);
+        idBloomFilterService.remove(IdBloomFilterService.COURSE, id);
+        seatReservationService.evict(id);
+        timeConflictService.evict(id);
+        courseLeaderboardService.refreshCourseAfterCommit(id);
     }
 
     @Override
-    @Cacheable(value = "course", key = "#id")
     public Course getCourseById(Long id) {
         return courseRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
@@ -92,24 +147,34 @@ public class CourseServiceImpl implements CourseService {
     @Transactional
     @CacheEvict(value = "course", key = "#course.id")
     public Course updateCourse(Course course) {
+        String oldSemester = course.getId() == null ? null
+                : courseRepository.findById(course.getId()).map(Course::getSemester).orElse(null);
         // 更新课程信息
         Course updatedCourse = courseRepository.save(course);
-        
-        // 清除相关缓存
-        redisService.delete(HOT_COURSES_KEY);
+        idBloomFilterService.add(IdBloomFilterService.COURSE, updatedCourse.getId());
+        courseCatalogService.rebuildAfterCommit(updatedCourse.getSemester());
+        courseLeaderboardService.refreshCourseAfterCommit(updatedCourse.getId());
+        timetableService.evictCourseAfterCommit(updatedCourse.getId(),
+                Arrays.asList(oldSemester, updatedCourse.getSemester()));
         
         return updatedCourse;
     }
 
     @Override
     public List<Course> getHotCourses() {
-        // 使用缓存击穿保护获取热门课程
-        return redisService.getWithCachePenetrationProtection(
-                HOT_COURSES_KEY,
-                "lock:" + HOT_COURSES_KEY,
-                courseRepository::findTop10ByOrderBySelectedCountDesc,
-                3600 // 1小时过期
-        );
+        // 从实时排行榜取前10门课程，再按主键加载
+        List<Long> ids = courseLeaderboardService.getTopCourseIds(HOT_COURSES_LIMIT);
+        if (ids.isEmpty()) {
+            // 排行榜尚未构建时回退到数据库查询
+            return courseRepository.findTop10ByOrderBySelectedCountDesc();
+        }
+        Map<Long, Course> courses = courseRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+        return ids.stream()
+                .map(courses::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -126,73 +191,22 @@ public class CourseServiceImpl implements CourseService {
 
     @Override
     public boolean trySelectCourse(Long courseId, Long studentId) {
-        String lockKey = COURSE_LOCK_PREFIX + courseId + ":" + studentId;
-        String lockValue = String.valueOf(System.currentTimeMillis());
-        
-        // 尝试获取分布式锁
-        boolean locked = redisService.tryLock(lockKey, lockValue, 10L, TimeUnit.SECONDS);
-        
-        try {
-            if (locked) {
-                // 检查课程余量
-                Course course = courseRepository.findById(courseId)
-                        .orElseThrow(() -> new RuntimeException("课程不存在"));
-                
-                if (course.getCapacity() > course.getSelectedCount()) {
-                    // 增加已选人数
-                    course.setSelectedCount(course.getSelectedCount() + 1);
-                    courseRepository.save(course);
-                    return true;
-                }
+        // 余量由Redis座位计数器原子扣减，已选人数通过条件更新维护，并发冲突时自动重试
+        return retryingTransactionExecutor.execute("trySelectCourse", () -> {
+            if (!seatReservationService.tryReserve(courseId)) {
                 return false;
             }
-            return false;
-        } finally {
-            if (locked) {
-                redisService.unlock(lockKey);
+            if (courseRepository.incrementSelectedCount(courseId) > 0) {
+                return true;
             }
-        }
+            // 数据库已满员，归还预占的座位
+            seatReservationService.release(courseId);
+            return false;
+        });
     }
 
     private CourseDTO convertToDTO(Course course) {
-        CourseDTO dto = new CourseDTO();
-        dto.setId(course.getId());
-        dto.setCourseCode(course.getCourseCode());
-        dto.setCourseName(course.getCourseName());
-        
-        // 添加对 department 的空值检查
-        if (course.getDepartment() != null) {
-            dto.setDepartmentId(course.getDepartment().getId());
-            dto.setDepartmentName(course.getDepartment().getName());
-        } else {
-            dto.setDepartmentId(null);
-            dto.setDepartmentName("未分配院系");
-        }
-        
-        // 添加对 teacher 的空值检查
-        if (course.getTeacher() != null) {
-            dto.setTeacherId(course.getTeacher().getId());
-            dto.setTeacherName(course.getTeacher().getRealName());
-        } else {
-            dto.setTeacherId(null);
-            dto.setTeacherName("未分配教师");
-        }
-        
-        dto.setCredits(course.getCredits());
-        dto.setCourseType(course.getCourseType());
-        dto.setSemester(course.getSemester());
-        dto.setCapacity(course.getCapacity());
-        dto.setSelectedCount(course.getSelectedCount());
-        dto.setStatus(course.getStatus());
-        dto.setDescription(course.getDescription());
-        
-        // 添加时间和地点相关字段
-        dto.setClassTime(course.getClassTime());
-        dto.setClassroom(course.getClassroom());
-        dto.setWeeks(course.getWeeks());
-        dto.setSections(course.getSections());
-        
-        return dto;
+        return CourseDTO.fromEntity(course);
     }
 
     private Course convertToEntity(CourseDTO dto) {
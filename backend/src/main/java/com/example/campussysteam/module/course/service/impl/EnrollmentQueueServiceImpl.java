@@ -0,0 +1,610 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.EnrollmentTicketDTO;
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.event.EnrollmentChangedEvent;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.EnrollmentQueueService;
+import com.example.campussysteam.module.course.service.SeatReservationService;
+import com.example.campussysteam.module.user.repository.UserRepository;
+import com.example.campussysteam.repository.StudentCourseRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamInfo;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 选课请求异步写入服务实现类
+ * 受理时先校验课程、学生和选课记录，再在Redis中预占座位，并写入Redis Stream enroll:queue 后才返回凭证，
+ * 进程崩溃或重启不会丢失已受理的请求。各节点以消费组 enroll-writers 读取，后台定时按批次写入student_course
+ * 并合并更新course.selected_count，写入完成后确认并删除消息。
+ * 节点崩溃时已读取未确认的消息由其他节点或重启后的节点认领重放，重放时按凭证状态和选课记录跳过已完成的部分。
+ * 同一(学生, 课程)同时只能有一个请求排队，由 enroll:pending:{studentId}:{courseId} 标记
+ */
+@Service
+@RequiredArgsConstructor
+public class EnrollmentQueueServiceImpl implements EnrollmentQueueService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentQueueServiceImpl.class);
+
+    private static final String TICKET_KEY_PREFIX = "enroll:ticket:";
+    private static final long TICKET_TTL_SECONDS = 3600;
+    private static final String STREAM_KEY = "enroll:queue";
+    private static final String CONSUMER_GROUP = "enroll-writers";
+    private static final String PENDING_KEY_PREFIX = "enroll:pending:";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO student_course (student_id, course_id, selection_time, status, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, 'SELECTED', 0, ?, ?)";
+    private static final String DELETE_SQL =
+            "DELETE FROM student_course WHERE student_id = ? AND course_id = ?";
+    /**
+     * 与同步选课的incrementSelectedCount相同，只在不超过容量时增加已选人数
+     */
+    private static final String INCREASE_COUNT_SQL =
+            "UPDATE course SET selected_count = selected_count + ?, version = version + 1 " +
+            "WHERE id = ? AND selected_count + ? <= capacity";
+    private static final String DECREASE_COUNT_SQL =
+            "UPDATE course SET selected_count = GREATEST(selected_count - ?, 0), version = version + 1 WHERE id = ?";
+    private static final String REMAINING_SQL =
+            "SELECT capacity - selected_count FROM course WHERE id = ? FOR UPDATE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SeatReservationService seatReservationService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final StudentCourseRepository studentCourseRepository;
+
+    @Value("${enrollment.queue.capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${enrollment.queue.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 消息读取后超过这段时间仍未确认，视为读取它的节点已崩溃，由其他节点认领重放
+     */
+    @Value("${enrollment.queue.claim-idle-ms:60000}")
+    private long claimIdleMs;
+
+    /**
+     * 消费组中的消费者名称，每个进程不同
+     */
+    private final String consumerName = "enroll-" + UUID.randomUUID().toString().replace("-", "");
+
+    @PostConstruct
+    public void init() {
+        ensureGroup();
+        logger.info("选课请求队列初始化: consumer={}, capacity={}, batchSize={}", consumerName, queueCapacity, batchSize);
+    }
+
+    @Override
+    public EnrollmentTicketDTO submitEnroll(Long studentId, Long courseId) {
+        EnrollmentCommand command = newCommand(studentId, courseId, EnrollmentTicketDTO.ACTION_ENROLL);
+        if (!markPending(command)) {
+            return reject(command, "该课程已有处理中的请求");
+        }
+        // 与同步选课相同的校验，不合法的请求不占用座位，也不会在批量写入时违反约束导致整批回滚
+        String error = checkEnroll(studentId, courseId);
+        if (error != null) {
+            clearPending(command);
+            return finish(command, false, error);
+        }
+        if (!seatReservationService.tryReserve(courseId)) {
+            clearPending(command);
+            return finish(command, false, "课程已满");
+        }
+        if (!enqueue(command)) {
+            seatReservationService.release(courseId);
+            clearPending(command);
+            return reject(command, "选课请求过多，请稍后重试");
+        }
+        return toTicket(command, EnrollmentTicketDTO.STATUS_PENDING, "排队中", null);
+    }
+
+    @Override
+    public EnrollmentTicketDTO submitDrop(Long studentId, Long courseId) {
+        EnrollmentCommand command = newCommand(studentId, courseId, EnrollmentTicketDTO.ACTION_DROP);
+        if (!markPending(command)) {
+            return reject(command, "该课程已有处理中的请求");
+        }
+        if (!studentCourseRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
+            clearPending(command);
+            return finish(command, false, "未选择该课程");
+        }
+        if (!enqueue(command)) {
+            clearPending(command);
+            return reject(command, "退课请求过多，请稍后重试");
+        }
+        return toTicket(command, EnrollmentTicketDTO.STATUS_PENDING, "排队中", null);
+    }
+
+    @Override
+    public EnrollmentTicketDTO getTicket(String ticketId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(TICKET_KEY_PREFIX + ticketId);
+        if (fields.isEmpty()) {
+            return null;
+        }
+        return EnrollmentTicketDTO.builder()
+                .ticketId(ticketId)
+                .studentId(toLong(fields.get("studentId")))
+                .courseId(toLong(fields.get("courseId")))
+                .action((String) fields.get("action"))
+                .status((String) fields.get("status"))
+                .message((String) fields.get("message"))
+                .acceptedAt((String) fields.get("acceptedAt"))
+                .completedAt((String) fields.get("completedAt"))
+                .build();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${enrollment.queue.flush-interval-ms:200}")
+    public void flush() {
+        List<MapRecord<String, String, String>> records;
+        try {
+            records = stream().read(Consumer.from(CONSUMER_GROUP, consumerName),
+                    StreamReadOptions.empty().count(batchSize),
+                    StreamOffset.create(STREAM_KEY, ReadOffset.lastConsumed()));
+        } catch (Exception e) {
+            // 启动时Redis不可用等原因导致消费组未创建
+            logger.warn("读取选课请求队列失败: error={}", e.getMessage());
+            ensureGroup();
+            return;
+        }
+        if (records == null || records.isEmpty()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        List<EnrollmentCommand> batch = new ArrayList<>(records.size());
+        for (MapRecord<String, String, String> record : records) {
+            batch.add(toCommand(record));
+        }
+        // 同一(学生, 课程)同时只有一个请求排队，批次内不会出现需要保证先后顺序的请求
+        flushSegment(batch);
+        logger.debug("选课请求批量写入完成: size={}, cost={}ms", batch.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 认领读取后长时间未确认的消息并重放，包括本节点重启前读取的消息
+     */
+    @Scheduled(fixedDelayString = "${enrollment.queue.recover-interval-ms:30000}")
+    public void recover() {
+        removeIdleConsumers();
+        List<MapRecord<String, String, String>> claimed;
+        try {
+            PendingMessages pending = stream().pending(STREAM_KEY, CONSUMER_GROUP, Range.unbounded(), batchSize);
+            List<RecordId> stale = new ArrayList<>();
+            for (PendingMessage message : pending) {
+                if (message.getElapsedTimeSinceLastDelivery().toMillis() >= claimIdleMs) {
+                    stale.add(message.getId());
+                }
+            }
+            if (stale.isEmpty()) {
+                return;
+            }
+            claimed = stream().claim(STREAM_KEY, CONSUMER_GROUP, consumerName, Duration.ofMillis(claimIdleMs),
+                    stale.toArray(new RecordId[0]));
+        } catch (Exception e) {
+            logger.warn("认领未确认的选课请求失败: error={}", e.getMessage());
+            return;
+        }
+        if (claimed == null || claimed.isEmpty()) {
+            return;
+        }
+
+        logger.warn("重放未确认的选课请求: size={}", claimed.size());
+        List<EnrollmentCommand> batch = new ArrayList<>(claimed.size());
+        for (MapRecord<String, String, String> record : claimed) {
+            EnrollmentCommand command = toCommand(record);
+            if (!alreadyApplied(command)) {
+                batch.add(command);
+            }
+        }
+        flushSegment(batch);
+    }
+
+    /**
+     * 删除已退出节点留下的消费者，它们的消息已被认领，没有未确认的消息
+     */
+    private void removeIdleConsumers() {
+        try {
+            StreamInfo.XInfoConsumers consumers = stream().consumers(STREAM_KEY, CONSUMER_GROUP);
+            consumers.forEach(consumer -> {
+                if (!consumerName.equals(consumer.consumerName()) && consumer.pendingCount() == 0
+                        && consumer.idleTimeMs() >= claimIdleMs) {
+                    stream().deleteConsumer(STREAM_KEY, Consumer.from(CONSUMER_GROUP, consumer.consumerName()));
+                }
+            });
+        } catch (Exception e) {
+            logger.debug("清理选课请求消费者失败: error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 重放前检查请求是否已经完成：凭证已有结果时只确认消息；
+     * 数据库已写入但凭证未更新（写入后、确认前崩溃）时按成功完成，不再重复写入
+     */
+    private boolean alreadyApplied(EnrollmentCommand command) {
+        Object status = redisTemplate.opsForHash().get(TICKET_KEY_PREFIX + command.getTicketId(), "status");
+        if (status != null && !EnrollmentTicketDTO.STATUS_PENDING.equals(status)) {
+            clearPending(command);
+            acknowledge(List.of(command));
+            return true;
+        }
+        boolean exists = studentCourseRepository.existsByStudentIdAndCourseId(command.getStudentId(), command.getCourseId());
+        boolean enroll = EnrollmentTicketDTO.ACTION_ENROLL.equals(command.getAction());
+        if (enroll != exists) {
+            return false;
+        }
+        if (!enroll) {
+            // 退课已写入数据库，座位可能尚未归还
+            seatReservationService.release(command.getCourseId());
+        }
+        clearPending(command);
+        finish(command, true, "处理成功");
+        acknowledge(List.of(command));
+        return true;
+    }
+
+    private void flushSegment(List<EnrollmentCommand> segment) {
+        if (segment.isEmpty()) {
+            return;
+        }
+        Map<EnrollmentCommand, String> failures;
+        try {
+            failures = transactionTemplate.execute(status -> writeSegment(segment));
+        } catch (DataAccessException e) {
+            // 批量写入失败时逐条重试，定位失败的请求
+            logger.warn("选课请求批量写入失败，改为逐条写入: size={}, error={}", segment.size(), e.getMessage());
+            failures = new HashMap<>();
+            for (EnrollmentCommand command : segment) {
+                try {
+                    Map<EnrollmentCommand, String> single = transactionTemplate.execute(status -> writeSegment(List.of(command)));
+                    if (single != null) {
+                        failures.putAll(single);
+                    }
+                } catch (DuplicateKeyException ex) {
+                    failures.put(command, "已经选过这门课程");
+                } catch (DataAccessException ex) {
+                    logger.error("选课请求写入失败: studentId={}, courseId={}", command.getStudentId(), command.getCourseId(), ex);
+                    failures.put(command, "选课失败，请稍后重试");
+                }
+            }
+        }
+
+        for (EnrollmentCommand command : segment) {
+            String error = failures == null ? null : failures.get(command);
+            boolean enroll = EnrollmentTicketDTO.ACTION_ENROLL.equals(command.getAction());
+            if (enroll && error != null) {
+                // 选课失败，归还受理时预占的座位
+                seatReservationService.release(command.getCourseId());
+            } else if (!enroll && error == null) {
+                // 退课成功，归还座位
+                seatReservationService.release(command.getCourseId());
+            }
+            clearPending(command);
+            finish(command, error == null, error == null ? "处理成功" : error);
+            if (error == null) {
+                eventPublisher.publishEvent(new EnrollmentChangedEvent(command.getStudentId(), command.getCourseId(),
+                        enroll ? EnrollmentChangedEvent.TYPE_ENROLLED : EnrollmentChangedEvent.TYPE_DROPPED));
+            }
+        }
+        acknowledge(segment);
+    }
+
+    /**
+     * 在同一事务中写入一批请求，返回失败的请求及原因。
+     * 先处理退课空出座位，再按课程合并增加已选人数；数据库中的余量不足时（如Redis计数器丢失后按旧值重新加载），
+     * 按受理顺序放行剩余座位数的请求，其余请求失败并在事务提交后归还预占的座位
+     */
+    private Map<EnrollmentCommand, String> writeSegment(List<EnrollmentCommand> segment) {
+        Map<EnrollmentCommand, String> failures = new HashMap<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        Map<Long, List<EnrollmentCommand>> enrolls = new LinkedHashMap<>();
+        List<EnrollmentCommand> drops = new ArrayList<>();
+        for (EnrollmentCommand command : segment) {
+            if (EnrollmentTicketDTO.ACTION_ENROLL.equals(command.getAction())) {
+                enrolls.computeIfAbsent(command.getCourseId(), id -> new ArrayList<>()).add(command);
+            } else {
+                drops.add(command);
+            }
+        }
+
+        if (!drops.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(drops.size());
+            for (EnrollmentCommand command : drops) {
+                args.add(new Object[]{command.getStudentId(), command.getCourseId()});
+            }
+            int[] deleted = jdbcTemplate.batchUpdate(DELETE_SQL, args);
+            Map<Long, Integer> dropCounts = new HashMap<>();
+            for (int i = 0; i < drops.size(); i++) {
+                EnrollmentCommand command = drops.get(i);
+                if (deleted[i] == 0) {
+                    failures.put(command, "未选择该课程");
+                } else {
+                    dropCounts.merge(command.getCourseId(), 1, Integer::sum);
+                }
+            }
+            List<Object[]> countArgs = new ArrayList<>(dropCounts.size());
+            dropCounts.forEach((courseId, count) -> countArgs.add(new Object[]{count, courseId}));
+            if (!countArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(DECREASE_COUNT_SQL, countArgs);
+            }
+        }
+
+        if (!enrolls.isEmpty()) {
+            List<Long> courseIds = new ArrayList<>(enrolls.keySet());
+            List<Object[]> countArgs = new ArrayList<>(courseIds.size());
+            for (Long courseId : courseIds) {
+                int count = enrolls.get(courseId).size();
+                countArgs.add(new Object[]{count, courseId, count});
+            }
+            int[] updated = jdbcTemplate.batchUpdate(INCREASE_COUNT_SQL, countArgs);
+
+            List<Object[]> args = new ArrayList<>();
+            for (int i = 0; i < courseIds.size(); i++) {
+                List<EnrollmentCommand> commands = enrolls.get(courseIds.get(i));
+                int admitted = updated[i] > 0 ? commands.size() : admitWithinCapacity(courseIds.get(i), commands, failures);
+                for (EnrollmentCommand command : commands.subList(0, admitted)) {
+                    Timestamp selectionTime = Timestamp.valueOf(command.getAcceptedAt());
+                    args.add(new Object[]{command.getStudentId(), command.getCourseId(), selectionTime, now, now});
+                }
+            }
+            if (!args.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, args);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * 数据库中的余量不足以容纳本批次该课程的全部请求时，锁定课程行，按受理顺序放行剩余座位数的请求
+     *
+     * @return 放行的请求数，其余请求记入failures
+     */
+    private int admitWithinCapacity(Long courseId, List<EnrollmentCommand> commands, Map<EnrollmentCommand, String> failures) {
+        List<Integer> remaining = jdbcTemplate.queryForList(REMAINING_SQL, Integer.class, courseId);
+        int admitted = 0;
+        String error = "课程不存在";
+        if (!remaining.isEmpty() && remaining.get(0) != null) {
+            admitted = Math.max(Math.min(remaining.get(0), commands.size()), 0);
+            error = "课程已满";
+            if (admitted > 0) {
+                jdbcTemplate.update(INCREASE_COUNT_SQL, admitted, courseId, admitted);
+            }
+            logger.warn("数据库中课程余量不足，Redis座位计数器可能与数据库不一致: courseId={}, requested={}, admitted={}",
+                    courseId, commands.size(), admitted);
+        }
+        for (EnrollmentCommand command : commands.subList(admitted, commands.size())) {
+            failures.put(command, error);
+        }
+        return admitted;
+    }
+
+    /**
+     * 校验选课请求，返回失败原因，通过时返回null
+     */
+    private String checkEnroll(Long studentId, Long courseId) {
+        Course course = courseRepository.findById(courseId).orElse(null);
+        if (course == null) {
+            return "课程不存在";
+        }
+        if (course.getStatus() != null && !"ACTIVE".equals(course.getStatus())) {
+            return "课程未开放选课";
+        }
+        if (!userRepository.existsById(studentId)) {
+            return "学生不存在";
+        }
+        if (studentCourseRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
+            return "已经选过这门课程";
+        }
+        return null;
+    }
+
+    /**
+     * 写入Redis Stream，写入成功后请求才算受理。已确认的消息会被删除，Stream长度即为未处理的请求数
+     */
+    private boolean enqueue(EnrollmentCommand command) {
+        try {
+            Long size = stream().size(STREAM_KEY);
+            if (size != null && size >= queueCapacity) {
+                return false;
+            }
+            // 先写入排队状态，避免后台处理完成后被覆盖
+            saveTicket(command, EnrollmentTicketDTO.STATUS_PENDING, "排队中", null);
+            Map<String, String> fields = new HashMap<>();
+            fields.put("ticketId", command.getTicketId());
+            fields.put("studentId", String.valueOf(command.getStudentId()));
+            fields.put("courseId", String.valueOf(command.getCourseId()));
+            fields.put("action", command.getAction());
+            fields.put("acceptedAt", command.getAcceptedAt().toString());
+            RecordId id = stream().add(StreamRecords.newRecord().in(STREAM_KEY).ofMap(fields));
+            command.setRecordId(id == null ? null : id.getValue());
+            return id != null;
+        } catch (Exception e) {
+            logger.error("写入选课请求队列失败: ticketId={}", command.getTicketId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 确认并删除已处理的消息
+     */
+    private void acknowledge(List<EnrollmentCommand> commands) {
+        String[] ids = commands.stream()
+                .map(EnrollmentCommand::getRecordId)
+                .filter(id -> id != null)
+                .toArray(String[]::new);
+        if (ids.length == 0) {
+            return;
+        }
+        try {
+            stream().acknowledge(STREAM_KEY, CONSUMER_GROUP, ids);
+            stream().delete(STREAM_KEY, ids);
+        } catch (Exception e) {
+            // 未确认的消息会被重新认领，重放时按凭证状态跳过
+            logger.warn("确认选课请求消息失败: size={}, error={}", ids.length, e.getMessage());
+        }
+    }
+
+    /**
+     * 标记(学生, 课程)有请求排队，已有排队中的请求时返回false
+     */
+    private boolean markPending(EnrollmentCommand command) {
+        Boolean marked = stringRedisTemplate.opsForValue().setIfAbsent(PENDING_KEY_PREFIX + command.pendingKey(),
+                command.getTicketId(), TICKET_TTL_SECONDS, TimeUnit.SECONDS);
+        return Boolean.TRUE.equals(marked);
+    }
+
+    private void clearPending(EnrollmentCommand command) {
+        try {
+            stringRedisTemplate.delete(PENDING_KEY_PREFIX + command.pendingKey());
+        } catch (Exception e) {
+            // 标记在凭证过期时间后自动删除
+            logger.warn("删除选课排队标记失败: key={}, error={}", command.pendingKey(), e.getMessage());
+        }
+    }
+
+    /**
+     * 创建消费组，Stream不存在时一并创建；消费组已存在时忽略
+     */
+    private void ensureGroup() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(STREAM_KEY.getBytes(StandardCharsets.UTF_8), CONSUMER_GROUP, ReadOffset.from("0"), true));
+        } catch (Exception e) {
+            logger.debug("创建选课请求消费组: {}", e.getMessage());
+        }
+    }
+
+    private StreamOperations<String, String, String> stream() {
+        return stringRedisTemplate.opsForStream();
+    }
+
+    private EnrollmentCommand toCommand(MapRecord<String, String, String> record) {
+        Map<String, String> fields = record.getValue();
+        return new EnrollmentCommand(fields.get("ticketId"), toLong(fields.get("studentId")),
+                toLong(fields.get("courseId")), fields.get("action"), LocalDateTime.parse(fields.get("acceptedAt")),
+                record.getId().getValue());
+    }
+
+    private EnrollmentTicketDTO reject(EnrollmentCommand command, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        saveTicket(command, EnrollmentTicketDTO.STATUS_REJECTED, message, now);
+        return toTicket(command, EnrollmentTicketDTO.STATUS_REJECTED, message, now);
+    }
+
+    private EnrollmentTicketDTO finish(EnrollmentCommand command, boolean success, String message) {
+        String status = success ? EnrollmentTicketDTO.STATUS_SUCCESS : EnrollmentTicketDTO.STATUS_FAILED;
+        LocalDateTime now = LocalDateTime.now();
+        saveTicket(command, status, message, now);
+        return toTicket(command, status, message, now);
+    }
+
+    private void saveTicket(EnrollmentCommand command, String status, String message, LocalDateTime completedAt) {
+        String key = TICKET_KEY_PREFIX + command.getTicketId();
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("studentId", String.valueOf(command.getStudentId()));
+        fields.put("courseId", String.valueOf(command.getCourseId()));
+        fields.put("action", command.getAction());
+        fields.put("status", status);
+        fields.put("message", message);
+        fields.put("acceptedAt", command.getAcceptedAt().toString());
+        if (completedAt != null) {
+            fields.put("completedAt", completedAt.toString());
+        }
+        try {
+            redisTemplate.opsForHash().putAll(key, fields);
+            redisTemplate.expire(key, TICKET_TTL_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.error("保存选课凭证失败: ticketId={}, status={}", command.getTicketId(), status, e);
+        }
+    }
+
+    private EnrollmentTicketDTO toTicket(EnrollmentCommand command, String status, String message, LocalDateTime completedAt) {
+        return EnrollmentTicketDTO.builder()
+                .ticketId(command.getTicketId())
+                .studentId(command.getStudentId())
+                .courseId(command.getCourseId())
+                .action(command.getAction())
+                .status(status)
+                .message(message)
+                .acceptedAt(command.getAcceptedAt().toString())
+                .completedAt(completedAt == null ? null : completedAt.toString())
+                .build();
+    }
+
+    private EnrollmentCommand newCommand(Long studentId, Long courseId, String action) {
+        String ticketId = UUID.randomUUID().toString().replace("-", "");
+        return new EnrollmentCommand(ticketId, studentId, courseId, action, LocalDateTime.now(), null);
+    }
+
+    private Long toLong(Object value) {
+        return value == null ? null : Long.valueOf(value.toString());
+    }
+
+    /**
+     * 排队中的选课/退课请求
+     */
+    @Data
+    @AllArgsConstructor
+    private static class EnrollmentCommand {
+        private String ticketId;
+        private Long studentId;
+        private Long courseId;
+        private String action;
+        private LocalDateTime acceptedAt;
+
+        /**
+         * 在Redis Stream中的消息ID
+         */
+        private String recordId;
+
+        String pendingKey() {
+            return studentId + ":" + courseId;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.ReconciliationReportDTO;
+import com.example.campussysteam.module.course.service.EnrollmentReconciliationService;
+import com.example.campussysteam.module.course.service.SeatStreamService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 选课人数对账服务实现类
+ * 按课程ID分批扫描，每批用一条语句同时读取课程的已选人数、版本号和按选课记录分组统计的人数，
+ * 两者来自同一读视图，不会因为对账期间的选课产生误判。
+ * 修复时不持有长时间的锁：数据库以版本号做条件更新，Redis计数器以比较后设置的脚本更新，
+ * 期间发生并发修改的课程留待下次对账。Redis计数器在选课过程中会先于数据库变化，
+ * 因此只有连续两次对账观察到相同的偏差时才修复
+ */
+@Service
+@RequiredArgsConstructor
+public class EnrollmentReconciliationServiceImpl implements EnrollmentReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EnrollmentReconciliationServiceImpl.class);
+
+    private static final String KEY_PREFIX = "course:";
+    private static final String SEATS_KEY_SUFFIX = ":seats";
+    private static final String ENROLLMENT_KEY_SUFFIX = ":enrollment";
+    private static final int MAX_SAMPLES = 20;
+
+    private static final String SELECT_IDS_SQL =
+            "SELECT id FROM course WHERE id > ? ORDER BY id LIMIT ?";
+
+    private static final String SELECT_COUNTS_SQL =
+            "SELECT c.id, c.selected_count, c.capacity, c.version, COALESCE(sc.cnt, 0) " +
+            "FROM course c LEFT JOIN (" +
+            "SELECT course_id, COUNT(*) AS cnt FROM student_course WHERE course_id BETWEEN ? AND ? GROUP BY course_id" +
+            ") sc ON sc.course_id = c.id " +
+            "WHERE c.id BETWEEN ? AND ?";
+
+    private static final String REPAIR_SQL =
+            "UPDATE course SET selected_count = ?, version = version + 1 WHERE id = ? AND version = ?";
+
+    /**
+     * 计数器仍为对账时读到的值才覆盖，期间有选课/退课修改过则不处理
+     */
+    private static final DefaultRedisScript<Long> COMPARE_AND_SET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  redis.call('SET', KEYS[1], ARGV[2]) " +
+            "  return 1 " +
+            "end " +
+            "return 0", Long.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SeatStreamService seatStreamService;
+
+    @Value("${course.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${course.reconciliation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${course.reconciliation.batch-pause-ms:50}")
+    private long batchPauseMs;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * 上次对账观察到的Redis计数器偏差，key为计数器key，value为"实际值@课程版本号"
+     */
+    private final Map<String, String> suspectedCounters = new ConcurrentHashMap<>();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder selectedCountDrift = new LongAdder();
+    private final LongAdder selectedCountRepaired = new LongAdder();
+    private final LongAdder seatCounterDrift = new LongAdder();
+    private final LongAdder seatCounterRepaired = new LongAdder();
+    private final LongAdder enrollmentCounterDrift = new LongAdder();
+    private final LongAdder enrollmentCounterRepaired = new LongAdder();
+
+    private volatile ReconciliationReportDTO lastReport;
+
+    @Scheduled(initialDelayString = "${course.reconciliation.initial-delay-ms:60000}",
+               fixedDelayString = "${course.reconciliation.interval-ms:900000}")
+    public void scheduledReconcile() {
+        if (enabled) {
+            reconcile();
+        }
+    }
+
+    @Override
+    public ReconciliationReportDTO reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            ReconciliationReportDTO report = doReconcile();
+            lastReport = report;
+            return report;
+        } catch (Exception e) {
+            logger.error("选课人数对账失败", e);
+            throw new RuntimeException("选课人数对账失败: " + e.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Override
+    public ReconciliationReportDTO getLastReport() {
+        return lastReport;
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("runs", runs.sum());
+        result.put("selectedCountDrift", selectedCountDrift.sum());
+        result.put("selectedCountRepaired", selectedCountRepaired.sum());
+        result.put("seatCounterDrift", seatCounterDrift.sum());
+        result.put("seatCounterRepaired", seatCounterRepaired.sum());
+        result.put("enrollmentCounterDrift", enrollmentCounterDrift.sum());
+        result.put("enrollmentCounterRepaired", enrollmentCounterRepaired.sum());
+        result.put("suspectedCounters", suspectedCounters.size());
+        ReconciliationReportDTO report = lastReport;
+        result.put("lastRunAt", report == null ? null : report.getStartedAt());
+        result.put("lastDurationMs", report == null ? null : report.getDurationMs());
+        return result;
+    }
+
+    private ReconciliationReportDTO doReconcile() {
+        long start = System.currentTimeMillis();
+        ReconciliationReportDTO report = ReconciliationReportDTO.builder()
+                .startedAt(LocalDateTime.now())
+                .build();
+        Map<String, String> observed = new HashMap<>();
+
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(SELECT_IDS_SQL, Long.class, afterId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            reconcileBatch(ids.get(0), ids.get(ids.size() - 1), report, observed);
+            report.setBatches(report.getBatches() + 1);
+            report.setCoursesScanned(report.getCoursesScanned() + ids.size());
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                break;
+            }
+            pause();
+        }
+
+        // 只保留本次仍存在的偏差，已自行恢复的计数器不再跟踪
+        suspectedCounters.keySet().retainAll(observed.keySet());
+        suspectedCounters.putAll(observed);
+
+        report.setDurationMs(System.currentTimeMillis() - start);
+        runs.increment();
+        logger.info("选课人数对账完成: courses={}, selectedCountDrift={}/{}, seatCounterDrift={}/{}, " +
+                        "enrollmentCounterDrift={}/{}, deferred={}, duration={}ms",
+                report.getCoursesScanned(), report.getSelectedCountRepaired(), report.getSelectedCountDrift(),
+                report.getSeatCounterRepaired(), report.getSeatCounterDrift(),
+                report.getEnrollmentCounterRepaired(), report.getEnrollmentCounterDrift(),
+                report.getDeferred(), report.getDurationMs());
+        return report;
+    }
+
+    private void reconcileBatch(long fromId, long toId, ReconciliationReportDTO report, Map<String, String> observed) {
+        List<Object[]> rows = jdbcTemplate.query(SELECT_COUNTS_SQL, (rs, rowNum) -> new Object[]{
+                rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)
+        }, fromId, toId, fromId, toId);
+
+        List<Object[]> repairArgs = new ArrayList<>();
+        List<Object[]> repairRows = new ArrayList<>();
+        List<String> seatKeys = new ArrayList<>(rows.size());
+        List<String> enrollmentKeys = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long courseId = (Long) row[0];
+            long selectedCount = (Long) row[1];
+            long actualCount = (Long) row[4];
+            if (selectedCount != actualCount) {
+                repairArgs.add(new Object[]{actualCount, courseId, row[3]});
+                repairRows.add(row);
+            }
+            seatKeys.add(KEY_PREFIX + courseId + SEATS_KEY_SUFFIX);
+            enrollmentKeys.add(KEY_PREFIX + courseId + ENROLLMENT_KEY_SUFFIX);
+        }
+
+        if (!repairArgs.isEmpty()) {
+            // 每条更新单独提交，只短暂锁定单行
+            int[] updated = jdbcTemplate.batchUpdate(REPAIR_SQL, repairArgs);
+            for (int i = 0; i < repairRows.size(); i++) {
+                Object[] row = repairRows.get(i);
+                boolean repaired = updated[i] != 0;
+                report.setSelectedCountDrift(report.getSelectedCountDrift() + 1);
+                selectedCountDrift.increment();
+                if (repaired) {
+                    report.setSelectedCountRepaired(report.getSelectedCountRepaired() + 1);
+                    selectedCountRepaired.increment();
+                    seatStreamService.markChanged((Long) row[0]);
+                } else {
+                    report.setDeferred(report.getDeferred() + 1);
+                }
+                addSample(report, (Long) row[0], ReconciliationReportDTO.SOURCE_SELECTED_COUNT,
+                        (Long) row[4], (Long) row[1], repaired);
+                logger.warn("课程已选人数与选课记录不一致: courseId={}, selectedCount={}, actual={}, repaired={}",
+                        row[0], row[1], row[4], repaired);
+            }
+        }
+
+        List<String> seatValues = stringRedisTemplate.opsForValue().multiGet(seatKeys);
+        List<String> enrollmentValues = stringRedisTemplate.opsForValue().multiGet(enrollmentKeys);
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            long actualCount = (Long) row[4];
+            long capacity = (Long) row[2];
+            long version = (Long) row[3];
+            checkCounter(report, observed, (Long) row[0], ReconciliationReportDTO.SOURCE_SEAT_COUNTER,
+                    seatKeys.get(i), valueAt(seatValues, i), Math.max(capacity - actualCount, 0), version);
+            checkCounter(report, observed, (Long) row[0], ReconciliationReportDTO.SOURCE_ENROLLMENT_COUNTER,
+                    enrollmentKeys.get(i), valueAt(enrollmentValues, i), actualCount, version);
+        }
+    }
+
+    /**
+     * 核对Redis计数器，计数器不存在时由业务代码按需加载，不做处理
+     */
+    private void checkCounter(ReconciliationReportDTO report, Map<String, String> observed, Long courseId,
+                              String source, String key, String value, long expected, long version) {
+        if (value == null) {
+            return;
+        }
+        Long actual = parseLong(value);
+        if (actual != null && actual == expected) {
+            return;
+        }
+
+        boolean seat = ReconciliationReportDTO.SOURCE_SEAT_COUNTER.equals(source);
+        if (seat) {
+            report.setSeatCounterDrift(report.getSeatCounterDrift() + 1);
+            seatCounterDrift.increment();
+        } else {
+            report.setEnrollmentCounterDrift(report.getEnrollmentCounterDrift() + 1);
+            enrollmentCounterDrift.increment();
+        }
+
+        String signature = value + "@" + version;
+        boolean repaired = false;
+        if (signature.equals(suspectedCounters.get(key))) {
+            Long result = stringRedisTemplate.execute(COMPARE_AND_SET_SCRIPT, Collections.singletonList(key),
+                    value, String.valueOf(expected));
+            repaired = result != null && result == 1L;
+        }
+        if (repaired) {
+            if (seat) {
+                report.setSeatCounterRepaired(report.getSeatCounterRepaired() + 1);
+                seatCounterRepaired.increment();
+            } else {
+                report.setEnrollmentCounterRepaired(report.getEnrollmentCounterRepaired() + 1);
+                enrollmentCounterRepaired.increment();
+            }
+            logger.warn("修复Redis计数器: key={}, value={}, expected={}", key, value, expected);
+        } else {
+            // 首次发现或期间有变化，下次对账仍相同时再修复
+            observed.put(key, signature);
+            report.setDeferred(report.getDeferred() + 1);
+        }
+        addSample(report, courseId, source, expected, actual, repaired);
+    }
+
+    private void addSample(ReconciliationReportDTO report, Long courseId, String source,
+                           Long expected, Long actual, boolean repaired) {
+        if (report.getSamples().size() >= MAX_SAMPLES) {
+            return;
+        }
+        report.getSamples().add(ReconciliationReportDTO.Drift.builder()
+                .courseId(courseId)
+                .source(source)
+                .expected(expected)
+                .actual(actual)
+                .repaired(repaired)
+                .build());
+    }
+
+    private String valueAt(List<String> values, int index) {
+        return values == null ? null : values.get(index);
+    }
+
+    private Long parseLong(String value) {
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.SeatReservationService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+
+/**
+ * 课程座位预占服务实现类
+ * 每门课程对应一个Redis计数器 course:{id}:seats，保存剩余座位数，
+ * 通过Lua脚本在Redis端完成"检查余量并扣减"，保证并发下不会超卖
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatReservationServiceImpl implements SeatReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatReservationServiceImpl.class);
+
+    private static final String SEATS_KEY_PREFIX = "course:";
+    private static final String SEATS_KEY_SUFFIX = ":seats";
+
+    /**
+     * 计数器不存在
+     */
+    private static final long NOT_LOADED = -2L;
+
+    /**
+     * 原子检查并扣减余量：不存在返回-2，已满返回-1，成功返回扣减后的余量
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local remaining = redis.call('GET', KEYS[1]) " +
+            "if not remaining then return -2 end " +
+            "if tonumber(remaining) <= 0 then return -1 end " +
+            "return redis.call('DECR', KEYS[1])",
+            Long.class);
+
+    /**
+     * 计数器存在时按增量调整余量，不存在返回-2
+     */
+    private static final DefaultRedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -2 end " +
+            "return redis.call('INCRBY', KEYS[1], ARGV[1])",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CourseRepository courseRepository;
+
+    @Override
+    public boolean tryReserve(Long courseId) {
+        String key = seatsKey(courseId);
+        Long result = redisTemplate.execute(RESERVE_SCRIPT, Collections.singletonList(key));
+        if (result != null && result == NOT_LOADED) {
+            // 计数器尚未加载，从数据库初始化后重试一次
+            loadIfAbsent(courseId);
+            result = redisTemplate.execute(RESERVE_SCRIPT, Collections.singletonList(key));
+        }
+
+        if (result == null || result < 0) {
+            logger.debug("预占座位失败: courseId={}, result={}", courseId, result);
+            return false;
+        }
+
+        logger.debug("预占座位成功: courseId={}, remaining={}", courseId, result);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 事务回滚时归还已预占的座位
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        release(courseId);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    @Override
+    public void release(Long courseId) {
+        Long result = redisTemplate.execute(ADJUST_SCRIPT, Collections.singletonList(seatsKey(courseId)), 1);
+        logger.debug("归还座位: courseId={}, remaining={}", courseId, result);
+    }
+
+    @Override
+    public void releaseAfterCommit(Long courseId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(courseId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(courseId);
+            }
+        });
+    }
+
+    @Override
+    public void adjustCapacity(Long courseId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 仅在容量修改真正提交后调整，回滚或重试时不会重复调整
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doAdjustCapacity(courseId, delta);
+                }
+            });
+            return;
+        }
+        doAdjustCapacity(courseId, delta);
+    }
+
+    private void doAdjustCapacity(Long courseId, int delta) {
+        Long result = redisTemplate.execute(ADJUST_SCRIPT, Collections.singletonList(seatsKey(courseId)), delta);
+        logger.info("课程容量变更，调整座位余量: courseId={}, delta={}, remaining={}", courseId, delta, result);
+    }
+
+    @Override
+    public Integer getRemainingSeats(Long courseId) {
+        Object value = redisTemplate.opsForValue().get(seatsKey(courseId));
+        return value == null ? null : Integer.valueOf(value.toString());
+    }
+
+    @Override
+    public void evict(Long courseId) {
+        redisTemplate.delete(seatsKey(courseId));
+    }
+
+    private void loadIfAbsent(Long courseId) {
+        courseRepository.findById(courseId).ifPresent(course ->
+                redisTemplate.opsForValue().setIfAbsent(seatsKey(courseId), remainingOf(course)));
+    }
+
+    private int remainingOf(Course course) {
+        return Math.max(course.getCapacity() - course.getSelectedCount(), 0);
+    }
+
+    private String seatsKey(Long courseId) {
+        return SEATS_KEY_PREFIX + courseId + SEATS_KEY_SUFFIX;
+    }
+}
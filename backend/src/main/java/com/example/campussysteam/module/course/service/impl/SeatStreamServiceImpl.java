@@ -0,0 +1,352 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.SeatUpdateDTO;
+import com.example.campussysteam.module.course.event.EnrollmentChangedEvent;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.SeatStreamService;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 课程余量推送服务实现类
+ * 选课/退课提交后只标记课程为已变化，定时任务每个合并窗口查询一次已变化课程的最新人数，
+ * 发布到Redis频道 course:seats；各节点收到消息后推送给本节点上订阅了这些课程的SSE连接。
+ * 推送不在Redis监听线程上执行：每个连接有一个有界待发送队列，由发送线程池依次发送，
+ * 队列积压已满或单次发送超时的慢连接会被断开，客户端可重新订阅
+ */
+@Service
+@RequiredArgsConstructor
+public class SeatStreamServiceImpl implements SeatStreamService, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SeatStreamServiceImpl.class);
+
+    private static final String CHANNEL = "course:seats";
+    private static final String EVENT_NAME = "seat";
+    private static final int MAX_COURSES_PER_CONNECTION = 50;
+    private static final int MAX_PENDING_PER_CONNECTION = 32;
+    private static final Object PING = new Object();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final CourseRepository courseRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${course.seat-stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${course.seat-stream.max-connections:5000}")
+    private int maxConnections;
+
+    @Value("${course.seat-stream.send-threads:4}")
+    private int sendThreads;
+
+    /**
+     * 单次发送超过该时间仍未返回的连接视为慢连接
+     */
+    @Value("${course.seat-stream.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    /**
+     * 课程ID -> 订阅该课程的连接
+     */
+    private final Map<Long, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 当前合并窗口内发生变化的课程
+     */
+    private final Set<Long> changed = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private ThreadPoolExecutor sendExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        sendExecutor = new ThreadPoolExecutor(sendThreads, sendThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(maxConnections), runnable -> {
+                    Thread thread = new Thread(runnable, "seat-stream-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        sendExecutor.allowCoreThreadTimeOut(true);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        sendExecutor.shutdownNow();
+        subscribers.values().forEach(targets -> targets.forEach(connection -> connection.emitter.complete()));
+    }
+
+    @Override
+    public SseEmitter subscribe(Collection<Long> courseIds) {
+        Set<Long> ids = new LinkedHashSet<>(courseIds);
+        if (ids.isEmpty() || ids.size() > MAX_COURSES_PER_CONNECTION) {
+            throw new RuntimeException("每个连接可订阅1-" + MAX_COURSES_PER_CONNECTION + "门课程");
+        }
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            throw new RuntimeException("订阅连接数已达上限，请稍后重试");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(emitter, ids);
+        emitter.onCompletion(() -> unsubscribe(connection));
+        emitter.onTimeout(() -> unsubscribe(connection));
+        emitter.onError(e -> unsubscribe(connection));
+        ids.forEach(id -> subscribers.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(connection));
+
+        // 推送当前余量作为初始状态，经同一队列发送以保证与后续变化的先后顺序
+        loadSeats(ids).forEach(update -> enqueue(connection, update));
+        return emitter;
+    }
+
+    @Override
+    public void markChanged(Long courseId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changed.add(courseId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changed.add(courseId);
+            }
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        changed.add(event.getCourseId());
+    }
+
+    /**
+     * 每个合并窗口结束时批量查询已变化课程的人数并发布，同一课程在窗口内的多次变化只推送一次
+     */
+    @Scheduled(fixedDelayString = "${course.seat-stream.coalesce-ms:250}")
+    public void publishChanges() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(changed);
+        changed.removeAll(ids);
+        try {
+            List<SeatUpdateDTO> updates = loadSeats(ids);
+            if (!updates.isEmpty()) {
+                stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(updates));
+            }
+        } catch (Exception e) {
+            logger.error("发布课程余量变化失败: courses={}", ids.size(), e);
+        }
+    }
+
+    /**
+     * 定时发送注释行，防止空闲连接被代理断开
+     */
+    @Scheduled(fixedDelayString = "${course.seat-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<Connection> all = new LinkedHashSet<>();
+        subscribers.values().forEach(all::addAll);
+        all.forEach(connection -> enqueue(connection, PING));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<SeatUpdateDTO> updates;
+        try {
+            updates = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8),
+                    new TypeReference<List<SeatUpdateDTO>>() {});
+        } catch (IOException e) {
+            logger.warn("解析课程余量消息失败: {}", e.getMessage());
+            return;
+        }
+        for (SeatUpdateDTO update : updates) {
+            Set<Connection> targets = subscribers.get(update.getCourseId());
+            if (targets == null || targets.isEmpty()) {
+                continue;
+            }
+            for (Connection connection : targets) {
+                enqueue(connection, update);
+            }
+        }
+    }
+
+    /**
+     * 放入连接的待发送队列并确保有发送任务在处理，本方法不会阻塞
+     */
+    private void enqueue(Connection connection, Object payload) {
+        if (connection.closed.get()) {
+            return;
+        }
+        long sendingSince = connection.sendingSince;
+        if (sendingSince > 0 && System.currentTimeMillis() - sendingSince > sendTimeoutMs) {
+            close(connection, "发送超时");
+            return;
+        }
+        if (!connection.queue.offer(payload)) {
+            close(connection, "待发送消息积压");
+            return;
+        }
+        schedule(connection);
+    }
+
+    private void schedule(Connection connection) {
+        if (!connection.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            sendExecutor.execute(() -> drain(connection));
+        } catch (RejectedExecutionException e) {
+            connection.scheduled.set(false);
+            close(connection, "发送线程池已满");
+        }
+    }
+
+    /**
+     * 同一连接同一时间只有一个发送任务，按入队顺序发送
+     */
+    private void drain(Connection connection) {
+        try {
+            Object payload;
+            while (!connection.closed.get() && (payload = connection.queue.poll()) != null) {
+                connection.sendingSince = System.currentTimeMillis();
+                try {
+                    if (payload == PING) {
+                        connection.emitter.send(SseEmitter.event().comment("ping"));
+                    } else {
+                        connection.emitter.send(SseEmitter.event().name(EVENT_NAME).data(payload));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // 客户端已断开，触发清理
+                    unsubscribe(connection);
+                    connection.emitter.completeWithError(e);
+                    return;
+                } finally {
+                    connection.sendingSince = 0;
+                }
+            }
+        } finally {
+            connection.scheduled.set(false);
+        }
+        if (connection.closeReason != null) {
+            connection.emitter.completeWithError(new IOException(connection.closeReason));
+            return;
+        }
+        // 释放标记与最后一次poll之间可能有新消息入队
+        if (!connection.closed.get() && !connection.queue.isEmpty()) {
+            schedule(connection);
+        }
+    }
+
+    /**
+     * 断开慢连接。SseEmitter的send和complete共用同一把锁，发送中的连接由发送任务在send返回后结束，
+     * 避免调用线程阻塞在卡住的发送上
+     */
+    private void close(Connection connection, String reason) {
+        if (!unsubscribe(connection)) {
+            return;
+        }
+        logger.debug("断开课程余量慢连接: reason={}, courses={}", reason, connection.courseIds.size());
+        connection.closeReason = reason;
+        if (!connection.scheduled.get()) {
+            connection.emitter.completeWithError(new IOException(reason));
+        }
+    }
+
+    /**
+     * 从订阅表中移除连接，只有首次移除返回true
+     */
+    private boolean unsubscribe(Connection connection) {
+        if (!connection.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        connection.queue.clear();
+        for (Long id : connection.courseIds) {
+            Set<Connection> targets = subscribers.get(id);
+            if (targets != null) {
+                targets.remove(connection);
+            }
+        }
+        connections.decrementAndGet();
+        return true;
+    }
+
+    private List<SeatUpdateDTO> loadSeats(Collection<Long> ids) {
+        List<SeatUpdateDTO> updates = new ArrayList<>(ids.size());
+        for (Object[] row : courseRepository.findSeatCounts(ids)) {
+            Integer selectedCount = (Integer) row[1];
+            Integer capacity = (Integer) row[2];
+            updates.add(SeatUpdateDTO.builder()
+                    .courseId((Long) row[0])
+                    .selectedCount(selectedCount)
+                    .capacity(capacity)
+                    .remaining(selectedCount == null || capacity == null ? null : Math.max(capacity - selectedCount, 0))
+                    .build());
+        }
+        return updates;
+    }
+
+    /**
+     * 一个SSE连接及其待发送队列
+     */
+    private static final class Connection {
+
+        private final SseEmitter emitter;
+        private final Set<Long> courseIds;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(MAX_PENDING_PER_CONNECTION);
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * 当前发送的开始时间，未在发送时为0
+         */
+        private volatile long sendingSince;
+
+        /**
+         * 被判定为慢连接时的原因
+         */
+        private volatile String closeReason;
+
+        private Connection(SseEmitter emitter, Set<Long> courseIds) {
+            this.emitter = emitter;
+            this.courseIds = courseIds;
+        }
+    }
+}
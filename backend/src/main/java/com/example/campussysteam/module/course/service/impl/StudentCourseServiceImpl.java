@@ -1,49 +1,281 @@
 package com.example.campussysteam.module.course.service.impl;
 
+import com.example.campussysteam.common.transaction.RetryingTransactionExecutor;
+import com.example.campussysteam.module.course.dto.AvailableCourseQuery;
+import com.example.campussysteam.module.course.dto.BatchEnrollResultDTO;
+import com.example.campussysteam.module.course.dto.CourseDTO;
+import com.example.campussysteam.module.course.dto.KeysetPageDTO;
 import com.example.campussysteam.module.course.dto.StudentCourseDTO;
+import com.example.campussysteam.module.course.dto.TimetableDTO;
 import com.example.campussysteam.module.course.entity.Course;
 import com.example.campussysteam.module.course.entity.StudentCourse;
+import com.example.campussysteam.module.course.event.EnrollmentChangedEvent;
+import com.example.campussysteam.module.course.exception.CourseFullException;
 import com.example.campussysteam.module.course.repository.CourseRepository;
 import com.example.campussysteam.repository.StudentCourseRepository;
+import com.example.campussysteam.module.course.service.CourseCatalogService;
+import com.example.campussysteam.module.course.service.SeatReservationService;
 import com.example.campussysteam.module.course.service.StudentCourseService;
+import com.example.campussysteam.module.course.service.TimeConflictService;
+import com.example.campussysteam.module.course.service.TimetableService;
 import com.example.campussysteam.module.user.entity.User;
 import com.example.campussysteam.module.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class StudentCourseServiceImpl implements StudentCourseService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final StudentCourseRepository studentCourseRepository;
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final SeatReservationService seatReservationService;
+    private final TimeConflictService timeConflictService;
+    private final CourseCatalogService courseCatalogService;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimetableService timetableService;
 
     @Override
     public Page<StudentCourseDTO> getAvailableCourses(Long studentId, String semester, Pageable pageable) {
-        // 获取所有课程，并过滤掉学生已选的课程
-        return courseRepository.findBySemester(semester, pageable)
-                .map(this::convertToDTO);
+        // 从内存中的学期课程目录快照分页，排除学生已选的课程
+        Set<Long> selectedIds = studentCourseRepository.findSelectedCourses(studentId, semester)
+                .stream()
+                .map(Course::getId)
+                .collect(Collectors.toSet());
+        List<CourseDTO> courses = courseCatalogService.getCourses(semester)
+                .stream()
+                .filter(course -> !selectedIds.contains(course.getId()))
+                .collect(Collectors.toList());
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(courses.stream().map(this::convertToDTO).collect(Collectors.toList()));
+        }
+        int from = (int) Math.min(pageable.getOffset(), courses.size());
+        int to = Math.min(from + pageable.getPageSize(), courses.size());
+        List<StudentCourseDTO> content = courses.subList(from, to)
+                .stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, courses.size());
+    }
+
+    @Override
+    public KeysetPageDTO<StudentCourseDTO> findAvailableCourses(Long studentId, String semester, AvailableCourseQuery query) {
+        int size = query.getSize() == null || query.getSize() <= 0
+                ? DEFAULT_PAGE_SIZE : Math.min(query.getSize(), MAX_PAGE_SIZE);
+        String afterCode = null;
+        Long afterId = null;
+        if (StringUtils.hasText(query.getCursor())) {
+            String[] position = decodeCursor(query.getCursor());
+            afterCode = position[0];
+            afterId = Long.valueOf(position[1]);
+        }
+
+        // 多取一条用于判断是否还有下一页
+        List<Course> courses = courseRepository.findAvailableCourses(studentId, semester,
+                query.getDepartmentId(), StringUtils.hasText(query.getCourseType()) ? query.getCourseType() : null,
+                query.getCredits(), query.isHasFreeSeats(), afterCode, afterId, PageRequest.of(0, size + 1));
+        boolean hasNext = courses.size() > size;
+        List<Course> page = hasNext ? courses.subList(0, size) : courses;
+
+        return KeysetPageDTO.<StudentCourseDTO>builder()
+                .content(page.stream()
+                        .map(CourseDTO::fromEntity)
+                        .map(this::convertToDTO)
+                        .collect(Collectors.toList()))
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? encodeCursor(page.get(page.size() - 1)) : null)
+                .build();
+    }
+
+    private String encodeCursor(Course course) {
+        String position = course.getCourseCode() + ":" + course.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(':');
+            Long.parseLong(position.substring(separator + 1));
+            return new String[]{position.substring(0, separator), position.substring(separator + 1)};
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new RuntimeException("无效的翻页游标");
+        }
     }
 
     @Override
     public List<StudentCourseDTO> getSelectedCourses(Long studentId, String semester) {
-        return studentCourseRepository.findByStudentIdAndSemester(studentId, semester)
+        return studentCourseRepository.findWithDetailsByStudentIdAndSemester(studentId, semester)
                 .stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional
     public StudentCourseDTO enrollCourse(Long studentId, Long courseId) {
+        return retryingTransactionExecutor.execute("enrollCourse", () -> doEnrollCourse(studentId, courseId));
+    }
+
+    @Override
+    public BatchEnrollResultDTO batchEnroll(Long studentId, List<Long> courseIds) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(courseIds));
+        User student = userRepository.findById(studentId)
+                .orElseThrow(() -> new RuntimeException("学生不存在"));
+
+        // 一次性加载购物车中的课程
+        Map<Long, Course> courses = courseRepository.findAllWithDetailsByIdIn(ids)
+                .stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        Map<Long, String> rejections = validateCart(studentId, ids, courses);
+        if (!rejections.isEmpty()) {
+            return buildBatchResult(ids, courses, rejections, Collections.emptyMap());
+        }
+
+        try {
+            Map<Long, StudentCourseDTO> enrolled = retryingTransactionExecutor.execute("batchEnroll",
+                    () -> doBatchEnroll(student, ids, courses));
+            return buildBatchResult(ids, courses, Collections.emptyMap(), enrolled);
+        } catch (CartRejectedException e) {
+            return buildBatchResult(ids, courses, Map.of(e.getCourseId(), e.getMessage()), Collections.emptyMap());
+        } catch (DataIntegrityViolationException e) {
+            // 并发提交了相同的选课，整个购物车回滚
+            Map<Long, String> failed = new HashMap<>();
+            ids.forEach(id -> failed.put(id, "选课失败，请刷新后重试"));
+            return buildBatchResult(ids, courses, failed, Collections.emptyMap());
+        }
+    }
+
+    /**
+     * 整体校验购物车：课程是否存在、是否已选、余量、与已选课程及购物车内课程的时间冲突
+     *
+     * @return 校验未通过的课程及原因
+     */
+    private Map<Long, String> validateCart(Long studentId, List<Long> ids, Map<Long, Course> courses) {
+        Map<Long, String> rejections = new LinkedHashMap<>();
+        // 每个学期只加载一次学生已选课程
+        Map<String, List<Course>> schedules = new HashMap<>();
+        for (Long courseId : ids) {
+            Course course = courses.get(courseId);
+            if (course == null) {
+                rejections.put(courseId, "课程不存在");
+                continue;
+            }
+            List<Course> selected = schedules.computeIfAbsent(course.getSemester(),
+                    semester -> studentCourseRepository.findSelectedCourses(studentId, semester));
+            if (selected.stream().anyMatch(c -> c.getId().equals(courseId))) {
+                rejections.put(courseId, "已经选过这门课程");
+                continue;
+            }
+            List<Course> conflicts = timeConflictService.findConflicts(course, selected);
+            if (!conflicts.isEmpty()) {
+                rejections.put(courseId, String.format("与已选课程【%s】时间冲突", conflicts.get(0).getCourseName()));
+                continue;
+            }
+            Integer remaining = seatReservationService.getRemainingSeats(courseId);
+            if ((remaining != null ? remaining : course.getCapacity() - course.getSelectedCount()) <= 0) {
+                rejections.put(courseId, "课程已满");
+            }
+        }
+
+        // 购物车内课程两两检查时间冲突
+        for (int i = 0; i < ids.size(); i++) {
+            Course first = courses.get(ids.get(i));
+            for (int j = i + 1; first != null && j < ids.size(); j++) {
+                Course second = courses.get(ids.get(j));
+                if (second == null || !first.getSemester().equals(second.getSemester())
+                        || !timeConflictService.conflicts(first, second)) {
+                    continue;
+                }
+                rejections.putIfAbsent(first.getId(), String.format("与购物车中课程【%s】时间冲突", second.getCourseName()));
+                rejections.putIfAbsent(second.getId(), String.format("与购物车中课程【%s】时间冲突", first.getCourseName()));
+            }
+        }
+        return rejections;
+    }
+
+    private Map<Long, StudentCourseDTO> doBatchEnroll(User student, List<Long> ids, Map<Long, Course> courses) {
+        List<StudentCourse> records = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (Long courseId : ids) {
+            // 任一课程预占失败则整个事务回滚，已预占的座位在回滚后自动归还
+            if (!seatReservationService.tryReserve(courseId)
+                    || courseRepository.incrementSelectedCount(courseId) == 0) {
+                throw new CartRejectedException(courseId, "课程已满");
+            }
+            records.add(StudentCourse.builder()
+                    .student(student)
+                    .course(courses.get(courseId))
+                    .selectionTime(now)
+                    .status("SELECTED")
+                    .build());
+        }
+
+        Map<Long, StudentCourseDTO> enrolled = new LinkedHashMap<>();
+        for (StudentCourse saved : studentCourseRepository.saveAll(records)) {
+            Long courseId = saved.getCourse().getId();
+            eventPublisher.publishEvent(new EnrollmentChangedEvent(
+                    student.getId(), courseId, EnrollmentChangedEvent.TYPE_ENROLLED));
+            enrolled.put(courseId, convertToDTO(saved));
+        }
+        return enrolled;
+    }
+
+    private BatchEnrollResultDTO buildBatchResult(List<Long> ids, Map<Long, Course> courses,
+                                                  Map<Long, String> rejections, Map<Long, StudentCourseDTO> enrolled) {
+        List<BatchEnrollResultDTO.Item> items = new ArrayList<>();
+        for (Long courseId : ids) {
+            Course course = courses.get(courseId);
+            BatchEnrollResultDTO.Item.ItemBuilder item = BatchEnrollResultDTO.Item.builder()
+                    .courseId(courseId)
+                    .courseName(course == null ? null : course.getCourseName());
+            if (enrolled.containsKey(courseId)) {
+                item.status(BatchEnrollResultDTO.ITEM_ENROLLED).message("选课成功").enrollment(enrolled.get(courseId));
+            } else if (rejections.containsKey(courseId)) {
+                item.status(BatchEnrollResultDTO.ITEM_REJECTED).message(rejections.get(courseId));
+            } else {
+                item.status(BatchEnrollResultDTO.ITEM_SKIPPED).message("购物车中其他课程未通过校验，本课程未选");
+            }
+            items.add(item.build());
+        }
+        return BatchEnrollResultDTO.builder()
+                .success(!enrolled.isEmpty())
+                .items(items)
+                .build();
+    }
+
+    @Override
+    public void dropCourse(Long studentId, Long courseId) {
+        retryingTransactionExecutor.run("dropCourse", () -> doDropCourse(studentId, courseId));
+    }
+
+    private StudentCourseDTO doEnrollCourse(Long studentId, Long courseId) {
         // 检查课程是否存在
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
@@ -57,9 +289,9 @@ public class StudentCourseServiceImpl implements StudentCourseService {
             throw new RuntimeException("已经选过这门课程");
         }
 
-        // 检查课程容量
-        if (course.getSelectedCount() >= course.getCapacity()) {
-            throw new RuntimeException("课程已满");
+        // 在Redis中原子预占座位，避免并发读写selectedCount导致超卖
+        if (!seatReservationService.tryReserve(courseId)) {
+            throw new CourseFullException("课程已满，可加入候补队列");
         }
 
         // 创建选课记录
@@ -70,66 +302,79 @@ public class StudentCourseServiceImpl implements StudentCourseService {
                 .status("SELECTED")
                 .build();
 
-        // 更新课程已选人数
-        course.setSelectedCount(course.getSelectedCount() + 1);
-        courseRepository.save(course);
+        // 条件更新已选人数，作为数据库层面的最后一道容量校验
+        if (courseRepository.incrementSelectedCount(courseId) == 0) {
+            throw new CourseFullException("课程已满");
+        }
 
         // 保存选课记录
         StudentCourse savedStudentCourse = studentCourseRepository.save(studentCourse);
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(
+                studentId, courseId, EnrollmentChangedEvent.TYPE_ENROLLED));
         return convertToDTO(savedStudentCourse);
     }
 
-    @Override
-    @Transactional
-    public void dropCourse(Long studentId, Long courseId) {
+    private void doDropCourse(Long studentId, Long courseId) {
         // 查找选课记录
         StudentCourse studentCourse = studentCourseRepository.findByStudentIdAndCourseId(studentId, courseId)
                 .orElseThrow(() -> new RuntimeException("未选择该课程"));
 
-        // 更新课程已选人数
-        Course course = studentCourse.getCourse();
-        course.setSelectedCount(course.getSelectedCount() - 1);
-        courseRepository.save(course);
-
         // 删除选课记录
         studentCourseRepository.delete(studentCourse);
+
+        // 更新课程已选人数，事务提交后归还座位
+        courseRepository.decrementSelectedCount(courseId);
+        seatReservationService.releaseAfterCommit(courseId);
+
+        // 事务提交后由候补队列等监听器处理空出的座位
+        eventPublisher.publishEvent(new EnrollmentChangedEvent(
+                studentId, courseId, EnrollmentChangedEvent.TYPE_DROPPED));
     }
 
     @Override
     public List<StudentCourseDTO> getStudentSchedule(Long studentId, String semester) {
-        return studentCourseRepository.findByStudentIdAndSemester(studentId, semester)
+        // 从物化的课表读取，不访问数据库
+        return timetableService.getTimetable(studentId, semester).getEntries()
                 .stream()
-                .map(this::convertToDTO)
+                .map(entry -> convertToDTO(studentId, semester, entry))
                 .collect(Collectors.toList());
     }
 
     @Override
     public boolean checkTimeConflict(Long studentId, Long courseId) {
-        // 获取要选的课程
         Course targetCourse = courseRepository.findById(courseId)
                 .orElseThrow(() -> new RuntimeException("课程不存在"));
+        // 与物化课表中的课程比较
+        return !timetableService.findConflicts(studentId, targetCourse).isEmpty();
+    }
 
-        // 获取学生已选的所有课程
-        List<StudentCourse> selectedCourses = studentCourseRepository.findByStudentId(studentId);
+    @Override
+    public List<StudentCourseDTO> getTimeConflicts(Long studentId, Long courseId) {
+        return findConflictingCourses(studentId, courseId)
+                .stream()
+                .map(this::convertToScheduleDTO)
+                .collect(Collectors.toList());
+    }
 
-        // 检查时间冲突
-        for (StudentCourse selectedCourse : selectedCourses) {
-            Course course = selectedCourse.getCourse();
-            if (hasTimeConflict(course, targetCourse)) {
-                return true;
-            }
-        }
+    private List<Course> findConflictingCourses(Long studentId, Long courseId) {
+        // 获取要选的课程
+        Course targetCourse = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("课程不存在"));
 
-        return false;
+        // 与学生同学期已选课程逐一按位图比较
+        return timeConflictService.findConflicts(studentId, targetCourse);
     }
 
     @Override
     public StudentCourseDTO getStudentCourseDetail(Long studentId, Long courseId) {
-        return studentCourseRepository.findByStudentIdAndCourseId(studentId, courseId)
+        return studentCourseRepository.findWithDetailsByStudentIdAndCourseId(studentId, courseId)
                 .map(this::convertToDTO)
                 .orElseThrow(() -> new RuntimeException("未找到课程记录"));
     }
 
+    /**
+     * 会访问学生、课程和授课教师，列表查询应使用findWithDetails*方法预先加载，避免逐条懒加载
+     */
     private StudentCourseDTO convertToDTO(StudentCourse studentCourse) {
         StudentCourseDTO dto = new StudentCourseDTO();
         dto.setId(studentCourse.getId());
@@ -150,12 +395,15 @@ public class StudentCourseServiceImpl implements StudentCourseService {
         return dto;
     }
 
-    private StudentCourseDTO convertToDTO(Course course) {
+    private StudentCourseDTO convertToDTO(CourseDTO course) {
         StudentCourseDTO dto = new StudentCourseDTO();
         dto.setCourseId(course.getId());
         dto.setCourseName(course.getCourseName());
         dto.setCourseCode(course.getCourseCode());
-        dto.setTeacherName(course.getTeacher().getRealName());
+        dto.setTeacherName(course.getTeacherName());
+        dto.setDepartmentName(course.getDepartmentName());
+        dto.setCredits(course.getCredits());
+        dto.setSemester(course.getSemester());
         dto.setClassTime(course.getClassTime());
         dto.setClassroom(course.getClassroom());
         dto.setWeeks(course.getWeeks());
@@ -163,34 +411,52 @@ public class StudentCourseServiceImpl implements StudentCourseService {
         return dto;
     }
 
-    private boolean hasTimeConflict(Course course1, Course course2) {
-        // 如果两门课程的周次或节次有重叠，则存在时间冲突
-        return hasOverlap(course1.getWeeks(), course2.getWeeks()) &&
-               hasOverlap(course1.getSections(), course2.getSections());
+    private StudentCourseDTO convertToDTO(Long studentId, String semester, TimetableDTO.Entry entry) {
+        StudentCourseDTO dto = new StudentCourseDTO();
+        dto.setId(entry.getId());
+        dto.setStudentId(studentId);
+        dto.setCourseId(entry.getCourseId());
+        dto.setCourseName(entry.getCourseName());
+        dto.setCourseCode(entry.getCourseCode());
+        dto.setTeacherName(entry.getTeacherName());
+        dto.setCredits(entry.getCredits());
+        dto.setSemester(semester);
+        dto.setClassTime(entry.getClassTime());
+        dto.setClassroom(entry.getClassroom());
+        dto.setWeeks(entry.getWeeks());
+        dto.setSections(entry.getSections());
+        dto.setSelectionTime(entry.getSelectionTime());
+        dto.setStatus(entry.getStatus());
+        return dto;
     }
 
-    private boolean hasOverlap(String range1, String range2) {
-        // 解析范围字符串，例如："1-8,10-16"
-        String[] ranges1 = range1.split(",");
-        String[] ranges2 = range2.split(",");
+    private StudentCourseDTO convertToScheduleDTO(Course course) {
+        StudentCourseDTO dto = new StudentCourseDTO();
+        dto.setCourseId(course.getId());
+        dto.setCourseName(course.getCourseName());
+        dto.setCourseCode(course.getCourseCode());
+        dto.setSemester(course.getSemester());
+        dto.setClassTime(course.getClassTime());
+        dto.setClassroom(course.getClassroom());
+        dto.setWeeks(course.getWeeks());
+        dto.setSections(course.getSections());
+        return dto;
+    }
 
-        for (String r1 : ranges1) {
-            String[] bounds1 = r1.split("-");
-            int start1 = Integer.parseInt(bounds1[0]);
-            int end1 = Integer.parseInt(bounds1[1]);
+    /**
+     * 批量选课时某门课程无法选上，用于回滚整个购物车
+     */
+    private static class CartRejectedException extends RuntimeException {
 
-            for (String r2 : ranges2) {
-                String[] bounds2 = r2.split("-");
-                int start2 = Integer.parseInt(bounds2[0]);
-                int end2 = Integer.parseInt(bounds2[1]);
+        private final Long courseId;
 
-                // 检查两个范围是否重叠
-                if (!(end1 < start2 || start1 > end2)) {
-                    return true;
-                }
-            }
+        CartRejectedException(Long courseId, String message) {
+            super(message);
+            this.courseId = courseId;
         }
 
-        return false;
+        Long getCourseId() {
+            return courseId;
+        }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,75 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.service.TimeConflictService;
+import com.example.campussysteam.module.course.util.CourseTimeSlot;
+import com.example.campussysteam.repository.StudentCourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 课程时间冲突检测服务实现类
+ * 周次、节次和星期在首次使用时编译为位图并按课程缓存，
+ * 课程时间被修改后缓存会因原始字符串不一致而自动重新编译
+ */
+@Service
+@RequiredArgsConstructor
+public class TimeConflictServiceImpl implements TimeConflictService {
+
+    private final StudentCourseRepository studentCourseRepository;
+
+    private final Map<Long, CourseTimeSlot> slotCache = new ConcurrentHashMap<>();
+
+    @Override
+    public CourseTimeSlot getTimeSlot(Course course) {
+        if (course.getId() == null) {
+            return CourseTimeSlot.compile(course.getClassTime(), course.getWeeks(), course.getSections());
+        }
+        CourseTimeSlot cached = slotCache.get(course.getId());
+        if (cached != null && cached.isCompiledFrom(course.getClassTime(), course.getWeeks(), course.getSections())) {
+            return cached;
+        }
+        CourseTimeSlot slot = CourseTimeSlot.compile(course.getClassTime(), course.getWeeks(), course.getSections());
+        slotCache.put(course.getId(), slot);
+        return slot;
+    }
+
+    @Override
+    public boolean conflicts(Course course1, Course course2) {
+        return getTimeSlot(course1).conflictsWith(getTimeSlot(course2));
+    }
+
+    @Override
+    public List<Course> findConflicts(Course target, Collection<Course> courses) {
+        CourseTimeSlot targetSlot = getTimeSlot(target);
+        List<Course> conflicts = new ArrayList<>();
+        for (Course course : courses) {
+            if (Objects.equals(course.getId(), target.getId())) {
+                continue;
+            }
+            if (targetSlot.conflictsWith(getTimeSlot(course))) {
+                conflicts.add(course);
+            }
+        }
+        return conflicts;
+    }
+
+    @Override
+    public List<Course> findConflicts(Long studentId, Course target) {
+        // 只比较同一学期的已选课程，一次查询取出课程本身，不触发懒加载
+        List<Course> selected = studentCourseRepository.findSelectedCourses(studentId, target.getSemester());
+        return findConflicts(target, selected);
+    }
+
+    @Override
+    public void evict(Long courseId) {
+        slotCache.remove(courseId);
+    }
+}
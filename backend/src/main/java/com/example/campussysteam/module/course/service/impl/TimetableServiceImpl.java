@@ -0,0 +1,486 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.module.course.dto.TimetableDTO;
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.entity.StudentCourse;
+import com.example.campussysteam.module.course.event.EnrollmentChangedEvent;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.service.TimeConflictService;
+import com.example.campussysteam.module.course.service.TimetableService;
+import com.example.campussysteam.module.course.util.CourseTimeSlot;
+import com.example.campussysteam.repository.StudentCourseRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * 学生课表服务实现类
+ * 课表保存在Redis哈希 timetable:{学生ID}:{学期} 中，字段为课程ID、值为课程条目JSON；
+ * 计数器 timetable:{学生ID}:{学期}:seq 在每次选课/退课时递增，作为课表版本号：
+ * 本地缓存的版本号与之一致时直接使用，构建课表期间版本号发生变化时放弃写入，避免覆盖并发的修改。
+ * 版本号每次递增时都重新设置过期时间，本地缓存按写入时间过期且时长相同，
+ * 因此版本号过期后重新从0开始时，本地不会残留版本号为0的旧课表
+ */
+@Service
+@RequiredArgsConstructor
+public class TimetableServiceImpl implements TimetableService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimetableServiceImpl.class);
+
+    private static final String KEY_PREFIX = "timetable:";
+    private static final String SEQ_SUFFIX = ":seq";
+    private static final String SEQ_FIELD = "_seq";
+    private static final String NO_SEQ = "0";
+
+    /**
+     * 课表格子最多展开的节次
+     */
+    private static final int MAX_GRID_SECTIONS = 16;
+
+    private static final int ALL_DAYS = 0x7F;
+
+    private static final DateTimeFormatter ICAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    /**
+     * 递增版本号，课表已物化时同步修改其中一门课程；值为空字符串表示删除
+     */
+    private static final DefaultRedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "local seq = redis.call('INCR', KEYS[2]) " +
+            "redis.call('EXPIRE', KEYS[2], tonumber(ARGV[3])) " +
+            "if redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "  if ARGV[2] == '' then redis.call('HDEL', KEYS[1], ARGV[1]) " +
+            "  else redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) end " +
+            "  redis.call('HSET', KEYS[1], '" + SEQ_FIELD + "', seq) " +
+            "end " +
+            "return seq",
+            Long.class);
+
+    /**
+     * 版本号与构建前读取的一致时写入完整课表，返回1；否则返回0
+     */
+    private static final DefaultRedisScript<Long> BUILD_SCRIPT = new DefaultRedisScript<>(
+            "local current = redis.call('GET', KEYS[2]) or '" + NO_SEQ + "' " +
+            "if current ~= ARGV[1] then return 0 end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], '" + SEQ_FIELD + "', current) " +
+            "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end " +
+            "redis.call('EXPIRE', KEYS[1], tonumber(ARGV[2])) " +
+            "if current ~= '" + NO_SEQ + "' then redis.call('EXPIRE', KEYS[2], tonumber(ARGV[2])) end " +
+            "return 1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final StudentCourseRepository studentCourseRepository;
+    private final CourseRepository courseRepository;
+    private final TimeConflictService timeConflictService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${course.timetable.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${course.timetable.local-max-size:10000}")
+    private long localMaxSize;
+
+    @Value("${course.timetable.section-start-times:08:00,08:55,10:00,10:55,14:00,14:55,16:00,16:55,19:00,19:55,20:50,21:45}")
+    private String[] sectionStartTimes;
+
+    @Value("${course.timetable.section-minutes:45}")
+    private int sectionMinutes;
+
+    private Cache<String, MaterializedTimetable> localCache;
+
+    @PostConstruct
+    public void init() {
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    @Override
+    public TimetableDTO getTimetable(Long studentId, String semester) {
+        return load(studentId, semester).getTimetable();
+    }
+
+    @Override
+    public List<TimetableDTO.Entry> findConflicts(Long studentId, Course target) {
+        MaterializedTimetable timetable = load(studentId, target.getSemester());
+        CourseTimeSlot targetSlot = timeConflictService.getTimeSlot(target);
+        List<TimetableDTO.Entry> conflicts = new ArrayList<>();
+        for (int i = 0; i < timetable.getEntries().size(); i++) {
+            TimetableDTO.Entry entry = timetable.getEntries().get(i);
+            if (!Objects.equals(entry.getCourseId(), target.getId()) && targetSlot.conflictsWith(timetable.getSlots().get(i))) {
+                conflicts.add(entry);
+            }
+        }
+        return conflicts;
+    }
+
+    @Override
+    public String exportICalendar(Long studentId, String semester, LocalDate firstWeekMonday) {
+        MaterializedTimetable timetable = load(studentId, semester);
+        String stamp = LocalDateTime.now(ZoneOffset.UTC).format(ICAL_DATE_TIME) + "Z";
+
+        StringBuilder calendar = new StringBuilder();
+        appendLine(calendar, "BEGIN:VCALENDAR");
+        appendLine(calendar, "VERSION:2.0");
+        appendLine(calendar, "PRODID:-//campus-system//timetable//CN");
+        appendLine(calendar, "CALSCALE:GREGORIAN");
+        appendLine(calendar, "X-WR-CALNAME:" + escape(semester + "课表"));
+        for (int i = 0; i < timetable.getEntries().size(); i++) {
+            TimetableDTO.Entry entry = timetable.getEntries().get(i);
+            CourseTimeSlot slot = timetable.getSlots().get(i);
+            if (slot.getWeekMask() == -1L || slot.getSectionMask() == -1L || slot.getDayMask() == ALL_DAYS) {
+                // 上课时间无法解析的课程不导出
+                continue;
+            }
+            int firstSection = Long.numberOfTrailingZeros(slot.getSectionMask()) + 1;
+            int lastSection = Math.min(Long.SIZE - Long.numberOfLeadingZeros(slot.getSectionMask()), sectionStartTimes.length);
+            if (firstSection > sectionStartTimes.length) {
+                continue;
+            }
+            LocalTime start = LocalTime.parse(sectionStartTimes[firstSection - 1].trim());
+            LocalTime end = LocalTime.parse(sectionStartTimes[lastSection - 1].trim()).plusMinutes(sectionMinutes);
+
+            for (int week = 1; week <= Long.SIZE; week++) {
+                if ((slot.getWeekMask() & (1L << (week - 1))) == 0) {
+                    continue;
+                }
+                for (int day = 0; day < 7; day++) {
+                    if ((slot.getDayMask() & (1 << day)) == 0) {
+                        continue;
+                    }
+                    LocalDate date = firstWeekMonday.plusWeeks(week - 1L).plusDays(day);
+                    appendLine(calendar, "BEGIN:VEVENT");
+                    appendLine(calendar, "UID:" + entry.getCourseId() + "-" + week + "-" + (day + 1) + "@campus-system");
+                    appendLine(calendar, "DTSTAMP:" + stamp);
+                    appendLine(calendar, "DTSTART:" + date.atTime(start).format(ICAL_DATE_TIME));
+                    appendLine(calendar, "DTEND:" + date.atTime(end).format(ICAL_DATE_TIME));
+                    appendLine(calendar, "SUMMARY:" + escape(entry.getCourseName()));
+                    appendLine(calendar, "LOCATION:" + escape(entry.getClassroom()));
+                    appendLine(calendar, "DESCRIPTION:" + escape("授课教师：" + entry.getTeacherName()));
+                    appendLine(calendar, "END:VEVENT");
+                }
+            }
+        }
+        appendLine(calendar, "END:VCALENDAR");
+        return calendar.toString();
+    }
+
+    @Override
+    public void evict(Long studentId, String semester) {
+        evict(Collections.singletonList(studentId), Collections.singleton(semester));
+    }
+
+    @Override
+    public void evictCourseAfterCommit(Long courseId, Collection<String> semesters) {
+        // 在当前事务中读取已选学生，课程被删除时提交后已无法查到
+        List<Long> studentIds = studentCourseRepository.findStudentIdsByCourseId(courseId);
+        Set<String> targets = semesters.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        if (studentIds.isEmpty() || targets.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictCourse(courseId, studentIds, targets);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictCourse(courseId, studentIds, targets);
+            }
+        });
+    }
+
+    private void evictCourse(Long courseId, List<Long> studentIds, Set<String> semesters) {
+        evict(studentIds, semesters);
+        logger.info("课程信息变更，清除已选学生的课表: courseId={}, semesters={}, students={}",
+                courseId, semesters, studentIds.size());
+    }
+
+    /**
+     * 递增版本号使正在进行的构建放弃写入，并使各节点的本地缓存失效
+     */
+    private void evict(List<Long> studentIds, Collection<String> semesters) {
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection stringConnection = (StringRedisConnection) connection;
+            for (Long studentId : studentIds) {
+                for (String semester : semesters) {
+                    String seqKey = seqKey(studentId, semester);
+                    stringConnection.incr(seqKey);
+                    stringConnection.expire(seqKey, ttlSeconds);
+                    stringConnection.del(hashKey(studentId, semester));
+                }
+            }
+            return null;
+        });
+        for (Long studentId : studentIds) {
+            for (String semester : semesters) {
+                localCache.invalidate(cacheKey(studentId, semester));
+            }
+        }
+    }
+
+    /**
+     * 选课/退课提交后增量更新课表
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        Long studentId = event.getStudentId();
+        Long courseId = event.getCourseId();
+        try {
+            if (event.isEnrolled()) {
+                studentCourseRepository.findWithDetailsByStudentIdAndCourseId(studentId, courseId)
+                        .ifPresent(record -> apply(studentId, record.getCourse().getSemester(), courseId,
+                                toJson(toEntry(record))));
+            } else {
+                courseRepository.findById(courseId)
+                        .ifPresent(course -> apply(studentId, course.getSemester(), courseId, ""));
+            }
+        } catch (Exception e) {
+            logger.error("更新学生课表失败: {}", event, e);
+        }
+    }
+
+    private void apply(Long studentId, String semester, Long courseId, String value) {
+        stringRedisTemplate.execute(UPDATE_SCRIPT,
+                Arrays.asList(hashKey(studentId, semester), seqKey(studentId, semester)),
+                courseId.toString(), value, String.valueOf(ttlSeconds));
+        localCache.invalidate(cacheKey(studentId, semester));
+    }
+
+    private MaterializedTimetable load(Long studentId, String semester) {
+        String cacheKey = cacheKey(studentId, semester);
+        String seq = stringRedisTemplate.opsForValue().get(seqKey(studentId, semester));
+        if (seq == null) {
+            seq = NO_SEQ;
+        }
+
+        MaterializedTimetable local = localCache.getIfPresent(cacheKey);
+        if (local != null && local.getSeq().equals(seq)) {
+            return local;
+        }
+
+        Map<String, String> fields = hash().entries(hashKey(studentId, semester));
+        if (!fields.isEmpty() && seq.equals(fields.get(SEQ_FIELD))) {
+            List<TimetableDTO.Entry> entries = new ArrayList<>(fields.size());
+            fields.forEach((field, value) -> {
+                if (!SEQ_FIELD.equals(field)) {
+                    entries.add(fromJson(value));
+                }
+            });
+            MaterializedTimetable timetable = new MaterializedTimetable(studentId, semester, seq, entries);
+            localCache.put(cacheKey, timetable);
+            return timetable;
+        }
+        return build(studentId, semester, seq);
+    }
+
+    private MaterializedTimetable build(Long studentId, String semester, String seq) {
+        List<TimetableDTO.Entry> entries = studentCourseRepository.findWithDetailsByStudentIdAndSemester(studentId, semester)
+                .stream()
+                .map(this::toEntry)
+                .collect(Collectors.toList());
+
+        List<String> args = new ArrayList<>(entries.size() * 2 + 2);
+        args.add(seq);
+        args.add(String.valueOf(ttlSeconds));
+        for (TimetableDTO.Entry entry : entries) {
+            args.add(entry.getCourseId().toString());
+            args.add(toJson(entry));
+        }
+        Long written = stringRedisTemplate.execute(BUILD_SCRIPT,
+                Arrays.asList(hashKey(studentId, semester), seqKey(studentId, semester)),
+                args.toArray());
+
+        MaterializedTimetable timetable = new MaterializedTimetable(studentId, semester, seq, entries);
+        if (written != null && written == 1) {
+            localCache.put(cacheKey(studentId, semester), timetable);
+        }
+        logger.debug("构建学生课表: studentId={}, semester={}, courses={}, cached={}",
+                studentId, semester, entries.size(), written);
+        return timetable;
+    }
+
+    private TimetableDTO.Entry toEntry(StudentCourse record) {
+        Course course = record.getCourse();
+        return TimetableDTO.Entry.builder()
+                .id(record.getId())
+                .courseId(course.getId())
+                .courseCode(course.getCourseCode())
+                .courseName(course.getCourseName())
+                .teacherName(course.getTeacher() != null ? course.getTeacher().getRealName() : course.getTeacherName())
+                .credits(course.getCredits())
+                .classTime(course.getClassTime())
+                .classroom(course.getClassroom())
+                .weeks(course.getWeeks())
+                .sections(course.getSections())
+                .selectionTime(record.getSelectionTime())
+                .status(record.getStatus())
+                .build();
+    }
+
+    private String toJson(TimetableDTO.Entry entry) {
+        try {
+            return objectMapper.writeValueAsString(entry);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("课表序列化失败", e);
+        }
+    }
+
+    private TimetableDTO.Entry fromJson(String value) {
+        try {
+            return objectMapper.readValue(value, TimetableDTO.Entry.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("课表反序列化失败", e);
+        }
+    }
+
+    /**
+     * 按RFC 5545输出一行，超过75字节时折行
+     */
+    private void appendLine(StringBuilder calendar, String line) {
+        int bytes = 0;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            int size = String.valueOf(c).getBytes(StandardCharsets.UTF_8).length;
+            if (bytes + size > 75) {
+                calendar.append("\r\n ");
+                bytes = 1;
+            }
+            calendar.append(c);
+            bytes += size;
+        }
+        calendar.append("\r\n");
+    }
+
+    private String escape(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("\\", "\\\\")
+                .replace(";", "\\;")
+                .replace(",", "\\,")
+                .replace("\n", "\\n");
+    }
+
+    private HashOperations<String, String, String> hash() {
+        return stringRedisTemplate.opsForHash();
+    }
+
+    private String hashKey(Long studentId, String semester) {
+        return KEY_PREFIX + studentId + ":" + semester;
+    }
+
+    private String seqKey(Long studentId, String semester) {
+        return hashKey(studentId, semester) + SEQ_SUFFIX;
+    }
+
+    private String cacheKey(Long studentId, String semester) {
+        return studentId + ":" + semester;
+    }
+
+    /**
+     * 物化的课表，创建后不再修改，可在多个请求间共享
+     */
+    private static final class MaterializedTimetable {
+        private final String seq;
+        private final List<TimetableDTO.Entry> entries;
+        private final List<CourseTimeSlot> slots;
+        private final TimetableDTO timetable;
+
+        private MaterializedTimetable(Long studentId, String semester, String seq, List<TimetableDTO.Entry> entries) {
+            List<TimetableDTO.Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(Comparator.comparing(TimetableDTO.Entry::getCourseCode, Comparator.nullsLast(Comparator.naturalOrder())));
+            this.seq = seq;
+            this.entries = Collections.unmodifiableList(sorted);
+            this.slots = sorted.stream()
+                    .map(entry -> CourseTimeSlot.compile(entry.getClassTime(), entry.getWeeks(), entry.getSections()))
+                    .collect(Collectors.toUnmodifiableList());
+            this.timetable = TimetableDTO.builder()
+                    .studentId(studentId)
+                    .semester(semester)
+                    .entries(this.entries)
+                    .cells(buildCells(this.entries, this.slots))
+                    .build();
+        }
+
+        private static List<TimetableDTO.Cell> buildCells(List<TimetableDTO.Entry> entries, List<CourseTimeSlot> slots) {
+            Map<Integer, TimetableDTO.Cell> cells = new TreeMap<>();
+            for (int i = 0; i < entries.size(); i++) {
+                CourseTimeSlot slot = slots.get(i);
+                for (int day = 0; day < 7; day++) {
+                    if ((slot.getDayMask() & (1 << day)) == 0) {
+                        continue;
+                    }
+                    for (int section = 0; section < MAX_GRID_SECTIONS; section++) {
+                        if ((slot.getSectionMask() & (1L << section)) == 0) {
+                            continue;
+                        }
+                        int dayNumber = day + 1;
+                        int sectionNumber = section + 1;
+                        cells.computeIfAbsent(dayNumber * 100 + sectionNumber, key -> TimetableDTO.Cell.builder()
+                                        .day(dayNumber)
+                                        .section(sectionNumber)
+                                        .courseIds(new ArrayList<>())
+                                        .build())
+                                .getCourseIds()
+                                .add(entries.get(i).getCourseId());
+                    }
+                }
+            }
+            return Collections.unmodifiableList(new ArrayList<>(cells.values()));
+        }
+
+        String getSeq() {
+            return seq;
+        }
+
+        List<TimetableDTO.Entry> getEntries() {
+            return entries;
+        }
+
+        List<CourseTimeSlot> getSlots() {
+            return slots;
+        }
+
+        TimetableDTO getTimetable() {
+            return timetable;
+        }
+    }
+}
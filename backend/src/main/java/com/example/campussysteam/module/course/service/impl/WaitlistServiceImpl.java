@@ -0,0 +1,296 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.common.transaction.RetryingTransactionExecutor;
+import com.example.campussysteam.module.course.dto.WaitlistPositionDTO;
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.entity.CourseWaitlist;
+import com.example.campussysteam.module.course.event.EnrollmentChangedEvent;
+import com.example.campussysteam.module.course.exception.CourseFullException;
+import com.example.campussysteam.module.course.repository.CourseRepository;
+import com.example.campussysteam.module.course.repository.CourseWaitlistRepository;
+import com.example.campussysteam.module.course.service.SeatReservationService;
+import com.example.campussysteam.module.course.service.StudentCourseService;
+import com.example.campussysteam.module.course.service.TimeConflictService;
+import com.example.campussysteam.module.course.service.WaitlistService;
+import com.example.campussysteam.module.user.repository.UserRepository;
+import com.example.campussysteam.repository.StudentCourseRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 课程候补服务实现类
+ * 候补顺序保存在Redis有序集合 course:{id}:waitlist 中，成员为学生ID，分数为加入时间戳；
+ * course_waitlist表同步记录候补状态，Redis数据丢失时据此恢复队列
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitlistServiceImpl implements WaitlistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistServiceImpl.class);
+
+    private static final String WAITLIST_KEY_PREFIX = "course:";
+    private static final String WAITLIST_KEY_SUFFIX = ":waitlist";
+    private static final String NOTICE_KEY_PREFIX = "waitlist:notice:";
+
+    private static final int NOTICE_MAX_SIZE = 50;
+    private static final long NOTICE_TTL_DAYS = 7;
+
+    /**
+     * 每次递补时从队首检查的最大人数，避免队首学生均有冲突时扫描整个队列
+     */
+    private static final int PROMOTE_SCAN_SIZE = 20;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CourseWaitlistRepository waitlistRepository;
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final StudentCourseRepository studentCourseRepository;
+    private final StudentCourseService studentCourseService;
+    private final SeatReservationService seatReservationService;
+    private final TimeConflictService timeConflictService;
+    private final RetryingTransactionExecutor retryingTransactionExecutor;
+
+    @Override
+    public WaitlistPositionDTO joinWaitlist(Long studentId, Long courseId) {
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new RuntimeException("课程不存在"));
+        if (!userRepository.existsById(studentId)) {
+            throw new RuntimeException("学生不存在");
+        }
+        if (studentCourseRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
+            throw new RuntimeException("已经选过这门课程");
+        }
+        if (remainingSeats(course) > 0) {
+            throw new RuntimeException("课程尚有余量，请直接选课");
+        }
+
+        restoreIfMissing(courseId);
+        LocalDateTime joinedAt = LocalDateTime.now();
+        Boolean added = zSet().addIfAbsent(waitlistKey(courseId), studentId, toScore(joinedAt));
+        if (Boolean.TRUE.equals(added)) {
+            try {
+                retryingTransactionExecutor.run("joinWaitlist", () -> saveWaiting(studentId, courseId, joinedAt));
+            } catch (RuntimeException e) {
+                zSet().remove(waitlistKey(courseId), studentId);
+                throw e;
+            }
+            logger.info("学生加入候补队列: studentId={}, courseId={}", studentId, courseId);
+        }
+        return getPosition(studentId, courseId);
+    }
+
+    @Override
+    public void leaveWaitlist(Long studentId, Long courseId) {
+        restoreIfMissing(courseId);
+        Long removed = zSet().remove(waitlistKey(courseId), studentId);
+        boolean cancelled = updateStatus(studentId, courseId, CourseWaitlist.STATUS_CANCELLED);
+        if ((removed == null || removed == 0) && !cancelled) {
+            throw new RuntimeException("未在该课程的候补队列中");
+        }
+        logger.info("学生退出候补队列: studentId={}, courseId={}", studentId, courseId);
+    }
+
+    @Override
+    public WaitlistPositionDTO getPosition(Long studentId, Long courseId) {
+        String key = waitlistKey(courseId);
+        Long rank = zSet().rank(key, studentId);
+        if (rank == null) {
+            restoreIfMissing(courseId);
+            rank = zSet().rank(key, studentId);
+        }
+        if (rank == null) {
+            return null;
+        }
+        Double score = zSet().score(key, studentId);
+        return WaitlistPositionDTO.builder()
+                .studentId(studentId)
+                .courseId(courseId)
+                .position(rank + 1)
+                .waitingCount(zSet().zCard(key))
+                .joinedAt(score == null ? null : toTime(score))
+                .build();
+    }
+
+    @Override
+    public Long promoteNext(Long courseId) {
+        restoreIfMissing(courseId);
+        String key = waitlistKey(courseId);
+        Set<ZSetOperations.TypedTuple<Object>> candidates = zSet().rangeWithScores(key, 0, PROMOTE_SCAN_SIZE - 1);
+        if (candidates == null || candidates.isEmpty()) {
+            return null;
+        }
+        Course course = courseRepository.findById(courseId).orElse(null);
+        if (course == null) {
+            redisTemplate.delete(key);
+            return null;
+        }
+
+        for (ZSetOperations.TypedTuple<Object> candidate : candidates) {
+            Long studentId = toLong(candidate.getValue());
+            if (studentCourseRepository.existsByStudentIdAndCourseId(studentId, courseId)) {
+                // 已通过其他途径选上该课程
+                zSet().remove(key, candidate.getValue());
+                updateStatus(studentId, courseId, CourseWaitlist.STATUS_PROMOTED);
+                continue;
+            }
+            if (!timeConflictService.findConflicts(studentId, course).isEmpty()) {
+                // 与已选课程时间冲突的学生保留位次，跳过本次递补
+                logger.debug("候补学生存在时间冲突，跳过: studentId={}, courseId={}", studentId, courseId);
+                continue;
+            }
+            // 先从队列移除再选课，多个节点同时递补时只有一个能取得该学生
+            Long removed = zSet().remove(key, candidate.getValue());
+            if (removed == null || removed == 0) {
+                continue;
+            }
+            try {
+                studentCourseService.enrollCourse(studentId, courseId);
+            } catch (CourseFullException e) {
+                // 座位已被其他人选走，恢复原位次等待下次递补
+                zSet().add(key, candidate.getValue(), candidate.getScore());
+                return null;
+            } catch (RuntimeException e) {
+                logger.warn("候补递补选课失败: studentId={}, courseId={}, error={}", studentId, courseId, e.getMessage());
+                updateStatus(studentId, courseId, CourseWaitlist.STATUS_CANCELLED);
+                notify(studentId, String.format("课程【%s】候补递补失败：%s", course.getCourseName(), e.getMessage()));
+                continue;
+            }
+            updateStatus(studentId, courseId, CourseWaitlist.STATUS_PROMOTED);
+            notify(studentId, String.format("课程【%s】有空余座位，已为您从候补自动选课", course.getCourseName()));
+            logger.info("候补学生递补成功: studentId={}, courseId={}", studentId, courseId);
+            return studentId;
+        }
+        return null;
+    }
+
+    @Override
+    public List<String> getNotifications(Long studentId) {
+        List<Object> notices = redisTemplate.opsForList().range(NOTICE_KEY_PREFIX + studentId, 0, NOTICE_MAX_SIZE - 1);
+        if (notices == null) {
+            return new ArrayList<>();
+        }
+        return notices.stream().map(String::valueOf).collect(Collectors.toList());
+    }
+
+    /**
+     * 退课事务提交后尝试递补；直接选课成功的学生从候补队列中移除
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnrollmentChanged(EnrollmentChangedEvent event) {
+        try {
+            if (event.isDropped()) {
+                promoteNext(event.getCourseId());
+            } else if (event.isEnrolled()) {
+                Long removed = zSet().remove(waitlistKey(event.getCourseId()), event.getStudentId());
+                if (removed != null && removed > 0) {
+                    updateStatus(event.getStudentId(), event.getCourseId(), CourseWaitlist.STATUS_PROMOTED);
+                }
+            }
+        } catch (Exception e) {
+            // 递补失败不影响退课结果，下次有座位空出时会再次尝试
+            logger.error("处理候补队列失败: {}", event, e);
+        }
+    }
+
+    private void saveWaiting(Long studentId, Long courseId, LocalDateTime joinedAt) {
+        CourseWaitlist waitlist = waitlistRepository.findByStudentIdAndCourseId(studentId, courseId)
+                .orElseGet(() -> CourseWaitlist.builder()
+                        .student(userRepository.getReferenceById(studentId))
+                        .course(courseRepository.getReferenceById(courseId))
+                        .build());
+        waitlist.setStatus(CourseWaitlist.STATUS_WAITING);
+        waitlist.setJoinedAt(joinedAt);
+        waitlist.setPromotedAt(null);
+        waitlistRepository.save(waitlist);
+    }
+
+    /**
+     * 更新候补中记录的状态，在新事务中执行以便在事务提交回调中调用
+     *
+     * @return 是否存在候补中的记录
+     */
+    private boolean updateStatus(Long studentId, Long courseId, String status) {
+        return retryingTransactionExecutor.execute("updateWaitlist", () ->
+                waitlistRepository.findByStudentIdAndCourseId(studentId, courseId)
+                        .filter(waitlist -> CourseWaitlist.STATUS_WAITING.equals(waitlist.getStatus()))
+                        .map(waitlist -> {
+                            waitlist.setStatus(status);
+                            if (CourseWaitlist.STATUS_PROMOTED.equals(status)) {
+                                waitlist.setPromotedAt(LocalDateTime.now());
+                            }
+                            waitlistRepository.save(waitlist);
+                            return true;
+                        })
+                        .orElse(false));
+    }
+
+    /**
+     * Redis中的候补队列不存在时，从数据库恢复
+     */
+    private void restoreIfMissing(Long courseId) {
+        String key = waitlistKey(courseId);
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            return;
+        }
+        List<Object[]> rows = waitlistRepository.findQueueByCourseIdAndStatus(courseId, CourseWaitlist.STATUS_WAITING);
+        if (rows.isEmpty()) {
+            return;
+        }
+        Set<ZSetOperations.TypedTuple<Object>> tuples = new HashSet<>();
+        for (Object[] row : rows) {
+            tuples.add(new DefaultTypedTuple<>(row[0], toScore((LocalDateTime) row[1])));
+        }
+        zSet().add(key, tuples);
+        logger.info("从数据库恢复课程候补队列: courseId={}, size={}", courseId, tuples.size());
+    }
+
+    private void notify(Long studentId, String message) {
+        String key = NOTICE_KEY_PREFIX + studentId;
+        redisTemplate.opsForList().leftPush(key, message);
+        redisTemplate.opsForList().trim(key, 0, NOTICE_MAX_SIZE - 1);
+        redisTemplate.expire(key, NOTICE_TTL_DAYS, TimeUnit.DAYS);
+        logger.info("发送候补通知: studentId={}, message={}", studentId, message);
+    }
+
+    private int remainingSeats(Course course) {
+        Integer remaining = seatReservationService.getRemainingSeats(course.getId());
+        return remaining != null ? remaining : course.getCapacity() - course.getSelectedCount();
+    }
+
+    private ZSetOperations<String, Object> zSet() {
+        return redisTemplate.opsForZSet();
+    }
+
+    private String waitlistKey(Long courseId) {
+        return WAITLIST_KEY_PREFIX + courseId + WAITLIST_KEY_SUFFIX;
+    }
+
+    private double toScore(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private LocalDateTime toTime(double score) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli((long) score), ZoneId.systemDefault());
+    }
+
+    private Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : Long.valueOf(value.toString());
+    }
+}
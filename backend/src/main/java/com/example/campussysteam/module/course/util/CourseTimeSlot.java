@@ -0,0 +1,138 @@
+package com.example.campussysteam.module.course.util;
+
+import java.util.Objects;
+
+/**
+ * 课程上课时间的位图表示
+ * 周次、节次各用一个long表示(第n周/节对应第n-1位)，星期用低7位表示(周一为第0位)，
+ * 两门课程冲突当且仅当三者同时有交集，判断只需三次按位与运算
+ */
+public final class CourseTimeSlot {
+
+    /**
+     * 所有位均置1，无法解析时按全部时间处理，保证不会漏判冲突
+     */
+    private static final long ALL = -1L;
+
+    private static final int ALL_DAYS = 0x7F;
+
+    private static final String DAY_CHARS = "一二三四五六日";
+
+    private final long weekMask;
+    private final long sectionMask;
+    private final int dayMask;
+
+    /**
+     * 编译时使用的原始字符串，用于判断缓存是否过期
+     */
+    private final String classTime;
+    private final String weeks;
+    private final String sections;
+
+    private CourseTimeSlot(String classTime, String weeks, String sections) {
+        this.classTime = classTime;
+        this.weeks = weeks;
+        this.sections = sections;
+        this.weekMask = parseRanges(weeks);
+        this.sectionMask = parseRanges(sections);
+        this.dayMask = parseDays(classTime);
+    }
+
+    /**
+     * 根据上课时间、周次和节次字符串编译位图
+     *
+     * @param classTime 上课时间，例如："周一 1-2节"
+     * @param weeks 上课周次，例如："1-8,10-16"
+     * @param sections 上课节次，例如："1-2"
+     */
+    public static CourseTimeSlot compile(String classTime, String weeks, String sections) {
+        return new CourseTimeSlot(classTime, weeks, sections);
+    }
+
+    /**
+     * 判断是否与另一门课程时间冲突
+     */
+    public boolean conflictsWith(CourseTimeSlot other) {
+        return (weekMask & other.weekMask) != 0
+                && (dayMask & other.dayMask) != 0
+                && (sectionMask & other.sectionMask) != 0;
+    }
+
+    /**
+     * 判断该位图是否由相同的原始字符串编译而来
+     */
+    public boolean isCompiledFrom(String classTime, String weeks, String sections) {
+        return Objects.equals(this.classTime, classTime)
+                && Objects.equals(this.weeks, weeks)
+                && Objects.equals(this.sections, sections);
+    }
+
+    public long getWeekMask() {
+        return weekMask;
+    }
+
+    public long getSectionMask() {
+        return sectionMask;
+    }
+
+    public int getDayMask() {
+        return dayMask;
+    }
+
+    /**
+     * 解析范围字符串，例如："1-8,10-16"、"5"
+     */
+    private static long parseRanges(String ranges) {
+        if (ranges == null || ranges.isBlank()) {
+            return ALL;
+        }
+        long mask = 0L;
+        try {
+            for (String range : ranges.split(",")) {
+                String trimmed = range.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                int dash = trimmed.indexOf('-');
+                int start = Integer.parseInt((dash < 0 ? trimmed : trimmed.substring(0, dash)).trim());
+                int end = dash < 0 ? start : Integer.parseInt(trimmed.substring(dash + 1).trim());
+                mask |= rangeMask(start, end);
+            }
+        } catch (NumberFormatException e) {
+            return ALL;
+        }
+        return mask == 0L ? ALL : mask;
+    }
+
+    private static long rangeMask(int start, int end) {
+        int from = Math.max(Math.min(start, end), 1);
+        int to = Math.min(Math.max(start, end), Long.SIZE);
+        if (from > to) {
+            return 0L;
+        }
+        int length = to - from + 1;
+        long bits = length == Long.SIZE ? ALL : (1L << length) - 1;
+        return bits << (from - 1);
+    }
+
+    /**
+     * 从上课时间中解析星期，例如："周一 1-2节"、"星期三 3-4节"
+     */
+    private static int parseDays(String classTime) {
+        if (classTime == null) {
+            return ALL_DAYS;
+        }
+        int mask = 0;
+        for (int i = 0; i < classTime.length() - 1; i++) {
+            char c = classTime.charAt(i);
+            if (c == '周' || c == '期') {
+                char next = classTime.charAt(i + 1);
+                int day = next == '天' ? 6 : DAY_CHARS.indexOf(next);
+                if (day >= 0) {
+                    mask |= 1 << day;
+                }
+            }
+        }
+        return mask == 0 ? ALL_DAYS : mask;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.campussysteam.module.redis.controller;
+
+import com.example.campussysteam.common.ApiResult;
+import com.example.campussysteam.common.cache.CacheMetrics;
+import com.example.campussysteam.common.cache.TwoLevelCacheManager;
+import com.example.campussysteam.module.redis.dto.BloomFilterStatsDTO;
+import com.example.campussysteam.module.redis.dto.InvalidationJobDTO;
+import com.example.campussysteam.module.redis.service.CacheInvalidationService;
+import com.example.campussysteam.module.redis.service.DistributedLockService;
+import com.example.campussysteam.module.redis.service.IdBloomFilterService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis缓存运维控制器
+ * 批量删除、重建布隆过滤器等会影响整个缓存的操作，以及缓存、锁的运行指标，只允许管理员调用
+ */
+@RestController
+@RequestMapping("/api/admin/redis")
+@RequiredArgsConstructor
+public class RedisAdminController {
+
+    private final CacheInvalidationService cacheInvalidationService;
+    private final IdBloomFilterService idBloomFilterService;
+    private final DistributedLockService distributedLockService;
+    private final CacheMetrics cacheMetrics;
+    private final TwoLevelCacheManager twoLevelCacheManager;
+
+    /**
+     * 提交后台批量删除任务，使用SCAN分批扫描并UNLINK删除匹配的键
+     * @param pattern 键名匹配模式
+     * @return 任务进度
+     */
+    @PostMapping("/invalidate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<InvalidationJobDTO> invalidate(@RequestParam String pattern) {
+        try {
+            return ApiResult.success(cacheInvalidationService.submit(pattern));
+        } catch (Exception e) {
+            return ApiResult.error("提交批量删除任务失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 查询批量删除任务进度
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    @GetMapping("/invalidate/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<InvalidationJobDTO> getInvalidationJob(@PathVariable String jobId) {
+        InvalidationJobDTO job = cacheInvalidationService.getJob(jobId);
+        if (job == null) {
+            return ApiResult.error("任务不存在");
+        }
+        return ApiResult.success(job);
+    }
+
+    /**
+     * 查询最近的批量删除任务
+     * @return 任务进度列表
+     */
+    @GetMapping("/invalidate/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<List<InvalidationJobDTO>> getInvalidationJobs() {
+        return ApiResult.success(cacheInvalidationService.getRecentJobs());
+    }
+
+    /**
+     * 失效整个命名空间的缓存
+     * @param namespace 命名空间，如 user
+     * @return 新的版本号
+     */
+    @PostMapping("/namespaces/{namespace}/invalidate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<Long> invalidateNamespace(@PathVariable String namespace) {
+        try {
+            return ApiResult.success(cacheInvalidationService.invalidateNamespace(namespace));
+        } catch (Exception e) {
+            return ApiResult.error("失效命名空间缓存失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 从数据库主键重建ID布隆过滤器，其他节点正在重建时返回错误
+     * @param type 实体类型，如 user、course
+     * @return 重建后的状态
+     */
+    @PostMapping("/bloom/{type}/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<BloomFilterStatsDTO> rebuildBloomFilter(@PathVariable String type) {
+        try {
+            return ApiResult.success(idBloomFilterService.rebuild(type));
+        } catch (Exception e) {
+            return ApiResult.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 获取分布式锁统计
+     * @return 按锁名分类的获取、竞争、续期、租约丢失次数及等待和持有耗时
+     */
+    @GetMapping("/locks/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<Map<String, Map<String, Object>>> getLockStatistics() {
+        return ApiResult.success(distributedLockService.getStatistics());
+    }
+
+    /**
+     * 获取缓存访问指标，用于根据实际命中率和加载耗时调整过期时间
+     * @return caches为各缓存名称和键前缀的命中、未命中、加载和等待锁统计及耗时分布，local为本地一级缓存统计
+     */
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<Map<String, Object>> getCacheMetrics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("caches", cacheMetrics.getStatistics());
+        result.put("local", twoLevelCacheManager.getStatistics());
+        return ApiResult.success(result);
+    }
+
+    /**
+     * 清零缓存访问指标
+     */
+    @DeleteMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ApiResult<Void> resetCacheMetrics() {
+        cacheMetrics.reset();
+        return ApiResult.success();
+    }
+}
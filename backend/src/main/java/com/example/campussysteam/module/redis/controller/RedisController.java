@@ -1,13 +1,19 @@
 package com.example.campussysteam.module.redis.controller;
 
 import com.example.campussysteam.common.ApiResult;
+import com.example.campussysteam.module.redis.dto.BloomFilterStatsDTO;
+import com.example.campussysteam.module.redis.dto.RedisKeyPageDTO;
+import com.example.campussysteam.module.redis.service.IdBloomFilterService;
 import com.example.campussysteam.module.redis.service.RedisService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -27,21 +33,67 @@ public class RedisController {
     private static final Logger logger = LoggerFactory.getLogger(RedisController.class);
 
     private final RedisService redisService;
+    private final IdBloomFilterService idBloomFilterService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * 获取所有缓存键
-     * @return 带有键名、类型和过期时间的键信息列表
+     * 分页浏览缓存键，基于SCAN实现，不会像KEYS一样阻塞Redis
+     * @param cursor 上一页返回的游标，首页为0
+     * @param pattern 键名匹配模式
+     * @param count 每页数量，最大1000
+     * @param type 键类型，如string、hash、zset，为空时不限制
+     * @return 带有键名、类型和过期时间的键信息列表及下一页游标
      */
     @GetMapping("/keys")
-    public ApiResult<List<Map<String, Object>>> getAllKeys() {
+    public ApiResult<RedisKeyPageDTO> getKeys(
+            @RequestParam(defaultValue = "0") String cursor,
+            @RequestParam(defaultValue = "*") String pattern,
+            @RequestParam(defaultValue = "100") int count,
+            @RequestParam(required = false) String type) {
         try {
-            List<Map<String, Object>> keys = redisService.getAllKeys();
-            return ApiResult.success(keys);
+            return ApiResult.success(redisService.scanKeys(pattern, cursor, count, type));
         } catch (Exception e) {
             return ApiResult.error("获取缓存键失败: " + e.getMessage());
         }
     }
 
+    /**
+     * 以NDJSON流式导出匹配的缓存键，逐页扫描并写出，每行一个键
+     * @param pattern 键名匹配模式
+     * @param type 键类型，为空时不限制
+     * @param limit 最多导出的键数量
+     */
+    @GetMapping(value = "/keys/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamKeys(
+            @RequestParam(defaultValue = "*") String pattern,
+            @RequestParam(required = false) String type,
+            @RequestParam(defaultValue = "100000") int limit) {
+        StreamingResponseBody body = outputStream -> {
+            String cursor = "0";
+            int written = 0;
+            do {
+                RedisKeyPageDTO page = redisService.scanKeys(pattern, cursor, 500, type);
+                for (Map<String, Object> keyInfo : page.getKeys()) {
+                    if (written >= limit) {
+                        break;
+                    }
+                    outputStream.write(objectMapper.writeValueAsBytes(keyInfo));
+                    outputStream.write('\n');
+                    written++;
+                }
+                outputStream.flush();
+                cursor = page.getCursor();
+                if (page.isFinished()) {
+                    break;
+                }
+            } while (written < limit);
+            logger.info("导出缓存键完成: pattern={}, type={}, keys={}", pattern, type, written);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     /**
      * 获取指定键的值
      * @param key 键名
@@ -137,6 +189,33 @@ public class RedisController {
         }
     }
 
+    /**
+     * 获取批量操作统计
+     * @return 批次数、命令数、平均和最大批次大小
+     */
+    @GetMapping("/batch/stats")
+    public ApiResult<Map<String, Object>> getBatchStatistics() {
+        return ApiResult.success(redisService.getBatchStatistics());
+    }
+
+    /**
+     * 获取提前刷新统计
+     * @return 新鲜命中、过期命中、同步加载和后台刷新次数
+     */
+    @GetMapping("/refresh/stats")
+    public ApiResult<Map<String, Object>> getRefreshStatistics() {
+        return ApiResult.success(redisService.getRefreshStatistics());
+    }
+
+    /**
+     * 获取ID布隆过滤器状态
+     * @return 各实体类型的位数、误判率、拒绝次数和重建耗时
+     */
+    @GetMapping("/bloom/stats")
+    public ApiResult<List<BloomFilterStatsDTO>> getBloomFilterStatistics() {
+        return ApiResult.success(idBloomFilterService.getStatistics());
+    }
+
     /**
      * 清空所有缓存
      * @return 清空结果
@@ -0,0 +1,90 @@
+package com.example.campussysteam.module.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * ID布隆过滤器状态
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BloomFilterStatsDTO {
+
+    /**
+     * 实体类型，如 user、course
+     */
+    private String type;
+
+    /**
+     * 是否已完成首次构建，未构建时所有ID都放行
+     */
+    private boolean ready;
+
+    private long bitSize;
+
+    private int hashCount;
+
+    /**
+     * 位数组占用的字节数
+     */
+    private long memoryBytes;
+
+    /**
+     * 构建时按当前ID数量和增长系数预留的容量
+     */
+    private long expectedInsertions;
+
+    /**
+     * 构建后已加入的ID数量（含构建时的ID）
+     */
+    private long insertions;
+
+    /**
+     * 构建后删除的ID数量，这些ID的位仍保留，直到下次重建
+     */
+    private long deletionsSinceRebuild;
+
+    /**
+     * 配置的误判率
+     */
+    private double configuredFalsePositiveRate;
+
+    /**
+     * 按当前元素数量估算的误判率
+     */
+    private double estimatedFalsePositiveRate;
+
+    /**
+     * 判定为不存在而直接拒绝的查询次数
+     */
+    private long rejected;
+
+    /**
+     * 放行的查询次数
+     */
+    private long passed;
+
+    /**
+     * 本地判定不存在后向Redis确认的次数
+     */
+    private long redisChecks;
+
+    private long rebuildCount;
+
+    private LocalDateTime lastRebuildAt;
+
+    private long lastRebuildMillis;
+
+    /**
+     * 最近一次重建时从数据库读取的ID数量
+     */
+    private long lastRebuildIds;
+
+    private String lastError;
+}
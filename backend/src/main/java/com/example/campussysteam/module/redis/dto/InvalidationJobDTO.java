@@ -0,0 +1,47 @@
+package com.example.campussysteam.module.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 批量失效任务进度
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationJobDTO {
+
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String jobId;
+
+    private String pattern;
+
+    /**
+     * 任务状态：RUNNING、COMPLETED、FAILED
+     */
+    private String status;
+
+    /**
+     * 已扫描到的键数量
+     */
+    private long scanned;
+
+    /**
+     * 已删除的键数量
+     */
+    private long deleted;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+
+    private String error;
+}
@@ -0,0 +1,36 @@
+package com.example.campussysteam.module.redis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Redis键分页结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedisKeyPageDTO {
+
+    /**
+     * 本页键信息，包含key、type、ttl
+     */
+    @Builder.Default
+    private List<Map<String, Object>> keys = new ArrayList<>();
+
+    /**
+     * 下一页的SCAN游标，遍历结束时为"0"
+     */
+    private String cursor;
+
+    /**
+     * 是否已遍历完全部键
+     */
+    private boolean finished;
+}
@@ -0,0 +1,43 @@
+package com.example.campussysteam.module.redis.service;
+
+import com.example.campussysteam.module.redis.dto.InvalidationJobDTO;
+
+import java.util.List;
+
+/**
+ * 缓存批量失效服务接口
+ * 按模式失效时在后台用SCAN分批扫描并用UNLINK删除，不会阻塞Redis；
+ * 按命名空间失效时只递增命名空间的版本号，旧版本的key不再被读取，随过期时间自然淘汰
+ */
+public interface CacheInvalidationService {
+
+    /**
+     * 提交后台删除任务，删除所有匹配模式的键
+     *
+     * @param pattern 键名匹配模式，如 user:*
+     * @return 任务进度
+     */
+    InvalidationJobDTO submit(String pattern);
+
+    /**
+     * 获取任务进度，任务不存在时返回null
+     */
+    InvalidationJobDTO getJob(String jobId);
+
+    /**
+     * 获取最近的任务，按提交时间倒序
+     */
+    List<InvalidationJobDTO> getRecentJobs();
+
+    /**
+     * 获取命名空间当前版本下的缓存键，格式为 命名空间:v版本号:key
+     */
+    String namespacedKey(String namespace, Object key);
+
+    /**
+     * 失效整个命名空间：递增版本号，并在后台清理旧版本的键
+     *
+     * @return 新的版本号
+     */
+    long invalidateNamespace(String namespace);
+}
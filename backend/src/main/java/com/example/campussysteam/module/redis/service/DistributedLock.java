@@ -0,0 +1,34 @@
+package com.example.campussysteam.module.redis.service;
+
+/**
+ * 分布式锁
+ * 由DistributedLockService获取，可用于try-with-resources，close时只释放自己持有的锁。
+ * 未获取成功时isAcquired()为false，close不做任何操作。
+ * 持有期间由看门狗定期续期；续期失败（锁已过期或被他人持有）后isHeld()变为false，此时不应再写入受保护的资源
+ */
+public interface DistributedLock extends AutoCloseable {
+
+    String getKey();
+
+    /**
+     * 是否获取成功
+     */
+    boolean isAcquired();
+
+    /**
+     * 是否仍持有锁：已获取、未释放且续期未失败
+     */
+    boolean isHeld();
+
+    /**
+     * 防护令牌，同一个锁每次通过tryFencedLock获取时单调递增，未获取成功或未分配令牌时为0。
+     * 受保护的资源应记录已接受的最大令牌，拒绝携带更小令牌的写入，防止租约过期后的旧持有者覆盖新数据
+     */
+    long getFencingToken();
+
+    /**
+     * 释放锁，只有锁的持有者仍是自己时才删除
+     */
+    @Override
+    void close();
+}
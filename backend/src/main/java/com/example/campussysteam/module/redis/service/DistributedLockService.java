@@ -0,0 +1,54 @@
+package com.example.campussysteam.module.redis.service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * 分布式锁服务接口
+ * 锁的值为每次获取时生成的唯一持有者标识，释放和续期都先比较持有者。
+ * 需要防护令牌的调用方使用tryFencedLock，获取时同时递增该锁的令牌计数器
+ */
+public interface DistributedLockService {
+
+    /**
+     * 尝试获取锁，不等待
+     *
+     * @param key 锁键
+     * @param lease 租约时长，持有期间看门狗每隔租约的三分之一续期一次
+     * @return 锁，未获取成功时isAcquired()为false
+     */
+    DistributedLock tryLock(String key, Duration lease);
+
+    /**
+     * 尝试获取锁，在等待时间内重试
+     *
+     * @param key 锁键
+     * @param lease 租约时长
+     * @param wait 最长等待时间
+     * @return 锁，超时未获取时isAcquired()为false
+     */
+    DistributedLock tryLock(String key, Duration lease, Duration wait);
+
+    /**
+     * 尝试获取锁并分配防护令牌，在等待时间内重试。
+     * 令牌计数器 锁键:fence 永久保存以保证单调递增，只应用于数量有限的锁键
+     *
+     * @param key 锁键
+     * @param lease 租约时长
+     * @param wait 最长等待时间
+     * @return 锁，超时未获取时isAcquired()为false
+     */
+    DistributedLock tryFencedLock(String key, Duration lease, Duration wait);
+
+    /**
+     * 只有锁的值仍为owner时才删除
+     *
+     * @return 是否删除成功
+     */
+    boolean release(String key, String owner);
+
+    /**
+     * 获取按锁键分类的获取、竞争、续期统计及持有和等待耗时
+     */
+    Map<String, Map<String, Object>> getStatistics();
+}
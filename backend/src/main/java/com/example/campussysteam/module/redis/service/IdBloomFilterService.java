@@ -0,0 +1,41 @@
+package com.example.campussysteam.module.redis.service;
+
+import com.example.campussysteam.module.redis.dto.BloomFilterStatsDTO;
+
+import java.util.List;
+
+/**
+ * ID布隆过滤器服务接口
+ * 每种实体一个过滤器，位图保存在Redis中，各节点另有本地副本。
+ * 查询前先判断ID是否可能存在，一定不存在的ID直接拒绝，不再访问缓存锁和数据库，防止遍历ID造成缓存穿透
+ */
+public interface IdBloomFilterService {
+
+    String USER = "user";
+    String COURSE = "course";
+
+    /**
+     * 判断ID是否可能存在，返回false时一定不存在。过滤器尚未构建或Redis不可用时返回true
+     */
+    boolean mightContain(String type, Long id);
+
+    /**
+     * 新增实体后调用，将ID加入过滤器
+     */
+    void add(String type, Long id);
+
+    /**
+     * 删除实体后调用，布隆过滤器无法删除元素，只记录删除数量，累计较多时重建
+     */
+    void remove(String type, Long id);
+
+    /**
+     * 从数据库主键重建过滤器
+     */
+    BloomFilterStatsDTO rebuild(String type);
+
+    /**
+     * 获取各过滤器的状态
+     */
+    List<BloomFilterStatsDTO> getStatistics();
+}
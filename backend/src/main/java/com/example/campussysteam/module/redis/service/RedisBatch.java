@@ -0,0 +1,104 @@
+package com.example.campussysteam.module.redis.service;
+
+import org.springframework.data.redis.core.RedisOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Redis批量命令
+ * 登记的命令由RedisService.pipeline通过管道一次发送；
+ * 登记命令时返回的Response在管道执行完成后才能读取结果
+ */
+public class RedisBatch {
+
+    private final List<Function<RedisOperations<String, Object>, ?>> commands = new ArrayList<>();
+    private final List<Response<?>> responses = new ArrayList<>();
+
+    public <T> Response<T> get(String key) {
+        return add(operations -> operations.opsForValue().get(key));
+    }
+
+    /**
+     * 设置值，ttl不大于0时永不过期
+     */
+    public Response<Boolean> set(String key, Object value, long ttl) {
+        return add(operations -> {
+            if (ttl > 0) {
+                operations.opsForValue().set(key, value, ttl, TimeUnit.SECONDS);
+            } else {
+                operations.opsForValue().set(key, value);
+            }
+            return null;
+        });
+    }
+
+    public Response<Long> delete(String key) {
+        return add(operations -> operations.delete(key));
+    }
+
+    public Response<Boolean> exists(String key) {
+        return add(operations -> operations.hasKey(key));
+    }
+
+    public Response<Long> increment(String key, long delta) {
+        return add(operations -> operations.opsForValue().increment(key, delta));
+    }
+
+    public Response<Boolean> expire(String key, long timeout, TimeUnit unit) {
+        return add(operations -> operations.expire(key, timeout, unit));
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * 在管道中依次执行已登记的命令，由RedisService调用
+     */
+    public void execute(RedisOperations<String, Object> operations) {
+        for (Function<RedisOperations<String, Object>, ?> command : commands) {
+            command.apply(operations);
+        }
+    }
+
+    /**
+     * 按登记顺序填充管道返回的结果，由RedisService调用
+     */
+    public void complete(List<Object> results) {
+        for (int i = 0; i < responses.size(); i++) {
+            responses.get(i).complete(i < results.size() ? results.get(i) : null);
+        }
+    }
+
+    private <T> Response<T> add(Function<RedisOperations<String, Object>, ?> command) {
+        Response<T> response = new Response<>();
+        commands.add(command);
+        responses.add(response);
+        return response;
+    }
+
+    /**
+     * 管道中单条命令的结果
+     */
+    public static class Response<T> {
+
+        private Object value;
+        private boolean completed;
+
+        @SuppressWarnings("unchecked")
+        public T get() {
+            if (!completed) {
+                throw new IllegalStateException("管道尚未执行，无法读取结果");
+            }
+            return (T) value;
+        }
+
+        private void complete(Object value) {
+            this.value = value;
+            this.completed = true;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.campussysteam.module.redis.service;
 
+import com.example.campussysteam.model.CacheResult;
+import com.example.campussysteam.module.redis.dto.RedisKeyPageDTO;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 
 /**
@@ -15,10 +19,14 @@ import java.util.function.Supplier;
 public interface RedisService {
     
     /**
-     * 获取所有缓存键
-     * @return 带有键名、类型和过期时间的键信息列表
+     * 使用SCAN分页获取缓存键，每页的类型和过期时间通过管道一次查询
+     * @param pattern 键名匹配模式
+     * @param cursor 上一页返回的游标，首页为"0"
+     * @param count 每页期望的键数量
+     * @param type 键类型，为空时不限制
+     * @return 带有键名、类型和过期时间的键信息及下一页游标
      */
-    List<Map<String, Object>> getAllKeys();
+    RedisKeyPageDTO scanKeys(String pattern, String cursor, int count, String type);
     
     /**
      * 获取指定键的值
@@ -56,7 +64,8 @@ public interface RedisService {
     
     /**
      * 防止缓存击穿的获取值方法
-     * 使用分布式锁和双重检查机制避免缓存击穿问题
+     * 本节点内同一个key的并发请求共享一次加载，跨节点通过分布式锁只由一个节点加载，
+     * 其他节点等待加载完成通知后读取缓存，等待有超时限制
      * 
      * @param key 缓存键
      * @param lockKey 分布式锁键
@@ -67,6 +76,31 @@ public interface RedisService {
      */
     <T> T getWithCachePenetrationProtection(String key, String lockKey, Supplier<T> dbFallback, long ttl);
     
+    /**
+     * 带提前刷新的获取方法（stale-while-revalidate）
+     * 缓存值带有软过期时间和逻辑版本号，Redis中的实际过期时间更长。临近软过期时按XFetch算法以一定概率提前刷新，
+     * 超过软过期后必定刷新；刷新在后台执行，同一个key同时只有一个节点刷新，刷新完成前继续返回旧值。
+     * 只有缓存中完全没有值时才在请求线程中加载，加载方式与getWithCachePenetrationProtection相同
+     *
+     * @param key 缓存键
+     * @param lockKey 分布式锁键
+     * @param loader 从数据源加载数据的回调函数，可能在后台线程中执行
+     * @param ttl 软过期时间（秒）
+     * @param <T> 返回值类型
+     * @return 缓存值或数据源查询结果
+     */
+    <T> T getWithEarlyRefresh(String key, String lockKey, Supplier<T> loader, long ttl);
+
+    /**
+     * 与getWithEarlyRefresh相同，同时返回本次读取的缓存状态（HIT、STALE、MISS）、耗时和软过期时间
+     */
+    <T> CacheResult<T> lookupWithEarlyRefresh(String key, String lockKey, Supplier<T> loader, long ttl);
+
+    /**
+     * 获取提前刷新统计：新鲜命中、过期命中、同步加载和后台刷新次数
+     */
+    Map<String, Object> getRefreshStatistics();
+    
     /**
      * 执行缓存击穿测试
      * @param key 测试的键
@@ -111,14 +145,17 @@ public interface RedisService {
     long decrement(String key, long delta);
     
     /**
-     * 获取分布式锁
+     * 获取分布式锁，value应为调用方生成的唯一标识。
+     * 需要看门狗续期或防护令牌时使用DistributedLockService
      */
     boolean tryLock(String key, String value, long timeout, TimeUnit unit);
     
     /**
-     * 释放分布式锁
+     * 释放分布式锁，只有锁的值仍为value时才删除
+     *
+     * @return 是否删除成功
      */
-    void unlock(String key);
+    boolean unlock(String key, String value);
 
     /**
      * 设置缓存
@@ -129,4 +166,41 @@ public interface RedisService {
      * 判断key是否存在
      */
     boolean exists(String key);
-} 
\ No newline at end of file
+
+    /**
+     * 批量获取，一次MGET；返回存在的键值，顺序与传入的键一致
+     */
+    <T> Map<String, T> multiGet(Collection<String> keys);
+
+    /**
+     * 批量设置，所有键使用相同的过期时间（秒），ttl不大于0时永不过期；通过管道一次发送
+     */
+    void multiSet(Map<String, ?> values, long ttl);
+
+    /**
+     * 批量设置，每个键使用各自的过期时间（秒），未指定或不大于0时永不过期；通过管道一次发送
+     */
+    void multiSet(Map<String, ?> values, Map<String, Long> ttls);
+
+    /**
+     * 批量删除，一次DEL
+     *
+     * @return 实际删除的键数量
+     */
+    long multiDelete(Collection<String> keys);
+
+    /**
+     * 在管道中执行任意组合的命令，返回的Response在本方法返回后可读取
+     */
+    void pipeline(Consumer<RedisBatch> commands);
+
+    /**
+     * 在管道中执行调用方已登记好命令的批次
+     */
+    void pipeline(RedisBatch batch);
+
+    /**
+     * 获取批量操作统计
+     */
+    Map<String, Object> getBatchStatistics();
+}
@@ -0,0 +1,263 @@
+package com.example.campussysteam.module.redis.service.impl;
+
+import com.example.campussysteam.module.redis.dto.InvalidationJobDTO;
+import com.example.campussysteam.module.redis.service.CacheInvalidationService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存批量失效服务实现类
+ * 删除任务在单独的后台线程中执行，每批SCAN COUNT个键后UNLINK，由Redis在后台线程释放内存，批次之间短暂停顿；
+ * 命名空间版本号保存在 cache:generation:{namespace}，各节点本地缓存版本号，
+ * 递增时通过频道 cache:generation 通知其他节点，本地缓存另有较短的过期时间兜底
+ */
+@Service
+public class CacheInvalidationServiceImpl implements CacheInvalidationService, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationServiceImpl.class);
+
+    private static final String GENERATION_KEY_PREFIX = "cache:generation:";
+    private static final String GENERATION_CHANNEL = "cache:generation";
+    private static final int MAX_RECENT_JOBS = 50;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-invalidation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Deque<String> recentJobIds = new ConcurrentLinkedDeque<>();
+
+    /**
+     * 本地缓存的命名空间版本号
+     */
+    private final Map<String, Generation> generations = new ConcurrentHashMap<>();
+
+    @Value("${cache.invalidation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cache.invalidation.batch-pause-ms:5}")
+    private long batchPauseMs;
+
+    @Value("${cache.generation.local-ttl-ms:5000}")
+    private long generationLocalTtlMs;
+
+    public CacheInvalidationServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                        RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(GENERATION_CHANNEL));
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public InvalidationJobDTO submit(String pattern) {
+        if (!StringUtils.hasText(pattern)) {
+            throw new RuntimeException("键名匹配模式不能为空");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), pattern);
+        jobs.put(job.id, job);
+        recentJobIds.addFirst(job.id);
+        while (recentJobIds.size() > MAX_RECENT_JOBS) {
+            String expired = recentJobIds.pollLast();
+            if (expired != null) {
+                jobs.remove(expired);
+            }
+        }
+        executor.execute(() -> run(job));
+        logger.info("提交缓存批量失效任务: jobId={}, pattern={}", job.id, pattern);
+        return job.toDTO();
+    }
+
+    @Override
+    public InvalidationJobDTO getJob(String jobId) {
+        Job job = jobs.get(jobId);
+        return job == null ? null : job.toDTO();
+    }
+
+    @Override
+    public List<InvalidationJobDTO> getRecentJobs() {
+        List<InvalidationJobDTO> result = new ArrayList<>();
+        for (String jobId : recentJobIds) {
+            Job job = jobs.get(jobId);
+            if (job != null) {
+                result.add(job.toDTO());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String namespacedKey(String namespace, Object key) {
+        return namespace + ":v" + currentGeneration(namespace) + ":" + key;
+    }
+
+    @Override
+    public long invalidateNamespace(String namespace) {
+        Long next = stringRedisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + namespace);
+        long generation = next == null ? 0 : next;
+        generations.put(namespace, new Generation(generation));
+        try {
+            stringRedisTemplate.convertAndSend(GENERATION_CHANNEL, namespace + "\n" + generation);
+        } catch (Exception e) {
+            // 其他节点在本地版本号过期后重新读取
+            logger.warn("发送命名空间版本变更通知失败: namespace={}, error={}", namespace, e.getMessage());
+        }
+        logger.info("命名空间缓存已失效: namespace={}, generation={}", namespace, generation);
+
+        // 旧版本的键已不会被读取，后台清理以尽早释放内存
+        if (generation > 0) {
+            submit(namespace + ":v" + (generation - 1) + ":*");
+        }
+        return generation;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 2);
+        if (parts.length < 2) {
+            return;
+        }
+        try {
+            long generation = Long.parseLong(parts[1]);
+            generations.compute(parts[0], (namespace, current) ->
+                    current != null && current.value > generation ? current : new Generation(generation));
+        } catch (NumberFormatException e) {
+            logger.warn("命名空间版本变更通知格式错误: {}", parts[1]);
+        }
+    }
+
+    private long currentGeneration(String namespace) {
+        Generation cached = generations.get(namespace);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < generationLocalTtlMs) {
+            return cached.value;
+        }
+        String value = stringRedisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + namespace);
+        long generation = value == null ? 0 : Long.parseLong(value);
+        generations.put(namespace, new Generation(generation));
+        return generation;
+    }
+
+    private void run(Job job) {
+        try {
+            stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+                ScanOptions options = ScanOptions.scanOptions().match(job.pattern).count(batchSize).build();
+                List<byte[]> batch = new ArrayList<>(batchSize);
+                try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                    while (cursor.hasNext()) {
+                        batch.add(cursor.next());
+                        job.scanned.incrementAndGet();
+                        if (batch.size() >= batchSize) {
+                            unlink(connection.keyCommands(), batch, job);
+                            pause();
+                        }
+                    }
+                }
+                unlink(connection.keyCommands(), batch, job);
+                return null;
+            });
+            job.status = InvalidationJobDTO.STATUS_COMPLETED;
+            logger.info("缓存批量失效任务完成: jobId={}, pattern={}, scanned={}, deleted={}",
+                    job.id, job.pattern, job.scanned.get(), job.deleted.get());
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = InvalidationJobDTO.STATUS_FAILED;
+            logger.error("缓存批量失效任务失败: jobId={}, pattern={}", job.id, job.pattern, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void unlink(RedisKeyCommands commands, List<byte[]> batch, Job job) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Long removed = commands.unlink(batch.toArray(new byte[0][]));
+        job.deleted.addAndGet(removed == null ? 0 : removed);
+        batch.clear();
+    }
+
+    private void pause() {
+        if (batchPauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("缓存批量失效任务被中断", e);
+        }
+    }
+
+    private static class Generation {
+
+        private final long value;
+        private final long loadedAt = System.currentTimeMillis();
+
+        Generation(long value) {
+            this.value = value;
+        }
+    }
+
+    private static class Job {
+
+        private final String id;
+        private final String pattern;
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong deleted = new AtomicLong();
+        private volatile String status = InvalidationJobDTO.STATUS_RUNNING;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+
+        Job(String id, String pattern) {
+            this.id = id;
+            this.pattern = pattern;
+        }
+
+        InvalidationJobDTO toDTO() {
+            return InvalidationJobDTO.builder()
+                    .jobId(id)
+                    .pattern(pattern)
+                    .status(status)
+                    .scanned(scanned.get())
+                    .deleted(deleted.get())
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .error(error)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.campussysteam.module.redis.service.impl;
+
+import com.example.campussysteam.module.redis.service.DistributedLock;
+import com.example.campussysteam.module.redis.service.DistributedLockService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分布式锁服务实现类
+ * 锁键的值为UUID持有者标识，续期、释放各用一个脚本完成比较和修改，不会误删或续期他人的锁。
+ * 防护令牌只为tryFencedLock获取的锁分配，保存在 锁键:fence 中，获取成功时在同一个脚本内递增，
+ * 不设过期时间以保证单调递增；按实体ID加锁的普通锁不分配令牌，不会为每个实体留下永久的计数器。
+ * 看门狗为每个持有中的锁按租约的三分之一定期续期，持有超过最长时间后停止续期，避免卡住的线程一直占用锁
+ */
+@Service
+public class DistributedLockServiceImpl implements DistributedLockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DistributedLockServiceImpl.class);
+
+    private static final String FENCE_KEY_SUFFIX = ":fence";
+    private static final String REFRESH_KEY_SUFFIX = ":refresh";
+
+    /**
+     * 统计分类超过上限后，新出现的锁名都计入这一类
+     */
+    private static final String OTHER_STATS_NAME = "other";
+    private static final long MIN_LEASE_MS = 300;
+    private static final long MIN_RETRY_MS = 10;
+    private static final long MAX_RETRY_MS = 200;
+
+    /**
+     * 锁不存在时写入持有者并递增防护令牌，返回令牌；已被持有时返回0
+     */
+    private static final DefaultRedisScript<Long> FENCED_ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('SET', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+            "  return redis.call('INCR', KEYS[2]) " +
+            "end " +
+            "return 0", Long.class);
+
+    /**
+     * 持有者仍为自己时才删除
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('DEL', KEYS[1]) " +
+            "end " +
+            "return 0", Long.class);
+
+    /**
+     * 持有者仍为自己时才延长过期时间
+     */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then " +
+            "  return redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "end " +
+            "return 0", Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ScheduledExecutorService watchdog;
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * 看门狗续期的最长持有时间，超过后不再续期，锁在当前租约到期后自动释放
+     */
+    @Value("${redis.lock.max-hold-ms:300000}")
+    private long maxHoldMs;
+
+    /**
+     * 统计分类的最大数量，防止锁键不规范时统计表无限增长
+     */
+    @Value("${redis.lock.max-stats-names:100}")
+    private int maxStatsNames;
+
+    public DistributedLockServiceImpl(StringRedisTemplate stringRedisTemplate,
+                                      @Value("${redis.lock.watchdog-threads:1}") int watchdogThreads) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        AtomicLong threadIndex = new AtomicLong();
+        this.watchdog = Executors.newScheduledThreadPool(Math.max(1, watchdogThreads), runnable -> {
+            Thread thread = new Thread(runnable, "lock-watchdog-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        watchdog.shutdownNow();
+    }
+
+    @Override
+    public DistributedLock tryLock(String key, Duration lease) {
+        return tryLock(key, lease, Duration.ZERO);
+    }
+
+    @Override
+    public DistributedLock tryLock(String key, Duration lease, Duration wait) {
+        return tryLock(key, lease, wait, false);
+    }
+
+    @Override
+    public DistributedLock tryFencedLock(String key, Duration lease, Duration wait) {
+        return tryLock(key, lease, wait, true);
+    }
+
+    private DistributedLock tryLock(String key, Duration lease, Duration wait, boolean fenced) {
+        long leaseMs = Math.max(MIN_LEASE_MS, lease.toMillis());
+        long waitStart = System.nanoTime();
+        long deadline = waitStart + wait.toNanos();
+        String owner = UUID.randomUUID().toString();
+        Stats item = stats(key);
+        long backoff = MIN_RETRY_MS;
+        boolean contended = false;
+        while (true) {
+            long token = fenced ? acquireFenced(key, owner, leaseMs) : acquire(key, owner, leaseMs);
+            if (token > 0) {
+                long waited = System.nanoTime() - waitStart;
+                item.acquired.increment();
+                item.waitTime.record(waited);
+                RedisLock lock = new RedisLock(key, owner, true, fenced ? token : 0, leaseMs);
+                logger.debug("获取分布式锁成功: key={}, fencingToken={}, waitMs={}", key, lock.getFencingToken(),
+                        waited / 1_000_000);
+                lock.renewal = watchdog.scheduleAtFixedRate(lock::renew, leaseMs / 3, leaseMs / 3, TimeUnit.MILLISECONDS);
+                return lock;
+            }
+            if (!contended) {
+                contended = true;
+                item.contended.increment();
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                if (!wait.isZero()) {
+                    item.timeouts.increment();
+                    item.waitTime.record(System.nanoTime() - waitStart);
+                }
+                logger.debug("获取分布式锁失败，锁已被持有: key={}", key);
+                return new RedisLock(key, owner, false, 0, leaseMs);
+            }
+            // 随机退避，避免多个等待者同时重试
+            long sleepMs = Math.min(TimeUnit.NANOSECONDS.toMillis(remaining) + 1,
+                    ThreadLocalRandom.current().nextLong(MIN_RETRY_MS, backoff + 1));
+            try {
+                Thread.sleep(sleepMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                item.timeouts.increment();
+                return new RedisLock(key, owner, false, 0, leaseMs);
+            }
+            backoff = Math.min(backoff * 2, MAX_RETRY_MS);
+        }
+    }
+
+    @Override
+    public boolean release(String key, String owner) {
+        Long result = stringRedisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(key), owner);
+        return result != null && result > 0;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        stats.forEach((name, item) -> result.put(name, item.toMap()));
+        return result;
+    }
+
+    /**
+     * 获取普通锁，成功返回1，已被持有时返回0
+     */
+    private long acquire(String key, String owner, long leaseMs) {
+        Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(key, owner, leaseMs, TimeUnit.MILLISECONDS);
+        return Boolean.TRUE.equals(acquired) ? 1 : 0;
+    }
+
+    private long acquireFenced(String key, String owner, long leaseMs) {
+        Long token = stringRedisTemplate.execute(FENCED_ACQUIRE_SCRIPT, Arrays.asList(key, key + FENCE_KEY_SUFFIX),
+                owner, String.valueOf(leaseMs));
+        return token == null ? 0 : token;
+    }
+
+    private Stats stats(String key) {
+        String name = statsName(key);
+        Stats item = stats.get(name);
+        if (item != null) {
+            return item;
+        }
+        if (stats.size() >= maxStatsNames) {
+            return stats.computeIfAbsent(OTHER_STATS_NAME, other -> new Stats());
+        }
+        return stats.computeIfAbsent(name, created -> new Stats());
+    }
+
+    /**
+     * 锁键只保留前两段作为锁名，其余部分归为*，刷新锁保留 :refresh 后缀，
+     * 如 lock:user:12 归为 lock:user:*，lock:course:list:2024-2025-1:refresh 归为 lock:course:*:refresh
+     */
+    private String statsName(String key) {
+        String[] parts = key.split(":", 3);
+        if (parts.length < 3) {
+            return key;
+        }
+        String name = parts[0] + ":" + parts[1] + ":*";
+        return key.endsWith(REFRESH_KEY_SUFFIX) ? name + REFRESH_KEY_SUFFIX : name;
+    }
+
+    private class RedisLock implements DistributedLock {
+
+        private final String key;
+        private final String owner;
+        private final boolean acquired;
+        private final long fencingToken;
+        private final long leaseMs;
+        private final long acquiredAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean lost;
+        private volatile ScheduledFuture<?> renewal;
+
+        RedisLock(String key, String owner, boolean acquired, long fencingToken, long leaseMs) {
+            this.key = key;
+            this.owner = owner;
+            this.acquired = acquired;
+            this.fencingToken = fencingToken;
+            this.leaseMs = leaseMs;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        @Override
+        public boolean isAcquired() {
+            return acquired;
+        }
+
+        @Override
+        public boolean isHeld() {
+            return isAcquired() && !released.get() && !lost;
+        }
+
+        @Override
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        @Override
+        public void close() {
+            if (!isAcquired() || !released.compareAndSet(false, true)) {
+                return;
+            }
+            cancelRenewal();
+            Stats item = stats(key);
+            item.holdTime.record(System.nanoTime() - acquiredAt);
+            try {
+                if (release(key, owner)) {
+                    item.released.increment();
+                    logger.debug("释放分布式锁: key={}, fencingToken={}", key, fencingToken);
+                } else {
+                    // 租约已过期，锁可能已被其他持有者获取，不能删除
+                    item.lostLeases.increment();
+                    logger.warn("释放分布式锁时锁已不属于当前持有者: key={}, fencingToken={}", key, fencingToken);
+                }
+            } catch (Exception e) {
+                // 释放失败时锁在租约到期后自动释放
+                logger.error("释放分布式锁失败: key={}", key, e);
+            }
+        }
+
+        void renew() {
+            if (!isHeld()) {
+                cancelRenewal();
+                return;
+            }
+            Stats item = stats(key);
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - acquiredAt) > maxHoldMs) {
+                cancelRenewal();
+                item.renewalsStopped.increment();
+                logger.warn("分布式锁持有时间超过上限，停止续期: key={}, maxHoldMs={}", key, maxHoldMs);
+                return;
+            }
+            try {
+                Long result = stringRedisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(key),
+                        owner, String.valueOf(leaseMs));
+                if (result != null && result > 0) {
+                    item.renewals.increment();
+                    return;
+                }
+                lost = true;
+                cancelRenewal();
+                item.lostLeases.increment();
+                logger.warn("分布式锁续期失败，锁已过期或被其他持有者获取: key={}, fencingToken={}", key, fencingToken);
+            } catch (Exception e) {
+                // Redis暂时不可用时保留续期任务，下次继续尝试
+                logger.warn("分布式锁续期异常: key={}, error={}", key, e.getMessage());
+            }
+        }
+
+        private void cancelRenewal() {
+            ScheduledFuture<?> future = renewal;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    private static class Stats {
+
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder released = new LongAdder();
+        private final LongAdder renewals = new LongAdder();
+        private final LongAdder renewalsStopped = new LongAdder();
+        private final LongAdder lostLeases = new LongAdder();
+        private final Timer waitTime = new Timer();
+        private final Timer holdTime = new Timer();
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("acquired", acquired.sum());
+            map.put("contended", contended.sum());
+            map.put("timeouts", timeouts.sum());
+            map.put("released", released.sum());
+            map.put("renewals", renewals.sum());
+            map.put("renewalsStopped", renewalsStopped.sum());
+            map.put("lostLeases", lostLeases.sum());
+            map.put("waitTime", waitTime.toMap());
+            map.put("holdTime", holdTime.toMap());
+            return map;
+        }
+    }
+
+    private static class Timer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        Map<String, Object> toMap() {
+            long total = count.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", total);
+            map.put("meanMs", total == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / total);
+            map.put("maxMs", maxNanos.get() / 1_000_000.0);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.example.campussysteam.module.redis.service.impl;
+
+import com.example.campussysteam.common.cache.BloomFilter;
+import com.example.campussysteam.module.redis.dto.BloomFilterStatsDTO;
+import com.example.campussysteam.module.redis.service.DistributedLock;
+import com.example.campussysteam.module.redis.service.DistributedLockService;
+import com.example.campussysteam.module.redis.service.IdBloomFilterService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ID布隆过滤器服务实现类
+ * 位图保存在 bloom:{type}:{位数}:{哈希个数}，当前使用的位图记录在 bloom:{type}:current。
+ * 本地副本判定存在时直接放行；判定不存在时再用GETBIT向Redis确认，以免其他节点刚新增的ID被误拒，
+ * 确认存在后补充到本地副本。新增的ID同时记录在 bloom:{type}:recent，
+ * 重建期间其他节点新增的ID在新位图生效后重新写入，重建完成后通过频道 bloom:rebuild 通知其他节点重新加载。
+ * 节点启动时优先加载Redis中已有的位图，只有位图不存在或已过期时才重建，重建持有分布式锁 lock:bloom:{type}，
+ * 同一时间只有一个节点从数据库读取全部ID
+ */
+@Service
+public class IdBloomFilterServiceImpl implements IdBloomFilterService, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdBloomFilterServiceImpl.class);
+
+    private static final String KEY_PREFIX = "bloom:";
+    private static final String CURRENT_SUFFIX = ":current";
+    private static final String RECENT_SUFFIX = ":recent";
+    private static final String CHANNEL = "bloom:rebuild";
+    private static final String LOCK_PREFIX = "lock:bloom:";
+
+    /**
+     * 重建锁的租约，重建期间由看门狗续期
+     */
+    private static final Duration REBUILD_LOCK_LEASE = Duration.ofSeconds(30);
+
+    /**
+     * 手动重建时等待其他节点完成重建的最长时间
+     */
+    private static final Duration REBUILD_LOCK_WAIT = Duration.ofSeconds(5);
+
+    /**
+     * 重建开始前这段时间内新增的ID也重新写入，覆盖事务提交延迟和节点间的时钟误差
+     */
+    private static final long REPLAY_MARGIN_MS = 60000;
+
+    /**
+     * 旧位图保留的时间，供尚未重新加载的节点继续确认
+     */
+    private static final long RETIRED_KEY_TTL_SECONDS = 600;
+
+    /**
+     * 实体类型对应的数据表
+     */
+    private static final Map<String, String> TABLES = new LinkedHashMap<>();
+
+    static {
+        TABLES.put(USER, "`user`");
+        TABLES.put(COURSE, "course");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DistributedLockService distributedLockService;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, State> states = new LinkedHashMap<>();
+
+    @Value("${cache.bloom.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${cache.bloom.growth-factor:2.0}")
+    private double growthFactor;
+
+    @Value("${cache.bloom.min-expected-insertions:10000}")
+    private long minExpectedInsertions;
+
+    @Value("${cache.bloom.rebuild-delete-ratio:0.1}")
+    private double rebuildDeleteRatio;
+
+    @Value("${cache.bloom.rebuild-batch-size:5000}")
+    private int rebuildBatchSize;
+
+    @Value("${cache.bloom.recent-retention-ms:3600000}")
+    private long recentRetentionMs;
+
+    /**
+     * 位图构建后超过这段时间视为过期，下次检查时重建，0表示不按时间重建
+     */
+    @Value("${cache.bloom.max-age-ms:86400000}")
+    private long maxAgeMs;
+
+    public IdBloomFilterServiceImpl(JdbcTemplate jdbcTemplate, StringRedisTemplate stringRedisTemplate,
+                                    DistributedLockService distributedLockService,
+                                    RedisMessageListenerContainer redisMessageListenerContainer) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.distributedLockService = distributedLockService;
+        for (String type : TABLES.keySet()) {
+            states.put(type, new State(type));
+        }
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public boolean mightContain(String type, Long id) {
+        State state = states.get(type);
+        if (!enabled || state == null || id == null) {
+            return true;
+        }
+        Snapshot snapshot = state.snapshot;
+        if (snapshot == null || snapshot.filter.mightContain(id)) {
+            state.passed.increment();
+            return true;
+        }
+
+        state.redisChecks.increment();
+        if (existsInRedis(snapshot, id)) {
+            snapshot.filter.put(id);
+            state.passed.increment();
+            return true;
+        }
+        state.rejected.increment();
+        logger.debug("布隆过滤器拒绝不存在的ID: type={}, id={}", type, id);
+        return false;
+    }
+
+    @Override
+    public void add(String type, Long id) {
+        State state = states.get(type);
+        if (state == null || id == null) {
+            return;
+        }
+        state.insertions.incrementAndGet();
+        Snapshot snapshot = state.snapshot;
+        if (snapshot != null) {
+            snapshot.filter.put(id);
+        }
+        try {
+            byte[] recentKey = raw(KEY_PREFIX + type + RECENT_SUFFIX);
+            byte[] member = raw(String.valueOf(id));
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                if (snapshot != null) {
+                    byte[] key = raw(snapshot.key);
+                    for (long offset : snapshot.filter.offsets(id)) {
+                        connection.stringCommands().setBit(key, offset, true);
+                    }
+                }
+                connection.zSetCommands().zAdd(recentKey, System.currentTimeMillis(), member);
+                return null;
+            });
+        } catch (Exception e) {
+            // 其他节点查询该ID时无法从Redis确认，下次重建后恢复
+            logger.warn("写入布隆过滤器失败: type={}, id={}, error={}", type, id, e.getMessage());
+        }
+    }
+
+    @Override
+    public void remove(String type, Long id) {
+        State state = states.get(type);
+        if (state != null && id != null) {
+            state.deletions.incrementAndGet();
+        }
+    }
+
+    @Override
+    public BloomFilterStatsDTO rebuild(String type) {
+        State state = states.get(type);
+        if (state == null) {
+            throw new RuntimeException("不支持的布隆过滤器类型: " + type);
+        }
+        try (DistributedLock lock = distributedLockService.tryLock(LOCK_PREFIX + type, REBUILD_LOCK_LEASE,
+                REBUILD_LOCK_WAIT)) {
+            if (!lock.isAcquired()) {
+                throw new RuntimeException("其他节点正在重建布隆过滤器: " + type);
+            }
+            rebuildLocked(state);
+        }
+        return state.toDTO();
+    }
+
+    @Override
+    public List<BloomFilterStatsDTO> getStatistics() {
+        List<BloomFilterStatsDTO> result = new ArrayList<>();
+        for (State state : states.values()) {
+            result.add(state.toDTO());
+        }
+        return result;
+    }
+
+    /**
+     * 启动后首次执行时加载Redis中已有的位图，位图不存在、已过期，或删除数量、元素数量超出阈值时重建
+     */
+    @Scheduled(initialDelayString = "${cache.bloom.initial-delay-ms:0}",
+               fixedDelayString = "${cache.bloom.check-interval-ms:60000}")
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        for (State state : states.values()) {
+            try {
+                if (state.snapshot == null) {
+                    synchronized (state) {
+                        reload(state);
+                    }
+                }
+                if (needsRebuild(state)) {
+                    rebuildIfNeeded(state);
+                }
+                stringRedisTemplate.opsForZSet().removeRangeByScore(KEY_PREFIX + state.type + RECENT_SUFFIX,
+                        0, System.currentTimeMillis() - recentRetentionMs);
+            } catch (Exception e) {
+                logger.warn("维护布隆过滤器失败: type={}, error={}", state.type, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 2);
+        if (parts.length < 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        State state = states.get(parts[1]);
+        if (state == null) {
+            return;
+        }
+        synchronized (state) {
+            try {
+                reload(state);
+            } catch (Exception e) {
+                // 本地副本判定不存在的ID仍会向Redis确认，下次重建时恢复一致
+                logger.warn("重新加载布隆过滤器失败: type={}, error={}", state.type, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 位图不存在或已过期时重建。其他节点正在重建时跳过，重建完成后通过通知重新加载
+     */
+    private void rebuildIfNeeded(State state) {
+        try (DistributedLock lock = distributedLockService.tryLock(LOCK_PREFIX + state.type, REBUILD_LOCK_LEASE)) {
+            if (!lock.isAcquired()) {
+                logger.debug("其他节点正在重建布隆过滤器，跳过: type={}", state.type);
+                return;
+            }
+            // 等锁期间其他节点可能已经重建完成
+            synchronized (state) {
+                reload(state);
+            }
+            if (needsRebuild(state)) {
+                rebuildLocked(state);
+            }
+        }
+    }
+
+    private void rebuildLocked(State state) {
+        synchronized (state) {
+            try {
+                doRebuild(state);
+                state.lastError = null;
+            } catch (Exception e) {
+                state.lastError = e.getMessage();
+                logger.error("重建布隆过滤器失败: type={}", state.type, e);
+                throw new RuntimeException("重建布隆过滤器失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean needsRebuild(State state) {
+        Snapshot snapshot = state.snapshot;
+        if (snapshot == null) {
+            return true;
+        }
+        long insertions = state.insertions.get();
+        return insertions > snapshot.expectedInsertions
+                || state.deletions.get() > insertions * rebuildDeleteRatio
+                || (maxAgeMs > 0 && System.currentTimeMillis() - snapshot.builtAt > maxAgeMs);
+    }
+
+    private void doRebuild(State state) {
+        long startedAt = System.currentTimeMillis();
+        String table = TABLES.get(state.type);
+
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        long expected = Math.max(minExpectedInsertions, (long) Math.ceil((count == null ? 0 : count) * growthFactor));
+        BloomFilter filter = BloomFilter.create(expected, falsePositiveRate);
+
+        // 按主键分批读取，不长时间占用连接
+        String sql = "SELECT id FROM " + table + " WHERE id > ? ORDER BY id LIMIT ?";
+        long loaded = 0;
+        long lastId = 0;
+        while (true) {
+            List<Long> ids = jdbcTemplate.queryForList(sql, Long.class, lastId, rebuildBatchSize);
+            for (Long id : ids) {
+                filter.put(id);
+            }
+            loaded += ids.size();
+            if (ids.size() < rebuildBatchSize) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+        }
+
+        String key = KEY_PREFIX + state.type + ":" + filter.getBitSize() + ":" + filter.getHashCount();
+        String currentKey = KEY_PREFIX + state.type + CURRENT_SUFFIX;
+        String recentKey = KEY_PREFIX + state.type + RECENT_SUFFIX;
+
+        // 重建期间新增的ID不在数据库快照中，写入Redis前先并入位图，
+        // 否则key名不变时RENAME会覆盖这些ID已写入的位，在补写前短暂查不到
+        long replayFrom = startedAt - REPLAY_MARGIN_MS;
+        long foldedAt = System.currentTimeMillis();
+        Set<Long> replayed = new LinkedHashSet<>();
+        Set<String> recent = stringRedisTemplate.opsForZSet().rangeByScore(recentKey, replayFrom, Double.MAX_VALUE);
+        if (recent != null) {
+            for (String member : recent) {
+                long id = Long.parseLong(member);
+                filter.put(id);
+                replayed.add(id);
+            }
+        }
+
+        byte[] bytes = filter.toBytes();
+        stringRedisTemplate.execute((RedisCallback<Void>) connection -> {
+            byte[] buildingKey = raw(key + ":building");
+            connection.stringCommands().set(buildingKey, bytes);
+            connection.keyCommands().rename(buildingKey, raw(key));
+            return null;
+        });
+
+        // 只补写读取recent之后到RENAME之间新增的ID
+        Set<String> late = stringRedisTemplate.opsForZSet().rangeByScore(recentKey,
+                foldedAt - REPLAY_MARGIN_MS, Double.MAX_VALUE);
+        List<Long> lateIds = new ArrayList<>();
+        if (late != null) {
+            for (String member : late) {
+                long id = Long.parseLong(member);
+                if (replayed.add(id)) {
+                    filter.put(id);
+                    lateIds.add(id);
+                }
+            }
+        }
+        if (!lateIds.isEmpty()) {
+            byte[] rawKey = raw(key);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Long id : lateIds) {
+                    for (long offset : filter.offsets(id)) {
+                        connection.stringCommands().setBit(rawKey, offset, true);
+                    }
+                }
+                return null;
+            });
+        }
+
+        String previous = stringRedisTemplate.opsForValue().get(currentKey);
+        String current = filter.getBitSize() + ":" + filter.getHashCount() + ":" + expected + ":"
+                + (loaded + replayed.size()) + ":" + startedAt;
+        stringRedisTemplate.opsForValue().set(currentKey, current);
+        String previousKey = previous == null ? null : keyOf(state.type, previous);
+        if (previousKey != null && !previousKey.equals(key)) {
+            stringRedisTemplate.expire(previousKey, RETIRED_KEY_TTL_SECONDS, TimeUnit.SECONDS);
+        }
+        stringRedisTemplate.opsForZSet().removeRangeByScore(recentKey, 0, replayFrom);
+
+        state.snapshot = new Snapshot(filter, key, expected, current, startedAt);
+        state.insertions.set(loaded + replayed.size());
+        state.deletions.set(0);
+        state.rebuildCount.incrementAndGet();
+        state.lastRebuildAt = LocalDateTime.now();
+        state.lastRebuildMillis = System.currentTimeMillis() - startedAt;
+        state.lastRebuildIds = loaded;
+
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId + "\n" + state.type);
+        } catch (Exception e) {
+            logger.warn("发送布隆过滤器重建通知失败: type={}, error={}", state.type, e.getMessage());
+        }
+        logger.info("布隆过滤器重建完成: type={}, ids={}, replayed={}, bits={}, hashes={}, cost={}ms",
+                state.type, loaded, replayed.size(), filter.getBitSize(), filter.getHashCount(),
+                state.lastRebuildMillis);
+    }
+
+    /**
+     * 从Redis加载其他节点重建的位图，与本地副本是同一次重建的结果时不重复加载
+     */
+    private void reload(State state) {
+        String current = stringRedisTemplate.opsForValue().get(KEY_PREFIX + state.type + CURRENT_SUFFIX);
+        Snapshot snapshot = state.snapshot;
+        if (current == null || (snapshot != null && current.equals(snapshot.current))) {
+            return;
+        }
+        String[] parts = current.split(":");
+        long bitSize = Long.parseLong(parts[0]);
+        int hashCount = Integer.parseInt(parts[1]);
+        long expected = Long.parseLong(parts[2]);
+        long insertions = Long.parseLong(parts[3]);
+        // 未记录构建时间的旧位图视为已过期
+        long builtAt = parts.length > 4 ? Long.parseLong(parts[4]) : 0;
+        String key = keyOf(state.type, current);
+        byte[] bytes = stringRedisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(raw(key)));
+        if (bytes == null) {
+            return;
+        }
+        state.snapshot = new Snapshot(BloomFilter.fromBytes(bytes, bitSize, hashCount), key, expected, current,
+                builtAt);
+        state.insertions.set(insertions);
+        state.deletions.set(0);
+        logger.info("已加载Redis中的布隆过滤器: type={}, bits={}, hashes={}", state.type, bitSize, hashCount);
+    }
+
+    /**
+     * 向Redis确认各个位是否都已设置。位图不存在（如已被新位图替换）或Redis不可用时视为存在
+     */
+    private boolean existsInRedis(Snapshot snapshot, long id) {
+        try {
+            byte[] key = raw(snapshot.key);
+            long[] offsets = snapshot.filter.offsets(id);
+            List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                connection.keyCommands().exists(key);
+                for (long offset : offsets) {
+                    connection.stringCommands().getBit(key, offset);
+                }
+                return null;
+            });
+            if (!Boolean.TRUE.equals(results.get(0))) {
+                return true;
+            }
+            for (int i = 1; i < results.size(); i++) {
+                if (!Boolean.TRUE.equals(results.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.debug("向Redis确认布隆过滤器失败，放行查询: key={}, id={}, error={}",
+                    snapshot.key, id, e.getMessage());
+            return true;
+        }
+    }
+
+    private String keyOf(String type, String current) {
+        String[] parts = current.split(":");
+        return KEY_PREFIX + type + ":" + parts[0] + ":" + parts[1];
+    }
+
+    private static byte[] raw(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 过滤器及其在Redis中的位图，重建时整体替换
+     */
+    private static class Snapshot {
+
+        private final BloomFilter filter;
+        private final String key;
+        private final long expectedInsertions;
+
+        /**
+         * bloom:{type}:current 的值，用于判断Redis中的位图是否已被重建
+         */
+        private final String current;
+        private final long builtAt;
+
+        Snapshot(BloomFilter filter, String key, long expectedInsertions, String current, long builtAt) {
+            this.filter = filter;
+            this.key = key;
+            this.expectedInsertions = expectedInsertions;
+            this.current = current;
+            this.builtAt = builtAt;
+        }
+    }
+
+    private class State {
+
+        private final String type;
+        private volatile Snapshot snapshot;
+        private final AtomicLong insertions = new AtomicLong();
+        private final AtomicLong deletions = new AtomicLong();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder passed = new LongAdder();
+        private final LongAdder redisChecks = new LongAdder();
+        private final AtomicLong rebuildCount = new AtomicLong();
+        private volatile LocalDateTime lastRebuildAt;
+        private volatile long lastRebuildMillis;
+        private volatile long lastRebuildIds;
+        private volatile String lastError;
+
+        State(String type) {
+            this.type = type;
+        }
+
+        BloomFilterStatsDTO toDTO() {
+            Snapshot current = snapshot;
+            BloomFilterStatsDTO.BloomFilterStatsDTOBuilder builder = BloomFilterStatsDTO.builder()
+                    .type(type)
+                    .ready(current != null)
+                    .insertions(insertions.get())
+                    .deletionsSinceRebuild(deletions.get())
+                    .configuredFalsePositiveRate(falsePositiveRate)
+                    .rejected(rejected.sum())
+                    .passed(passed.sum())
+                    .redisChecks(redisChecks.sum())
+                    .rebuildCount(rebuildCount.get())
+                    .lastRebuildAt(lastRebuildAt)
+                    .lastRebuildMillis(lastRebuildMillis)
+                    .lastRebuildIds(lastRebuildIds)
+                    .lastError(lastError);
+            if (current != null) {
+                builder.bitSize(current.filter.getBitSize())
+                        .hashCount(current.filter.getHashCount())
+                        .memoryBytes(current.filter.getBitSize() / Byte.SIZE)
+                        .expectedInsertions(current.expectedInsertions)
+                        .estimatedFalsePositiveRate(BloomFilter.expectedFalsePositiveRate(
+                                insertions.get(), current.filter.getBitSize(), current.filter.getHashCount()));
+            }
+            return builder.build();
+        }
+    }
+}
@@ -1,53 +1,235 @@
 package com.example.campussysteam.module.redis.service.impl;
 
+import com.example.campussysteam.common.cache.CacheEntry;
+import com.example.campussysteam.common.cache.CacheMetrics;
+import com.example.campussysteam.model.CacheResult;
+import com.example.campussysteam.module.redis.dto.RedisKeyPageDTO;
+import com.example.campussysteam.module.redis.service.DistributedLock;
+import com.example.campussysteam.module.redis.service.DistributedLockService;
+import com.example.campussysteam.module.redis.service.RedisBatch;
 import com.example.campussysteam.module.redis.service.RedisService;
+import io.lettuce.core.KeyScanArgs;
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanCursor;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 
 /**
  * Redis服务实现类
  */
 @Service
-public class RedisServiceImpl implements RedisService {
+public class RedisServiceImpl implements RedisService, MessageListener {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisServiceImpl.class);
+
+    /**
+     * 缓存加载完成通知频道，消息内容为缓存key
+     */
+    private static final String READY_CHANNEL = "cache:ready";
+
+    private static final int MAX_SCAN_COUNT = 1000;
+    private static final int MAX_SCAN_ROUNDS = 16;
+    private static final long SCAN_TIMEOUT_SECONDS = 5;
+
+    private static final String REFRESH_LOCK_SUFFIX = ":refresh";
+    private static final Duration LOAD_LOCK_LEASE = Duration.ofSeconds(10);
+    private static final Duration REFRESH_LOCK_LEASE = Duration.ofSeconds(30);
+    private static final int REFRESH_QUEUE_CAPACITY = 1000;
+
     private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheMetrics cacheMetrics;
+    private final DistributedLockService distributedLockService;
+
+    /**
+     * 本节点正在加载的缓存key
+     */
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
+    /**
+     * 等待其他节点加载完成的缓存key
+     */
+    private final Map<String, CompletableFuture<Void>> readyWaiters = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点正在后台刷新的缓存key
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor refreshExecutor;
+
+    private final LongAdder freshHits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder coldLoads = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshesApplied = new LongAdder();
+    private final LongAdder refreshesSkipped = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder batchCommands = new LongAdder();
+    private final AtomicLong batchMaxSize = new AtomicLong();
+
+    @Value("${cache.single-flight.wait-timeout-ms:3000}")
+    private long waitTimeoutMs;
+
+    /**
+     * XFetch算法的beta，越大越早刷新
+     */
+    @Value("${cache.swr.beta:1.0}")
+    private double refreshBeta;
+
+    /**
+     * Redis实际过期时间相对软过期时间的倍数，其间的读取返回旧值并触发后台刷新
+     */
+    @Value("${cache.swr.hard-ttl-factor:2.0}")
+    private double hardTtlFactor;
 
-    public RedisServiceImpl(RedisTemplate<String, Object> redisTemplate) {
+    public RedisServiceImpl(RedisTemplate<String, Object> redisTemplate, StringRedisTemplate stringRedisTemplate,
+                            RedisMessageListenerContainer redisMessageListenerContainer, CacheMetrics cacheMetrics,
+                            DistributedLockService distributedLockService,
+                            @Value("${cache.swr.refresh-threads:4}") int refreshThreads) {
         this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.cacheMetrics = cacheMetrics;
+        this.distributedLockService = distributedLockService;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(READY_CHANNEL));
         logger.info("RedisServiceImpl初始化，redisTemplate: {}", redisTemplate);
     }
 
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
     @Override
-    public List<Map<String, Object>> getAllKeys() {
-        logger.debug("获取所有Redis键");
+    public RedisKeyPageDTO scanKeys(String pattern, String cursor, int count, String type) {
+        String match = StringUtils.hasText(pattern) ? pattern : "*";
+        int limit = Math.max(1, Math.min(count, MAX_SCAN_COUNT));
+        logger.debug("分页扫描Redis键: pattern={}, cursor={}, count={}, type={}", match, cursor, limit, type);
         try {
-            List<Map<String, Object>> result = redisTemplate.keys("*").stream()
-                    .map(key -> {
-                        Map<String, Object> keyInfo = new java.util.HashMap<>();
-                        keyInfo.put("key", key);
-                        keyInfo.put("type", redisTemplate.type(key));
-                        keyInfo.put("ttl", redisTemplate.getExpire(key, TimeUnit.SECONDS));
-                        return keyInfo;
-                    })
-                    .collect(Collectors.toList());
-            logger.debug("获取到 {} 个Redis键", result.size());
+            // SCAN每次只遍历少量槽位，可能返回空页；连续扫描直到凑满一页、遍历结束或达到次数上限
+            List<byte[]> rawKeys = new ArrayList<>();
+            String next = StringUtils.hasText(cursor) ? cursor : "0";
+            boolean finished = false;
+            for (int i = 0; i < MAX_SCAN_ROUNDS && rawKeys.size() < limit && !finished; i++) {
+                KeyScanCursor<byte[]> page = scan(next, match, limit - rawKeys.size(), type);
+                rawKeys.addAll(page.getKeys());
+                next = page.getCursor();
+                finished = page.isFinished();
+            }
+
+            RedisKeyPageDTO result = RedisKeyPageDTO.builder()
+                    .keys(describeKeys(rawKeys))
+                    .cursor(finished ? "0" : next)
+                    .finished(finished)
+                    .build();
+            logger.debug("分页扫描Redis键结果: keys={}, cursor={}", result.getKeys().size(), result.getCursor());
             return result;
         } catch (Exception e) {
-            logger.error("获取所有Redis键失败", e);
+            logger.error("分页扫描Redis键失败: pattern={}, cursor={}", match, cursor, e);
             throw e;
         }
     }
 
+    private KeyScanCursor<byte[]> scan(String cursor, String pattern, int count, String type) {
+        return redisTemplate.execute((RedisCallback<KeyScanCursor<byte[]>>) connection -> {
+            @SuppressWarnings("unchecked")
+            RedisKeyAsyncCommands<byte[], byte[]> commands =
+                    (RedisKeyAsyncCommands<byte[], byte[]>) connection.getNativeConnection();
+            KeyScanArgs args = new KeyScanArgs();
+            args.match(pattern);
+            args.limit(count);
+            if (StringUtils.hasText(type)) {
+                args.type(type);
+            }
+            try {
+                return commands.scan(ScanCursor.of(cursor), args).get(SCAN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("扫描Redis键时被中断", e);
+            } catch (ExecutionException | TimeoutException e) {
+                throw new RuntimeException("扫描Redis键失败: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 通过管道一次查询一页键的类型和过期时间
+     */
+    private List<Map<String, Object>> describeKeys(List<byte[]> rawKeys) {
+        List<Map<String, Object>> result = new ArrayList<>(rawKeys.size());
+        if (rawKeys.isEmpty()) {
+            return result;
+        }
+        List<Object> meta = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (byte[] rawKey : rawKeys) {
+                connection.keyCommands().type(rawKey);
+                connection.keyCommands().ttl(rawKey);
+            }
+            return null;
+        });
+        recordBatch(rawKeys.size() * 2);
+        for (int i = 0; i < rawKeys.size(); i++) {
+            Object type = meta.get(i * 2);
+            Map<String, Object> keyInfo = new LinkedHashMap<>();
+            keyInfo.put("key", new String(rawKeys.get(i), StandardCharsets.UTF_8));
+            keyInfo.put("type", type instanceof DataType ? ((DataType) type).code() : type);
+            keyInfo.put("ttl", meta.get(i * 2 + 1));
+            result.add(keyInfo);
+        }
+        return result;
+    }
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> T getValue(String key) {
@@ -122,52 +304,354 @@ public class RedisServiceImpl implements RedisService {
     public <T> T getWithCachePenetrationProtection(String key, String lockKey, Supplier<T> dbFallback, long ttl) {
         logger.debug("带缓存击穿保护获取值: key={}, lockKey={}, ttl={}", key, lockKey, ttl);
         // 1. 先尝试从缓存获取
+        long start = System.nanoTime();
         T value = getValue(key);
         if (value != null) {
             logger.debug("缓存命中: key={}", key);
+            cacheMetrics.recordLookup(CacheMetrics.prefixOf(key), CacheMetrics.Outcome.HIT, System.nanoTime() - start);
             return value;
         }
-        logger.debug("缓存未命中，尝试获取分布式锁: key={}, lockKey={}", key, lockKey);
-        
-        // 2. 尝试获取分布式锁
-        boolean locked = tryLock(lockKey, "1", 10, TimeUnit.SECONDS);
-        if (!locked) {
-            logger.debug("获取分布式锁失败，等待重试: lockKey={}", lockKey);
-            // 如果获取锁失败，等待一段时间后重试
-            try {
-                Thread.sleep(100);
-                return getWithCachePenetrationProtection(key, lockKey, dbFallback, ttl);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("获取缓存时被中断: key={}", key, e);
-                throw new RuntimeException("获取缓存时被中断", e);
+        cacheMetrics.recordLookup(CacheMetrics.prefixOf(key), CacheMetrics.Outcome.MISS, System.nanoTime() - start);
+        return singleFlight(key, lockKey, () -> getValue(key), () -> timedLoad(key, dbFallback),
+                value -> cacheLoaded(key, value, ttl));
+    }
+
+    /**
+     * 缓存未命中时的加载：本节点内同一个key的并发请求共享一次加载，跨节点通过分布式锁只由一个节点加载
+     *
+     * @param reader 读取缓存
+     * @param loader 从数据源加载
+     * @param writer 将加载结果写入缓存，只在值不为null时调用
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T singleFlight(String key, String lockKey, Supplier<T> reader, Supplier<T> loader, Consumer<T> writer) {
+        // 2. 本节点内同一个key只有一个线程加载，其他线程等待同一个结果
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(key, flight);
+        if (existing != null) {
+            logger.debug("等待本节点正在进行的加载: key={}", key);
+            return (T) awaitInFlight(key, existing, () -> loadAndStore(loader, writer));
+        }
+        try {
+            T value = loadSingleFlight(key, lockKey, reader, loader, writer);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, flight);
+        }
+    }
+
+    /**
+     * 跨节点只有获得分布式锁的节点从数据源加载，其他节点等待加载完成通知后读取缓存，
+     * 等待超时或加载方失败时由当前节点直接加载一次
+     */
+    private <T> T loadSingleFlight(String key, String lockKey, Supplier<T> reader, Supplier<T> loader,
+                                   Consumer<T> writer) {
+        // 3. 尝试获取分布式锁，加载期间由看门狗续期
+        DistributedLock lock = distributedLockService.tryLock(lockKey, LOAD_LOCK_LEASE);
+        if (lock.isAcquired()) {
+            // 5. 先释放锁（只删除自己持有的锁）再通知等待的节点
+            try (lock) {
+                // 4. 双重检查
+                T value = reader.get();
+                if (value != null) {
+                    logger.debug("双重检查缓存命中: key={}", key);
+                    return value;
+                }
+                value = loader.get();
+                if (value != null) {
+                    if (lock.isHeld()) {
+                        writer.accept(value);
+                    } else {
+                        // 加载期间租约丢失，其他节点可能已写入更新的值，不再覆盖
+                        logger.warn("加载期间分布式锁已失效，放弃写入缓存: key={}, lockKey={}", key, lockKey);
+                    }
+                }
+                return value;
+            } finally {
+                publishReady(key);
             }
         }
-        
-        logger.debug("获取分布式锁成功: lockKey={}", lockKey);
+
+        // 先登记等待再检查缓存，避免在两次操作之间错过加载完成通知
+        logger.debug("获取分布式锁失败，等待其他节点加载完成: lockKey={}", lockKey);
+        CompletableFuture<Void> ready = readyWaiters.computeIfAbsent(key, k -> new CompletableFuture<>());
+        long waitStart = System.nanoTime();
         try {
-            // 3. 双重检查
-            value = getValue(key);
+            T value = reader.get();
             if (value != null) {
-                logger.debug("双重检查缓存命中: key={}", key);
                 return value;
             }
-            
-            logger.debug("双重检查缓存未命中，从数据源获取数据: key={}", key);
-            // 4. 从数据库获取数据
-            value = dbFallback.get();
+            try {
+                ready.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            } finally {
+                cacheMetrics.recordLockWait(CacheMetrics.prefixOf(key), System.nanoTime() - waitStart);
+            }
+            value = reader.get();
             if (value != null) {
-                logger.debug("从数据源获取数据成功，存入缓存: key={}, ttl={}", key, ttl);
-                // 5. 将数据存入缓存
-                setValue(key, value, ttl);
+                logger.debug("其他节点加载完成，缓存命中: key={}", key);
+                return value;
+            }
+        } catch (TimeoutException e) {
+            logger.warn("等待其他节点加载缓存超时: key={}, timeout={}ms", key, waitTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("获取缓存时被中断: key={}", key, e);
+            throw new RuntimeException("获取缓存时被中断", e);
+        } catch (ExecutionException e) {
+            logger.warn("等待缓存加载通知失败: key={}", key, e.getCause());
+        } finally {
+            readyWaiters.remove(key, ready);
+        }
+        return loadAndStore(loader, writer);
+    }
+
+    private <T> T loadAndStore(Supplier<T> loader, Consumer<T> writer) {
+        T value = loader.get();
+        if (value != null) {
+            writer.accept(value);
+        }
+        return value;
+    }
+
+    private Object awaitInFlight(String key, CompletableFuture<Object> flight, Supplier<?> loader) {
+        long waitStart = System.nanoTime();
+        try {
+            Object value = flight.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+            cacheMetrics.recordLockWait(CacheMetrics.prefixOf(key), System.nanoTime() - waitStart);
+            return value;
+        } catch (TimeoutException e) {
+            cacheMetrics.recordLockWait(CacheMetrics.prefixOf(key), System.nanoTime() - waitStart);
+            logger.warn("等待本节点加载缓存超时，直接加载: key={}, timeout={}ms", key, waitTimeoutMs);
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("获取缓存时被中断: key={}", key, e);
+            throw new RuntimeException("获取缓存时被中断", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("加载缓存失败", e.getCause());
+        }
+    }
+
+    private <T> void cacheLoaded(String key, T value, long ttl) {
+        logger.debug("从数据源获取数据成功，存入缓存: key={}, ttl={}", key, ttl);
+        setValue(key, value, ttl);
+    }
+
+    @Override
+    public <T> T getWithEarlyRefresh(String key, String lockKey, Supplier<T> loader, long ttl) {
+        return this.<T>lookupWithEarlyRefresh(key, lockKey, loader, ttl).getData();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CacheResult<T> lookupWithEarlyRefresh(String key, String lockKey, Supplier<T> loader, long ttl) {
+        String name = CacheMetrics.prefixOf(key);
+        long start = System.nanoTime();
+        Object cached = getValue(key);
+        if (cached instanceof CacheEntry) {
+            CacheEntry entry = (CacheEntry) cached;
+            long now = System.currentTimeMillis();
+            CacheMetrics.Outcome outcome;
+            if (now < entry.getSoftExpireAt()) {
+                freshHits.increment();
+                outcome = CacheMetrics.Outcome.HIT;
+            } else {
+                staleHits.increment();
+                outcome = CacheMetrics.Outcome.STALE;
+                logger.debug("返回已过软过期时间的缓存值: key={}, version={}", key, entry.getVersion());
+            }
+            if (shouldRefresh(entry, now)) {
+                scheduleRefresh(key, lockKey, loader, ttl, entry.getVersion());
+            }
+            cacheMetrics.recordLookup(name, outcome, System.nanoTime() - start);
+            return cacheResult((T) entry.getValue(), outcome, start, entry.getSoftExpireAt());
+        }
+        if (cached != null) {
+            // 没有软过期信息的旧格式值，先返回，再在后台改写为带版本号的格式
+            staleHits.increment();
+            scheduleRefresh(key, lockKey, loader, ttl, 0);
+            cacheMetrics.recordLookup(name, CacheMetrics.Outcome.STALE, System.nanoTime() - start);
+            return cacheResult((T) cached, CacheMetrics.Outcome.STALE, start, System.currentTimeMillis());
+        }
+
+        // 缓存中完全没有值时才同步加载
+        coldLoads.increment();
+        cacheMetrics.recordLookup(name, CacheMetrics.Outcome.MISS, System.nanoTime() - start);
+        // 只统计加载本身的耗时，不包括等待锁的时间
+        long[] loadStart = new long[1];
+        T value = singleFlight(key, lockKey, () -> unwrap(getValue(key)), () -> {
+            loadStart[0] = System.currentTimeMillis();
+            return timedLoad(key, loader);
+        }, loaded -> {
+            CacheEntry entry = newEntry(loaded, 1, ttl, System.currentTimeMillis() - loadStart[0]);
+            redisTemplate.opsForValue().set(key, entry, hardTtlMillis(ttl), TimeUnit.MILLISECONDS);
+        });
+        return cacheResult(value, CacheMetrics.Outcome.MISS, start, System.currentTimeMillis() + ttl * 1000);
+    }
+
+    @Override
+    public Map<String, Object> getRefreshStatistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("freshHits", freshHits.sum());
+        result.put("staleHits", staleHits.sum());
+        result.put("coldLoads", coldLoads.sum());
+        result.put("refreshes", refreshes.sum());
+        result.put("refreshesApplied", refreshesApplied.sum());
+        result.put("refreshesSkipped", refreshesSkipped.sum());
+        result.put("refreshFailures", refreshFailures.sum());
+        result.put("refreshing", refreshing.size());
+        result.put("queued", refreshExecutor.getQueue().size());
+        return result;
+    }
+
+    /**
+     * XFetch：now - computeMillis·beta·ln(rand) >= 软过期时间 时刷新。
+     * ln(rand)为负数，越接近软过期、加载越慢，提前刷新的概率越大；超过软过期后必定刷新
+     */
+    private boolean shouldRefresh(CacheEntry entry, long now) {
+        double delta = Math.max(entry.getComputeMillis(), 1);
+        double random = 1 - ThreadLocalRandom.current().nextDouble();
+        return now - delta * refreshBeta * Math.log(random) >= entry.getSoftExpireAt();
+    }
+
+    /**
+     * 提交后台刷新，本节点同一个key同时只提交一次，跨节点由刷新锁保证只有一个节点执行
+     */
+    private <T> void scheduleRefresh(String key, String lockKey, Supplier<T> loader, long ttl, long version) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh(key, lockKey + REFRESH_LOCK_SUFFIX, loader, ttl, version);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            refreshesSkipped.increment();
+            logger.warn("缓存刷新队列已满，跳过本次刷新: key={}", key);
+        }
+    }
+
+    private <T> void refresh(String key, String refreshLockKey, Supplier<T> loader, long ttl, long version) {
+        try (DistributedLock lock = distributedLockService.tryLock(refreshLockKey, REFRESH_LOCK_LEASE)) {
+            if (!lock.isAcquired()) {
+                refreshesSkipped.increment();
+                return;
+            }
+            refreshes.increment();
+            long start = System.currentTimeMillis();
+            T value = timedLoad(key, loader);
+            if (value == null) {
+                return;
+            }
+            if (!lock.isHeld()) {
+                // 刷新期间租约丢失，其他节点可能已开始新的刷新
+                refreshesSkipped.increment();
+                logger.warn("刷新期间分布式锁已失效，放弃刷新结果: key={}", key);
+                return;
+            }
+            CacheEntry entry = newEntry(value, version + 1, ttl, System.currentTimeMillis() - start);
+            if (compareAndSetEntry(key, version, entry, hardTtlMillis(ttl))) {
+                refreshesApplied.increment();
+                logger.debug("后台刷新缓存完成: key={}, version={}", key, entry.getVersion());
             } else {
-                logger.debug("从数据源获取数据为空: key={}", key);
+                logger.debug("缓存已被删除或更新，放弃刷新结果: key={}, version={}", key, version);
+            }
+        } catch (Exception e) {
+            // 刷新失败时继续返回旧值，直到Redis中的值过期
+            refreshFailures.increment();
+            logger.warn("后台刷新缓存失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * 只有缓存中的版本号仍为刷新开始时的版本号才写入，已被删除（失效）或被其他节点更新的值不会被覆盖
+     */
+    private boolean compareAndSetEntry(String key, long expectedVersion, CacheEntry entry, long ttlMillis) {
+        List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> ops = (RedisOperations<String, Object>) operations;
+                ops.watch(key);
+                Object current = ops.opsForValue().get(key);
+                long currentVersion = current instanceof CacheEntry ? ((CacheEntry) current).getVersion() : 0;
+                if (current == null || currentVersion != expectedVersion) {
+                    ops.unwatch();
+                    return null;
+                }
+                ops.multi();
+                ops.opsForValue().set(key, entry, ttlMillis, TimeUnit.MILLISECONDS);
+                return ops.exec();
             }
+        });
+        return results != null && !results.isEmpty();
+    }
+
+    /**
+     * 从数据源加载并记录耗时，加载失败也计入统计
+     */
+    private <T> T timedLoad(String key, Supplier<T> loader) {
+        String name = CacheMetrics.prefixOf(key);
+        long start = System.nanoTime();
+        try {
+            T value = loader.get();
+            cacheMetrics.recordLoad(name, System.nanoTime() - start, true);
             return value;
-        } finally {
-            // 6. 释放锁
-            logger.debug("释放分布式锁: lockKey={}", lockKey);
-            unlock(lockKey);
+        } catch (RuntimeException e) {
+            cacheMetrics.recordLoad(name, System.nanoTime() - start, false);
+            throw e;
+        }
+    }
+
+    private <T> CacheResult<T> cacheResult(T data, CacheMetrics.Outcome outcome, long startNanos, long expireAtMillis) {
+        return CacheResult.<T>builder()
+                .data(data)
+                .cacheHit(outcome != CacheMetrics.Outcome.MISS)
+                .cacheStatus(outcome.name())
+                .processingTime((System.nanoTime() - startNanos) / 1_000_000)
+                .expirationTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(expireAtMillis), ZoneId.systemDefault()))
+                .build();
+    }
+
+    private CacheEntry newEntry(Object value, long version, long ttl, long computeMillis) {
+        return new CacheEntry(value, version, System.currentTimeMillis() + ttl * 1000, computeMillis);
+    }
+
+    private long hardTtlMillis(long ttl) {
+        return (long) (ttl * 1000 * Math.max(hardTtlFactor, 1.0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T unwrap(Object cached) {
+        return cached instanceof CacheEntry ? (T) ((CacheEntry) cached).getValue() : (T) cached;
+    }
+
+    private void publishReady(String key) {
+        try {
+            stringRedisTemplate.convertAndSend(READY_CHANNEL, key);
+        } catch (Exception e) {
+            // 通知失败时等待的节点在超时后自行加载
+            logger.warn("发送缓存加载完成通知失败: key={}, error={}", key, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        CompletableFuture<Void> ready = readyWaiters.remove(new String(message.getBody(), StandardCharsets.UTF_8));
+        if (ready != null) {
+            ready.complete(null);
         }
     }
 
@@ -329,13 +813,13 @@ public class RedisServiceImpl implements RedisService {
     }
     
     /**
-     * 获取分布式锁
+     * 获取分布式锁，value以字符串原样写入，释放时据此判断持有者
      */
     @Override
     public boolean tryLock(String key, String value, long timeout, TimeUnit unit) {
         logger.debug("尝试获取分布式锁: key={}, value={}, timeout={}, unit={}", key, value, timeout, unit);
         try {
-            boolean acquired = Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, value, timeout, unit));
+            boolean acquired = Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(key, value, timeout, unit));
             logger.debug("获取分布式锁结果: key={}, acquired={}", key, acquired);
             return acquired;
         } catch (Exception e) {
@@ -345,14 +829,15 @@ public class RedisServiceImpl implements RedisService {
     }
     
     /**
-     * 释放分布式锁
+     * 释放分布式锁，锁已过期并被其他持有者获取时不删除
      */
     @Override
-    public void unlock(String key) {
+    public boolean unlock(String key, String value) {
         logger.debug("释放分布式锁: key={}", key);
         try {
-            redisTemplate.delete(key);
-            logger.debug("释放分布式锁成功: key={}", key);
+            boolean released = distributedLockService.release(key, value);
+            logger.debug("释放分布式锁结果: key={}, released={}", key, released);
+            return released;
         } catch (Exception e) {
             logger.error("释放分布式锁失败: key={}", key, e);
             throw e;
@@ -383,4 +868,119 @@ public class RedisServiceImpl implements RedisService {
             throw e;
         }
     }
-} 
\ No newline at end of file
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Map<String, T> multiGet(Collection<String> keys) {
+        Map<String, T> result = new LinkedHashMap<>();
+        if (keys == null || keys.isEmpty()) {
+            return result;
+        }
+        List<String> keyList = new ArrayList<>(keys);
+        logger.debug("批量获取缓存: keys={}", keyList.size());
+        try {
+            List<Object> values = redisTemplate.opsForValue().multiGet(keyList);
+            recordBatch(keyList.size());
+            if (values != null) {
+                for (int i = 0; i < keyList.size(); i++) {
+                    Object value = values.get(i);
+                    if (value != null) {
+                        result.put(keyList.get(i), (T) value);
+                    }
+                }
+            }
+            logger.debug("批量获取缓存结果: keys={}, hits={}", keyList.size(), result.size());
+            return result;
+        } catch (Exception e) {
+            logger.error("批量获取缓存失败: keys={}", keyList.size(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void multiSet(Map<String, ?> values, long ttl) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        pipeline(batch -> values.forEach((key, value) -> batch.set(key, value, ttl)));
+    }
+
+    @Override
+    public void multiSet(Map<String, ?> values, Map<String, Long> ttls) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        pipeline(batch -> values.forEach((key, value) -> {
+            Long ttl = ttls == null ? null : ttls.get(key);
+            batch.set(key, value, ttl == null ? 0 : ttl);
+        }));
+    }
+
+    @Override
+    public long multiDelete(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return 0;
+        }
+        logger.debug("批量删除缓存: keys={}", keys.size());
+        try {
+            Long deleted = redisTemplate.delete(keys);
+            recordBatch(keys.size());
+            logger.debug("批量删除缓存结果: keys={}, deleted={}", keys.size(), deleted);
+            return deleted == null ? 0 : deleted;
+        } catch (Exception e) {
+            logger.error("批量删除缓存失败: keys={}", keys.size(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void pipeline(Consumer<RedisBatch> commands) {
+        RedisBatch batch = new RedisBatch();
+        commands.accept(batch);
+        pipeline(batch);
+    }
+
+    @Override
+    public void pipeline(RedisBatch batch) {
+        if (batch.size() == 0) {
+            return;
+        }
+        logger.debug("管道执行命令: commands={}", batch.size());
+        try {
+            List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    batch.execute((RedisOperations<String, Object>) operations);
+                    return null;
+                }
+            });
+            batch.complete(results);
+            recordBatch(batch.size());
+        } catch (Exception e) {
+            logger.error("管道执行命令失败: commands={}", batch.size(), e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<String, Object> getBatchStatistics() {
+        long batches = batchCount.sum();
+        long commands = batchCommands.sum();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("batches", batches);
+        result.put("commands", commands);
+        result.put("averageSize", batches == 0 ? 0.0 : (double) commands / batches);
+        result.put("maxSize", batchMaxSize.get());
+        return result;
+    }
+
+    /**
+     * 记录一次批量操作的命令数，即节省了size-1次网络往返
+     */
+    private void recordBatch(int size) {
+        batchCount.increment();
+        batchCommands.add(size);
+        batchMaxSize.accumulateAndGet(size, Math::max);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.campussysteam.module.student.service.impl;
 
+import com.example.campussysteam.module.redis.service.IdBloomFilterService;
 import com.example.campussysteam.module.student.dto.StudentDTO;
 import com.example.campussysteam.module.student.entity.Class;
 import com.example.campussysteam.module.student.entity.Department;
@@ -27,6 +28,7 @@ public class StudentServiceImpl implements StudentService {
     private final ClassRepository classRepository;
     private final DepartmentRepository departmentRepository;
     private final PasswordEncoder passwordEncoder;
+    private final IdBloomFilterService idBloomFilterService;
 
     @Override
     @Transactional(readOnly = true)
@@ -59,6 +61,7 @@ public class StudentServiceImpl implements StudentService {
         user.setPhone(studentDTO.getPhone());
         user.setStatus(studentDTO.getStatus());
         user = userRepository.save(user);
+        idBloomFilterService.add(IdBloomFilterService.USER, user.getId());
         
         // 获取班级信息
         Class classInfo = classRepository.findById(studentDTO.getClassId())
@@ -115,6 +118,7 @@ public class StudentServiceImpl implements StudentService {
         
         // 删除用户
         userRepository.delete(student.getUser());
+        idBloomFilterService.remove(IdBloomFilterService.USER, student.getUser().getId());
         
         // 删除学生
         studentRepository.delete(student);
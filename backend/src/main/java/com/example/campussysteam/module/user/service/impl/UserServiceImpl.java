@@ -20,13 +20,14 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.example.campussysteam.module.redis.service.CacheInvalidationService;
+import com.example.campussysteam.module.redis.service.IdBloomFilterService;
 import com.example.campussysteam.module.redis.service.RedisService;
 import com.example.campussysteam.common.util.CryptoUtil;
 import com.example.campussysteam.common.util.PasswordUtil;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.crypto.Cipher;
@@ -42,12 +43,16 @@ public class UserServiceImpl implements UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
 
+    private static final String USER_CACHE_NAMESPACE = "user";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final RedisTemplate<String, Object> redisTemplate;
     private final RedisService redisService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final IdBloomFilterService idBloomFilterService;
     private final PasswordUtil passwordUtil;
 
     @Override
@@ -75,6 +80,7 @@ public class UserServiceImpl implements UserService {
             user.setUpdatedAt(now);
             
             User savedUser = userRepository.save(user);
+            idBloomFilterService.add(IdBloomFilterService.USER, savedUser.getId());
             logger.info("用户保存成功，ID: {}", savedUser.getId());
             return savedUser;
         } catch (Exception e) {
@@ -107,32 +113,22 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public CacheResult<User> findByIdWithCacheInfo(Long id) {
-        String cacheKey = "user:" + id;
+        // 一定不存在的ID直接拒绝，不再获取缓存锁和查询数据库
+        if (!idBloomFilterService.mightContain(IdBloomFilterService.USER, id)) {
+            throw new UsernameNotFoundException("用户不存在");
+        }
+        String cacheKey = cacheInvalidationService.namespacedKey(USER_CACHE_NAMESPACE, id);
         String lockKey = "lock:user:" + id;
-        long startTime = System.currentTimeMillis();
-        boolean cacheHit = false;
 
-        // 使用缓存击穿保护方法获取用户数据
-        User user = redisService.getWithCachePenetrationProtection(
+        // 热点用户临近过期时在后台刷新，请求线程只在缓存中没有值时才查询数据库；
+        // 返回的命中状态、耗时和过期时间由缓存层实际记录
+        return redisService.lookupWithEarlyRefresh(
                 cacheKey, 
                 lockKey,
                 () -> userRepository.findById(id)
                         .orElseThrow(() -> new UsernameNotFoundException("用户不存在")),
                 30 * 60 // 30分钟
         );
-        
-        // 判断是否命中缓存（检查处理时间，如果时间很短，认为是缓存命中）
-        long processingTime = System.currentTimeMillis() - startTime;
-        cacheHit = processingTime < 50; // 假设小于50ms的操作是缓存命中
-        
-        LocalDateTime expirationTime = LocalDateTime.now().plusMinutes(30);
-
-        return CacheResult.<User>builder()
-                .data(user)
-                .cacheHit(cacheHit)
-                .processingTime(processingTime)
-                .expirationTime(expirationTime)
-                .build();
     }
 
     @Override
@@ -147,8 +143,9 @@ public class UserServiceImpl implements UserService {
             result.getData(),
             result.isCacheHit(),
             result.getProcessingTime(),
-            LocalDateTime.now().plusSeconds(30 * 60)
+            result.getExpirationTime()
         );
+        context.setCacheStatus(result.getCacheStatus());
         return context.getData();
     }
 
@@ -230,20 +227,21 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void deleteUser(Long id) {
         userRepository.deleteById(id);
-        redisTemplate.delete("user:" + id);
+        idBloomFilterService.remove(IdBloomFilterService.USER, id);
+        redisTemplate.delete(cacheInvalidationService.namespacedKey(USER_CACHE_NAMESPACE, id));
     }
 
     @Override
     public void clearCache() {
-        Set<String> keys = redisTemplate.keys("user:*");
-        if (keys != null && !keys.isEmpty()) {
-            redisTemplate.delete(keys);
-        }
+        // 递增版本号即可使全部用户缓存失效，旧版本的键由后台任务清理
+        cacheInvalidationService.invalidateNamespace(USER_CACHE_NAMESPACE);
     }
 
     @Override
     public User save(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        idBloomFilterService.add(IdBloomFilterService.USER, savedUser.getId());
+        return savedUser;
     }
 
     @Override
@@ -1,8 +1,10 @@
 package com.example.campussysteam.repository;
 
+import com.example.campussysteam.module.course.entity.Course;
 import com.example.campussysteam.module.course.entity.StudentCourse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -35,6 +37,12 @@ public interface StudentCourseRepository extends JpaRepository<StudentCourse, Lo
      */
     List<StudentCourse> findByCourseId(Long courseId);
     
+    /**
+     * 查询选修课程的学生ID
+     */
+    @Query("SELECT sc.student.id FROM StudentCourse sc WHERE sc.course.id = :courseId")
+    List<Long> findStudentIdsByCourseId(@Param("courseId") Long courseId);
+    
     /**
      * 分页查询课程的学生
      */
@@ -46,6 +54,27 @@ public interface StudentCourseRepository extends JpaRepository<StudentCourse, Lo
     @Query("SELECT sc FROM StudentCourse sc JOIN sc.course c WHERE sc.student.id = :studentId AND c.semester = :semester")
     List<StudentCourse> findByStudentIdAndSemester(@Param("studentId") Long studentId, @Param("semester") String semester);
     
+    /**
+     * 查询学生在特定学期的选课记录，同时加载学生、课程和授课教师，用于转换DTO
+     */
+    @EntityGraph(attributePaths = {"student", "course", "course.teacher"})
+    @Query("SELECT sc FROM StudentCourse sc JOIN sc.course c WHERE sc.student.id = :studentId AND c.semester = :semester " +
+           "ORDER BY c.courseCode ASC")
+    List<StudentCourse> findWithDetailsByStudentIdAndSemester(@Param("studentId") Long studentId, @Param("semester") String semester);
+    
+    /**
+     * 查询学生某门课程的选课记录，同时加载学生、课程和授课教师，用于转换DTO
+     */
+    @EntityGraph(attributePaths = {"student", "course", "course.teacher"})
+    @Query("SELECT sc FROM StudentCourse sc WHERE sc.student.id = :studentId AND sc.course.id = :courseId")
+    Optional<StudentCourse> findWithDetailsByStudentIdAndCourseId(@Param("studentId") Long studentId, @Param("courseId") Long courseId);
+    
+    /**
+     * 查询学生在特定学期已选的课程
+     */
+    @Query("SELECT c FROM StudentCourse sc JOIN sc.course c WHERE sc.student.id = :studentId AND c.semester = :semester")
+    List<Course> findSelectedCourses(@Param("studentId") Long studentId, @Param("semester") String semester);
+    
     /**
      * 查询学生的成绩统计
      */
@@ -67,4 +96,10 @@ public interface StudentCourseRepository extends JpaRepository<StudentCourse, Lo
      * 统计课程的已选学生数
      */
     long countByCourseId(Long courseId);
+    
+    /**
+     * 按课程分组统计已选学生数，返回[课程ID, 人数]
+     */
+    @Query("SELECT sc.course.id, COUNT(sc) FROM StudentCourse sc GROUP BY sc.course.id")
+    List<Object[]> countGroupByCourse();
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.example.campussysteam.security;
 
+import com.example.campussysteam.module.redis.service.RedisBatch;
 import com.example.campussysteam.module.redis.service.RedisService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
@@ -153,27 +154,19 @@ public class JwtService {
                    token.substring(0, Math.min(10, token.length())) + "...", 
                    username, userDetails.getUsername());
         
-        // 检查token是否在黑名单中
+        // 黑名单和已存储的令牌通过管道一次查询
         String blacklistKey = BLACKLIST_PREFIX + token;
-        boolean inBlacklist = false;
-        try {
-            inBlacklist = redisService.exists(blacklistKey);
-            logger.debug("检查令牌是否在黑名单中: key={}, inBlacklist={}", blacklistKey, inBlacklist);
-        } catch (Exception e) {
-            logger.error("检查令牌黑名单失败: key={}", blacklistKey, e);
-            // 如果Redis出现异常，保守处理，认为令牌不在黑名单中
-        }
-        
-        if (inBlacklist) {
-            logger.warn("令牌在黑名单中，拒绝访问: username={}", username);
-            return false;
-        }
-        
-        // 检查Redis中的token是否匹配
         String redisKey = TOKEN_PREFIX + username;
+        boolean inBlacklist = false;
         String storedToken = null;
         try {
-            storedToken = (String) redisService.get(redisKey);
+            RedisBatch batch = new RedisBatch();
+            RedisBatch.Response<Boolean> blacklisted = batch.exists(blacklistKey);
+            RedisBatch.Response<String> stored = batch.get(redisKey);
+            redisService.pipeline(batch);
+            inBlacklist = Boolean.TRUE.equals(blacklisted.get());
+            storedToken = stored.get();
+            logger.debug("检查令牌是否在黑名单中: key={}, inBlacklist={}", blacklistKey, inBlacklist);
             logger.debug("从Redis获取存储的令牌: key={}, tokenExists={}", 
                        redisKey, storedToken != null);
             if (storedToken != null) {
@@ -184,8 +177,13 @@ public class JwtService {
                 logger.debug("令牌匹配结果: {}", storedToken.equals(token));
             }
         } catch (Exception e) {
-            logger.error("从Redis获取令牌失败: key={}", redisKey, e);
-            // 如果Redis出现异常，继续其他验证
+            logger.error("从Redis检查令牌失败: blacklistKey={}, tokenKey={}", blacklistKey, redisKey, e);
+            // 如果Redis出现异常，保守处理，认为令牌不在黑名单中，继续其他验证
+        }
+        
+        if (inBlacklist) {
+            logger.warn("令牌在黑名单中，拒绝访问: username={}", username);
+            return false;
         }
         
         // 检查用户名匹配
@@ -221,13 +219,12 @@ public class JwtService {
         logger.info("将令牌加入黑名单: username={}", username);
         
         try {
-            // 将token加入黑名单
-            redisService.set(BLACKLIST_PREFIX + token, "invalid", jwtExpiration / 1000);
-            logger.info("令牌已加入黑名单: username={}", username);
-            
-            // 删除用户的token
-            redisService.delete(TOKEN_PREFIX + username);
-            logger.info("已删除用户的令牌记录: username={}", username);
+            // 将token加入黑名单并删除用户的token，通过管道一次发送
+            redisService.pipeline(batch -> {
+                batch.set(BLACKLIST_PREFIX + token, "invalid", jwtExpiration / 1000);
+                batch.delete(TOKEN_PREFIX + username);
+            });
+            logger.info("令牌已加入黑名单并删除令牌记录: username={}", username);
         } catch (Exception e) {
             logger.error("将令牌加入黑名单失败: username={}", username, e);
             throw e;
@@ -0,0 +1,3 @@
+-- 为课程表和选课表增加乐观锁版本号
+ALTER TABLE course ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE student_course ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
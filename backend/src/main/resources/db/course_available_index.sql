@@ -0,0 +1,2 @@
+-- 可选课程游标分页索引：按学期过滤后直接按(课程代码, ID)顺序定位
+CREATE INDEX idx_course_semester_code_id ON course (semester, course_code, id);
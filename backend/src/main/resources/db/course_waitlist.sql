@@ -0,0 +1,13 @@
+-- 课程候补表
+CREATE TABLE IF NOT EXISTS course_waitlist (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    student_id BIGINT NOT NULL COMMENT '学生ID',
+    course_id BIGINT NOT NULL COMMENT '课程ID',
+    joined_at DATETIME NOT NULL COMMENT '加入候补时间',
+    status VARCHAR(20) NOT NULL DEFAULT 'WAITING' COMMENT '候补状态（WAITING候补中 PROMOTED已转为选课 CANCELLED已取消）',
+    promoted_at DATETIME COMMENT '转为选课时间',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    UNIQUE KEY uk_student_course (student_id, course_id),
+    INDEX idx_course_status_joined (course_id, status, joined_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='课程候补表';
@@ -0,0 +1,143 @@
+package com.example.campussysteam.benchmark;
+
+import com.example.campussysteam.common.cache.CompactRedisSerializer;
+import com.example.campussysteam.module.course.dto.CourseDTO;
+import com.example.campussysteam.module.user.entity.Role;
+import com.example.campussysteam.module.user.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis值序列化器对比基准测试
+ * 对比原Jackson JSON、JDK序列化、带类型的JSON和Smile在用户、课程和课程列表上的序列化与反序列化耗时，
+ * 序列化后的体积在初始化时输出。User未实现Serializable，jdk序列化器不参与User样本的测试。
+ * 运行：mvn -Pjmh test-compile exec:exec
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    private static final int COURSE_LIST_SIZE = 20;
+
+    @Param({"jackson-json", "jdk", "typed-json", "smile"})
+    private String serializerName;
+
+    @Param({"User", "CourseDTO", "List<CourseDTO>"})
+    private String sampleName;
+
+    private RedisSerializer<Object> serializer;
+    private Object sample;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = createSerializer(serializerName);
+        sample = createSample(sampleName);
+        if (sample instanceof User && serializer instanceof JdkSerializationRedisSerializer) {
+            throw new IllegalStateException("User未实现Serializable，跳过jdk序列化器");
+        }
+        bytes = serializer.serialize(sample);
+        Object restored = serializer.deserialize(bytes);
+        System.out.printf("%n[%s / %s] 大小=%d字节 还原类型=%s%n", sampleName, serializerName, bytes.length,
+                restored == null ? null : restored.getClass().getName());
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(sample);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    private static RedisSerializer<Object> createSerializer(String name) {
+        switch (name) {
+            case "jackson-json":
+                return new Jackson2JsonRedisSerializer<>(Object.class);
+            case "jdk":
+                return new JdkSerializationRedisSerializer();
+            case "typed-json":
+                return new CompactRedisSerializer(CompactRedisSerializer.Format.JSON);
+            default:
+                return new CompactRedisSerializer(CompactRedisSerializer.Format.SMILE);
+        }
+    }
+
+    private static Object createSample(String name) {
+        switch (name) {
+            case "User":
+                return User.builder()
+                        .id(10001L)
+                        .username("20230001")
+                        .password("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z3dV1bC9kFzY6m1tQe2xVnZ.")
+                        .realName("张三")
+                        .role(Role.ROLE_STUDENT)
+                        .email("zhangsan@example.com")
+                        .phone("13800000000")
+                        .studentId("20230001")
+                        .department("计算机学院")
+                        .major("软件工程")
+                        .className("软件2301")
+                        .enrollYear(2023)
+                        .status("ACTIVE")
+                        .createdAt(LocalDateTime.of(2023, 9, 1, 8, 0))
+                        .updatedAt(LocalDateTime.of(2024, 3, 1, 8, 0))
+                        .build();
+            case "CourseDTO":
+                return course(1);
+            default:
+                List<CourseDTO> courses = new ArrayList<>();
+                for (int i = 1; i <= COURSE_LIST_SIZE; i++) {
+                    courses.add(course(i));
+                }
+                return courses;
+        }
+    }
+
+    private static CourseDTO course(int index) {
+        return CourseDTO.builder()
+                .id((long) index)
+                .courseCode("CS" + (1000 + index))
+                .courseName("数据结构与算法" + index)
+                .departmentId(1L)
+                .departmentName("计算机学院")
+                .teacherId(200L + index)
+                .teacherName("李老师")
+                .credits(3.0)
+                .courseType("必修")
+                .semester("2024-2025-1")
+                .capacity(120)
+                .selectedCount(87)
+                .status("ACTIVE")
+                .description("线性表、树、图等基本数据结构及排序、查找算法")
+                .classTime("周一 1-2节, 周三 3-4节")
+                .classroom("教学楼A201")
+                .weeks("1-16")
+                .sections("1-2,3-4")
+                .build();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.campussysteam.module.course.service.impl;
+
+import com.example.campussysteam.common.transaction.RetryingTransactionExecutor;
+import com.example.campussysteam.module.course.dto.StudentCourseDTO;
+import com.example.campussysteam.module.course.entity.Course;
+import com.example.campussysteam.module.course.entity.StudentCourse;
+import com.example.campussysteam.module.course.service.CourseCatalogService;
+import com.example.campussysteam.module.course.service.SeatReservationService;
+import com.example.campussysteam.module.course.service.StudentCourseService;
+import com.example.campussysteam.module.course.service.TimeConflictService;
+import com.example.campussysteam.module.course.service.TimetableService;
+import com.example.campussysteam.module.student.entity.Department;
+import com.example.campussysteam.module.user.entity.Role;
+import com.example.campussysteam.module.user.entity.User;
+import com.example.campussysteam.repository.StudentCourseRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 选课记录查询接口的SQL语句数量测试
+ * 通过StudentCourseService调用，覆盖查询方法的选择和convertToDTO访问的关联；
+ * 改用懒加载的查询方法或DTO转换访问新的懒加载关联时语句数会增加。
+ * 与数据库无关的依赖使用mock
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        // user等表名在H2中是关键字
+        "spring.jpa.properties.hibernate.globally_quoted_identifiers=true"
+})
+@Import(StudentCourseServiceImpl.class)
+class StudentCourseServiceImplTest {
+
+    private static final String SEMESTER = "2024-2025-1";
+    private static final int COURSE_COUNT = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private StudentCourseService studentCourseService;
+
+    @Autowired
+    private StudentCourseRepository studentCourseRepository;
+
+    @MockBean
+    private SeatReservationService seatReservationService;
+
+    @MockBean
+    private TimeConflictService timeConflictService;
+
+    @MockBean
+    private CourseCatalogService courseCatalogService;
+
+    @MockBean
+    private RetryingTransactionExecutor retryingTransactionExecutor;
+
+    @MockBean
+    private TimetableService timetableService;
+
+    private Statistics statistics;
+    private Long studentId;
+    private Long firstCourseId;
+
+    @BeforeEach
+    void setUp() {
+        Department department = entityManager.persist(Department.builder()
+                .name("计算机学院")
+                .code("CS")
+                .build());
+        User student = entityManager.persist(user("20230001", Role.ROLE_STUDENT));
+        for (int i = 1; i <= COURSE_COUNT; i++) {
+            User teacher = entityManager.persist(user("T00" + i, Role.ROLE_TEACHER));
+            Course course = entityManager.persist(Course.builder()
+                    .courseCode("CS10" + i)
+                    .courseName("课程" + i)
+                    .department(department)
+                    .teacher(teacher)
+                    .credits(3.0)
+                    .courseType("必修")
+                    .semester(SEMESTER)
+                    .capacity(100)
+                    .selectedCount(1)
+                    .status("ACTIVE")
+                    .build());
+            if (firstCourseId == null) {
+                firstCourseId = course.getId();
+            }
+            entityManager.persist(StudentCourse.builder()
+                    .student(student)
+                    .course(course)
+                    .selectionTime(LocalDateTime.now())
+                    .build());
+        }
+        studentId = student.getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getSelectedCoursesUsesSingleStatement() {
+        List<StudentCourseDTO> courses = studentCourseService.getSelectedCourses(studentId, SEMESTER);
+
+        assertThat(courses).hasSize(COURSE_COUNT);
+        assertThat(courses).allSatisfy(dto -> assertThat(dto.getTeacherName()).isNotNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void getStudentCourseDetailUsesSingleStatement() {
+        StudentCourseDTO detail = studentCourseService.getStudentCourseDetail(studentId, firstCourseId);
+
+        assertThat(detail.getCourseId()).isEqualTo(firstCourseId);
+        assertThat(detail.getStudentName()).isEqualTo("20230001");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void lazyQueryIsDetectedByStatementCount() {
+        // 对照：不预先加载时每门课程的课程和教师都要单独查询，说明统计能发现N+1
+        studentCourseRepository.findByStudentIdAndSemester(studentId, SEMESTER).forEach(record -> {
+            record.getStudent().getRealName();
+            record.getCourse().getTeacher().getRealName();
+        });
+
+        assertThat(statistics.getPrepareStatementCount()).isGreaterThan(COURSE_COUNT);
+    }
+
+    private User user(String username, Role role) {
+        return User.builder()
+                .username(username)
+                .password("{noop}password")
+                .realName(username)
+                .role(role)
+                .status("ACTIVE")
+                .build();
+    }
+}
@@ -15,11 +15,15 @@ const API_ENDPOINTS = {
 };
 
 /**
- * 获取所有Redis键
- * @returns 所有Redis键的信息
+ * 分页获取Redis键
+ * @param cursor 上一页返回的游标，首页为'0'
+ * @param count 每页数量
+ * @param pattern 键名匹配模式
+ * @param type 键类型
+ * @returns 本页键信息及下一页游标
  */
-export const getAllKeys = () => {
-  return get(API_ENDPOINTS.getAllKeys);
+export const getAllKeys = (cursor: string = '0', count: number = 100, pattern: string = '*', type?: string) => {
+  return get(API_ENDPOINTS.getAllKeys, { cursor, count, pattern, type });
 };
 
 /**